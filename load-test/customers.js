@@ -0,0 +1,70 @@
+// Mixed read/write load against the customer API, used to compare platform and virtual threads.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=400 load-test/customers.js
+//
+// Report http_req_duration percentiles, http_reqs/s and the rate of the "rejected" metric (503 responses from the
+// request limiter) for each mode. Every other response must be a 2xx, or the run measures error paths.
+import http from 'k6/http';
+import { check, fail } from 'k6';
+import { Rate } from 'k6/metrics';
+
+const baseUrl = __ENV.BASE_URL || 'http://localhost:8080';
+const headers = { 'Content-Type': 'application/json' };
+const rejected = new Rate('rejected');
+
+export const options = {
+    scenarios: {
+        burst: {
+            executor: 'ramping-vus',
+            stages: [
+                { duration: '30s', target: Number(__ENV.VUS || 400) },
+                { duration: '2m', target: Number(__ENV.VUS || 400) },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        checks: ['rate==1'],
+    },
+};
+
+function customer(firstName, lastName) {
+    return JSON.stringify({
+        firstName,
+        lastName,
+        address: '1234 Elm Street',
+        phoneNumber: '080-322-3344',
+        dateOfBirth: '1980-01-01',
+        nationalSecurityNumber: '123-45-6789',
+    });
+}
+
+export function setup() {
+    const ids = [];
+    for (let i = 0; i < 200; i++) {
+        const res = http.post(`${baseUrl}/api/customers`, customer(`Load${i}`, 'Test'), { headers });
+        // Creates are answered with 200 and the created customer
+        if (res.status !== 200 || !res.json('id')) {
+            fail(`creating a customer returned ${res.status}: ${res.body}`);
+        }
+        ids.push(res.json('id'));
+    }
+    return { ids };
+}
+
+export default function (data) {
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+    const roll = Math.random();
+    let res;
+    if (roll < 0.7) {
+        res = http.get(`${baseUrl}/api/customers/${id}`);
+    } else if (roll < 0.9) {
+        res = http.get(`${baseUrl}/api/customers?limit=50`);
+    } else {
+        res = http.put(`${baseUrl}/api/customers/${id}`, customer(`Load${id}`, 'Updated'), { headers });
+    }
+    rejected.add(res.status === 503);
+    if (res.status !== 503) {
+        check(res, { 'succeeded': (r) => r.status >= 200 && r.status < 300 });
+    }
+}
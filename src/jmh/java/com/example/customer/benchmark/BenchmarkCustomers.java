@@ -0,0 +1,37 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.api.Customer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Customers used as benchmark input. Field values vary per index so no two customers serialize identically.
+ */
+final class BenchmarkCustomers {
+
+    private BenchmarkCustomers() {
+    }
+
+    static Customer customer(int index) {
+        Customer customer = new Customer();
+        customer.setId((long) index + 1);
+        customer.setFirstName("First" + index);
+        customer.setLastName("Last" + index);
+        customer.setAddress(index + " Elm Street");
+        customer.setPhoneNumber(String.format("080-%03d-%04d", index % 1000, index % 10000));
+        customer.setDateOfBirth(LocalDate.of(1950, 1, 1).plusDays(index % 20000));
+        customer.setNationalSecurityNumber(String.format("%03d-%02d-%04d", index % 1000, index % 100, index % 10000));
+        customer.setVersion(0L);
+        return customer;
+    }
+
+    static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            customers.add(customer(i));
+        }
+        return customers;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.api.Customer;
+import com.example.customer.app.CustomerEntity;
+import com.example.customer.app.CustomerMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CustomerMapperBenchmark {
+
+    private Customer customer;
+    private CustomerEntity customerEntity;
+
+    @Setup
+    public void setUp() {
+        customer = BenchmarkCustomers.customer(42);
+        customerEntity = CustomerMapper.toEntity(customer);
+    }
+
+    @Benchmark
+    public CustomerEntity toEntity() {
+        return CustomerMapper.toEntity(customer);
+    }
+
+    @Benchmark
+    public Customer toBean() {
+        return CustomerMapper.toBean(customerEntity);
+    }
+}
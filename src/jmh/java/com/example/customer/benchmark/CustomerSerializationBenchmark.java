@@ -0,0 +1,75 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.api.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Jackson serialization of customer lists in each wire format the API offers, with an object mapper configured the
+ * way Spring Boot configures it. {@code gzip} measures compressing the encoded list, the extra work the server does
+ * for a compressed response.
+ * <p>
+ * The encoded sizes, plain and gzipped, are printed once per trial, so a run reports both the cost and the payload of
+ * each format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CustomerSerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<Customer> customers;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper objectMapper = switch (format) {
+            case "cbor" -> json.copyWith(new CBORFactory());
+            case "smile" -> json.copyWith(new SmileFactory());
+            default -> json;
+        };
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Customer.class));
+        reader = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Customer.class));
+        customers = BenchmarkCustomers.customers(size);
+        encoded = writer.writeValueAsBytes(customers);
+        System.out.printf("%n%s, %d customers: %d bytes, %d bytes gzipped%n", format, size, encoded.length, gzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(customers);
+    }
+
+    @Benchmark
+    public List<Customer> deserialize() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    @Benchmark
+    public byte[] gzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(encoded.length);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(encoded);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.CustomerApplication;
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerPage;
+import com.example.customer.api.CustomerSearchCriteria;
+import com.example.customer.app.CustomerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CustomerService} operations against the in-memory H2 database of the default profile. The cache is disabled
+ * so reads measure the database path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CustomerServiceBenchmark {
+
+    private static final int CUSTOMERS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private long firstId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(CustomerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.cache.type=none", "logging.level.root=WARN")
+                .run();
+        customerService = context.getBean(CustomerService.class);
+        firstId = customerService.createCustomer(BenchmarkCustomers.customer(0)).getId();
+        for (int i = 1; i < CUSTOMERS; i++) {
+            customerService.createCustomer(BenchmarkCustomers.customer(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Customer> findCustomerById() {
+        return customerService.findCustomerById(randomId());
+    }
+
+    @Benchmark
+    public CustomerPage getCustomers() {
+        return customerService.getCustomers(null, CustomerService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CustomerPage searchCustomers() {
+        return customerService.searchCustomers(new CustomerSearchCriteria("first12", null, null, null), null,
+                CustomerService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Customer createCustomer() {
+        return customerService.createCustomer(BenchmarkCustomers.customer(ThreadLocalRandom.current().nextInt(CUSTOMERS)));
+    }
+
+    @Benchmark
+    public Customer updateCustomer() {
+        long id = randomId();
+        Customer customerDetails = BenchmarkCustomers.customer((int) (id % CUSTOMERS));
+        // Unconditional update; a fixed version would only succeed once
+        customerDetails.setVersion(null);
+        return customerService.updateCustomer(id, customerDetails);
+    }
+
+    private long randomId() {
+        // Ids are assigned in order from the sequence, so the seeded customers occupy one contiguous range
+        return firstId + ThreadLocalRandom.current().nextInt(CUSTOMERS);
+    }
+}
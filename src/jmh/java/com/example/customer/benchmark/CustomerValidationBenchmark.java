@@ -0,0 +1,86 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.api.Customer;
+import com.example.customer.app.CustomerEntity;
+import com.example.customer.app.CustomerMapper;
+import com.example.customer.app.CustomerValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of a customer, as done for every request body and bulk item: {@link CustomerValidator} against Bean
+ * Validation of both {@code Customer} and {@code CustomerEntity}, which is what it replaced. The national security
+ * number {@code @Pattern} is measured on its own as well, since it is the only regex constraint. Run with
+ * {@code -prof gc} to see that the hand-written validator allocates nothing for a valid customer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CustomerValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private CustomerValidator customerValidator;
+    private Customer validCustomer;
+    private Customer invalidCustomer;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        customerValidator = new CustomerValidator();
+        validCustomer = BenchmarkCustomers.customer(42);
+        invalidCustomer = BenchmarkCustomers.customer(42);
+        invalidCustomer.setNationalSecurityNumber("123456789");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Customer>> validCustomer() {
+        return validator.validate(validCustomer);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Customer>> invalidCustomer() {
+        return validator.validate(invalidCustomer);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Customer>> nationalSecurityNumber() {
+        return validator.validateProperty(validCustomer, "nationalSecurityNumber");
+    }
+
+    @Benchmark
+    public void validCustomerAndEntity(Blackhole blackhole) {
+        blackhole.consume(validator.validate(validCustomer));
+        blackhole.consume(validator.validate(CustomerMapper.toEntity(validCustomer)));
+    }
+
+    @Benchmark
+    public void invalidCustomerAndEntity(Blackhole blackhole) {
+        blackhole.consume(validator.validate(invalidCustomer));
+        blackhole.consume(validator.validate(CustomerMapper.toEntity(invalidCustomer)));
+    }
+
+    @Benchmark
+    public List<String> customerValidatorValid() {
+        return customerValidator.validate(validCustomer, false);
+    }
+
+    @Benchmark
+    public List<String> customerValidatorInvalid() {
+        return customerValidator.validate(invalidCustomer, false);
+    }
+}
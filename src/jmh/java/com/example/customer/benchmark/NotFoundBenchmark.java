@@ -0,0 +1,90 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerController;
+import com.example.customer.app.CustomerIngestService;
+import com.example.customer.app.CustomerService;
+import com.example.customer.app.GlobalExceptionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * {@code GET /api/customers/{id}} for a customer that does not exist, through the Spring MVC stack without a server
+ * or database. {@code problemResponse} is the current controller; {@code exceptionResponse} is the previous approach
+ * of throwing a stack-trace-carrying exception and mapping it to a string body in an exception handler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NotFoundBenchmark {
+
+    private MockMvc problemMvc;
+    private MockMvc exceptionMvc;
+
+    @Setup
+    public void setUp() {
+        CustomerService missingCustomers = new CustomerService(null, null, null, null, null) {
+            @Override
+            public Optional<Customer> findCustomerById(Long id) {
+                return Optional.empty();
+            }
+        };
+        problemMvc = MockMvcBuilders
+                .standaloneSetup(new CustomerController(missingCustomers, null, null,
+                        new StaticListableBeanFactory().getBeanProvider(CustomerIngestService.class), null, null, null, Duration.ZERO,
+                        Jackson2ObjectMapperBuilder.json().build()))
+                .setControllerAdvice(new GlobalExceptionHandler(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class)))
+                .build();
+        exceptionMvc = MockMvcBuilders
+                .standaloneSetup(new ThrowingController())
+                .setControllerAdvice(new ThrowingExceptionHandler())
+                .build();
+    }
+
+    @Benchmark
+    public MvcResult problemResponse() throws Exception {
+        return problemMvc.perform(get("/api/customers/{id}", 1L)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult exceptionResponse() throws Exception {
+        return exceptionMvc.perform(get("/api/customers/{id}", 1L)).andReturn();
+    }
+
+    static class MissingCustomerException extends RuntimeException {
+        MissingCustomerException() {
+            super("Customer not found");
+        }
+    }
+
+    @RestController
+    @RequestMapping("/api/customers")
+    public static class ThrowingController {
+        @GetMapping("/{id}")
+        public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
+            throw new MissingCustomerException();
+        }
+    }
+
+    @ControllerAdvice
+    public static class ThrowingExceptionHandler {
+        @ExceptionHandler(MissingCustomerException.class)
+        public ResponseEntity<String> handle(MissingCustomerException ex) {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.example.customer;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// JPA owns transaction management; a second, reactive transaction manager would make @Transactional ambiguous
+@SpringBootApplication(exclude = R2dbcTransactionManagerAutoConfiguration.class)
 public class CustomerApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,23 @@
+package com.example.customer.api;
+
+import java.util.List;
+
+/**
+ * Outcome of one item of a bulk request. {@code index} is the item's position in the request.
+ */
+public record BulkItemResult(int index, Long id, Status status, List<String> errors) {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        INVALID,
+        NOT_FOUND,
+        CONFLICT,
+        FAILED
+    }
+
+    public boolean succeeded() {
+        return status == Status.CREATED || status == Status.UPDATED || status == Status.DELETED;
+    }
+}
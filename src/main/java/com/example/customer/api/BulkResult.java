@@ -0,0 +1,14 @@
+package com.example.customer.api;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk request, with one item per request item in request order.
+ */
+public record BulkResult(int succeeded, int failed, List<BulkItemResult> items) {
+
+    public static BulkResult of(List<BulkItemResult> items) {
+        int succeeded = (int) items.stream().filter(BulkItemResult::succeeded).count();
+        return new BulkResult(succeeded, items.size() - succeeded, items);
+    }
+}
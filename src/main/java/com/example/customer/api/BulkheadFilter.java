@@ -0,0 +1,137 @@
+package com.example.customer.api;
+
+import com.example.customer.app.CustomerProblems;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Separate concurrency limits for the kinds of customer requests, so a flood of one kind cannot take the connections
+ * the others need: listing, search and export ({@link Bulkhead#SCAN}) hold a connection longest, lookups by id
+ * ({@link Bulkhead#READ}) are short and mostly cached, and creates, updates and deletes ({@link Bulkhead#WRITE}) go to
+ * the primary. A request whose bulkhead is full is rejected at once with {@code 503 Service Unavailable} and
+ * {@code Retry-After}, rather than waiting for a connection.
+ * <p>
+ * The change stream is not limited: its responses stay open for a long time, but hold no connection themselves; the
+ * relay reads the changes for all subscribers.
+ */
+@Component
+@ConditionalOnProperty(name = "customer.bulkhead.enabled", havingValue = "true")
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class BulkheadFilter extends OncePerRequestFilter implements MeterBinder {
+
+    public static final String METRIC_PREFIX = "customer.bulkhead";
+    private static final String PATH = "/api/customers";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD");
+
+    enum Bulkhead {
+        SCAN, READ, WRITE;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Map<Bulkhead, Compartment> compartments = new EnumMap<>(Bulkhead.class);
+
+    public BulkheadFilter(@Value("${customer.bulkhead.scan.max-concurrent:3}") int maxScans,
+                          @Value("${customer.bulkhead.read.max-concurrent:10}") int maxReads,
+                          @Value("${customer.bulkhead.write.max-concurrent:5}") int maxWrites) {
+        compartments.put(Bulkhead.SCAN, new Compartment(maxScans));
+        compartments.put(Bulkhead.READ, new Compartment(maxReads));
+        compartments.put(Bulkhead.WRITE, new Compartment(maxWrites));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return bulkhead(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Compartment compartment = compartments.get(bulkhead(request));
+        if (!compartment.permits.tryAcquire()) {
+            compartment.rejected.increment();
+            CustomerProblems.write(CustomerProblems.BULKHEAD_FULL, response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReleasingAsyncListener.releaseWhenDone(request, compartment.permits::release);
+        }
+    }
+
+    /**
+     * The bulkhead {@code request} goes through, or {@code null} if it is not limited.
+     */
+    static Bulkhead bulkhead(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (!uri.startsWith(PATH)) {
+            return null;
+        }
+        String path = uri.substring(PATH.length());
+        if (!path.isEmpty() && path.charAt(0) != '/') {
+            return null;
+        }
+        String method = request.getMethod();
+        if (!READ_METHODS.contains(method)) {
+            return method.equals("OPTIONS") ? null : Bulkhead.WRITE;
+        }
+        if (path.length() <= 1 || path.startsWith("/search") || path.startsWith("/export")) {
+            return Bulkhead.SCAN;
+        }
+        return path.startsWith("/changes") ? null : Bulkhead.READ;
+    }
+
+    int availablePermits(Bulkhead bulkhead) {
+        return compartments.get(bulkhead).permits.availablePermits();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        compartments.forEach((bulkhead, compartment) -> {
+            Gauge.builder(METRIC_PREFIX + ".active", compartment, c -> c.maxConcurrent - c.permits.availablePermits())
+                    .description("Requests in flight per bulkhead")
+                    .tag("bulkhead", bulkhead.tag())
+                    .register(registry);
+            FunctionCounter.builder(METRIC_PREFIX + ".rejected", compartment.rejected, LongAdder::sum)
+                    .description("Requests rejected with 503 because their bulkhead was full")
+                    .tag("bulkhead", bulkhead.tag())
+                    .register(registry);
+        });
+    }
+
+    private static final class Compartment {
+
+        private final int maxConcurrent;
+        private final Semaphore permits;
+        private final LongAdder rejected = new LongAdder();
+
+        private Compartment(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+            this.permits = new Semaphore(maxConcurrent);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.customer.api;
+
+import com.example.customer.app.CustomerProblems;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the number of API requests in flight when requests run on virtual threads.
+ * <p>
+ * With platform threads the Tomcat pool bounds concurrency. Virtual threads remove that bound, so a burst would queue
+ * on the connection pool until Hikari times out. Requests over the limit wait briefly for a permit and are otherwise
+ * rejected with {@code 503 Service Unavailable} before they reach the database.
+ * <p>
+ * The change stream is not limited: a subscription stays open for up to the emitter timeout but holds no connection,
+ * so counting it would let a few subscribers starve every other request.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    public static final String METRIC_PREFIX = "customer.concurrency";
+    private static final String CHANGES_PATH = "/api/customers/changes";
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final LongAdder rejected = new LongAdder();
+
+    public ConcurrencyLimitFilter(@Value("${customer.concurrency.max-requests:10}") int maxRequests,
+                                  @Value("${customer.concurrency.acquire-timeout:2s}") Duration acquireTimeout) {
+        this.permits = new Semaphore(maxRequests, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith("/api/") || uri.startsWith(CHANGES_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!acquire()) {
+            rejected.increment();
+            CustomerProblems.write(CustomerProblems.CONCURRENCY_LIMITED, response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReleasingAsyncListener.releaseWhenDone(request, permits::release);
+        }
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_PREFIX + ".rejected", rejected, LongAdder::sum)
+                .description("Requests rejected with 503 because no permit was free within the acquire timeout")
+                .register(registry);
+    }
+
+    private boolean acquire() {
+        try {
+            return permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
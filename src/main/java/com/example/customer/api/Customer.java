@@ -3,9 +3,13 @@ package com.example.customer.api;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 
+import java.io.Serializable;
+import java.time.Instant;
 import java.time.LocalDate;
 
-public class Customer {
+public class Customer implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private Long id;
     @NotBlank(message = "First Name cannot be blank")
@@ -17,6 +21,29 @@ public class Customer {
     private LocalDate dateOfBirth;
     @Pattern(regexp = "^\\d{3}-\\d{2}-\\d{4}$", message = "National Security number must be in the format nnn-nn-nnnn")
     private String nationalSecurityNumber;
+    private Long version;
+    // Set by the server; ignored on input
+    private Instant updatedAt;
+
+    public Customer() {
+    }
+
+    /**
+     * All fields at once, for reads that construct customers straight from query results with a JPQL {@code new}
+     * expression or a Criteria {@code construct}, without loading entities.
+     */
+    public Customer(Long id, String firstName, String lastName, String address, String phoneNumber, LocalDate dateOfBirth,
+                    String nationalSecurityNumber, Long version, Instant updatedAt) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.address = address;
+        this.phoneNumber = phoneNumber;
+        this.dateOfBirth = dateOfBirth;
+        this.nationalSecurityNumber = nationalSecurityNumber;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
 
     public Long getId() {
         return id;
@@ -66,5 +93,19 @@ public class Customer {
     public void setNationalSecurityNumber(String nationalSecurityNumber) {
         this.nationalSecurityNumber = nationalSecurityNumber;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
 
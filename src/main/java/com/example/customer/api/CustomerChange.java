@@ -0,0 +1,17 @@
+package com.example.customer.api;
+
+import java.time.Instant;
+
+/**
+ * One entry of the customer change stream. {@code position} orders the changes and is what a consumer passes back to
+ * resume after it. {@code customer} is the state after the change and is {@code null} for deletions; {@code version}
+ * is {@code null} when an update did not say which version it applied to.
+ */
+public record CustomerChange(long position, Type type, Long customerId, Long version, Instant changedAt, Customer customer) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
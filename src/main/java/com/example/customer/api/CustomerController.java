@@ -1,41 +1,287 @@
 package com.example.customer.api;
 
+import com.example.customer.app.CustomerBulkService;
+import com.example.customer.app.CustomerChangeRelay;
+import com.example.customer.app.CustomerImportService;
+import com.example.customer.app.CustomerIngestService;
+import com.example.customer.app.CustomerProblems;
 import com.example.customer.app.CustomerService;
-import jakarta.validation.Valid;
+import com.example.customer.app.CustomerSyncService;
+import com.example.customer.app.CustomerValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.example.customer.api.CustomerETags.versionOf;
+import static com.example.customer.api.CustomerETags.withETag;
 
 @RestController
 @RequestMapping("/api/customers")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerBulkService customerBulkService;
+    private final CustomerImportService customerImportService;
+    private final CustomerIngestService customerIngestService;
+    private final CustomerChangeRelay customerChangeRelay;
+    private final CustomerSyncService customerSyncService;
+    private final CustomerValidator customerValidator;
+    private final long changeStreamTimeout;
+    private final ObjectReader customerReader;
+    private final ObjectReader csvCustomerReader;
+    private final List<ExportFormat> exportFormats;
     private static final String ROLE_ADMIN = "hasRole('ADMIN')";
+    private static final String DEFAULT_LIMIT = "" + CustomerService.DEFAULT_PAGE_SIZE;
+    private static final String PREFER = "Prefer";
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final String CHANGE_EVENT = "customer-change";
+    static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+    static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, CustomerBulkService customerBulkService,
+                              CustomerImportService customerImportService,
+                              ObjectProvider<CustomerIngestService> customerIngestService,
+                              CustomerChangeRelay customerChangeRelay, CustomerSyncService customerSyncService,
+                              CustomerValidator customerValidator,
+                              @Value("${customer.changes.emitter-timeout:30m}") Duration changeStreamTimeout,
+                              ObjectMapper objectMapper) {
         this.customerService = customerService;
+        this.customerBulkService = customerBulkService;
+        this.customerImportService = customerImportService;
+        this.customerIngestService = customerIngestService.getIfAvailable();
+        this.customerChangeRelay = customerChangeRelay;
+        this.customerSyncService = customerSyncService;
+        this.customerValidator = customerValidator;
+        this.changeStreamTimeout = changeStreamTimeout.toMillis();
+        this.customerReader = objectMapper.readerFor(Customer.class);
+        ObjectMapper csvMapper = objectMapper.copyWith(new CsvFactory());
+        // Columns are matched by the header row, so clients may leave out or reorder them
+        this.csvCustomerReader = csvMapper.readerFor(Customer.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .with(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+        // In order of preference, for clients that accept more than one
+        this.exportFormats = List.of(
+                new ExportFormat(MediaType.APPLICATION_JSON, exportWriter(objectMapper), true),
+                new ExportFormat(MediaType.APPLICATION_CBOR, exportWriter(objectMapper.copyWith(new CBORFactory())), true),
+                new ExportFormat(APPLICATION_SMILE, exportWriter(objectMapper.copyWith(new SmileFactory())), true),
+                new ExportFormat(MediaType.APPLICATION_NDJSON, exportWriter(objectMapper).withRootValueSeparator("\n"), false),
+                new ExportFormat(TEXT_CSV, exportWriter(csvMapper).with(csvSchema()), false));
     }
 
     @GetMapping
-    public List<Customer> getAllCustomers() {
-        return customerService.getAllCustomers();
+    public CustomerPage getCustomers(@RequestParam(required = false) String after,
+                                     @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
+        return customerService.getCustomers(after, limit);
+    }
+
+    /**
+     * A page of customers with only the comma separated {@code fields}, such as {@code id,firstName,lastName}, read
+     * and returned; the id is always included. An unknown field is answered with 400 Bad Request.
+     */
+    @GetMapping(params = {"fields", "!modifiedSince"})
+    public PartialCustomerPage getCustomers(@RequestParam String fields,
+                                            @RequestParam(required = false) String after,
+                                            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
+        return customerService.getCustomers(CustomerField.parse(fields), after, limit);
+    }
+
+    /**
+     * Customers modified and deleted at or after {@code modifiedSince}, in the order they changed. Page through with
+     * {@code after}; the last page returns the {@code watermark} to pass as {@code modifiedSince} next time. A
+     * {@code modifiedSince} older than the change retention is answered with 410 Gone.
+     */
+    @GetMapping(params = "modifiedSince")
+    public CustomerDelta getModifiedCustomers(@RequestParam Instant modifiedSince,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
+        return customerSyncService.getModifiedCustomers(modifiedSince, after, limit);
+    }
+
+    @GetMapping("/search")
+    public CustomerPage searchCustomers(@RequestParam(required = false) String name,
+                                        @RequestParam(required = false) String phoneNumber,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+                                        @RequestParam(required = false) String after,
+                                        @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
+        return customerService.searchCustomers(new CustomerSearchCriteria(name, phoneNumber, bornFrom, bornTo), after, limit);
+    }
+
+    /**
+     * Search returning only the given {@code fields}, as with {@link #getCustomers(String, String, int)}.
+     */
+    @GetMapping(value = "/search", params = "fields")
+    public PartialCustomerPage searchCustomers(@RequestParam String fields,
+                                               @RequestParam(required = false) String name,
+                                               @RequestParam(required = false) String phoneNumber,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
+        return customerService.searchCustomers(new CustomerSearchCriteria(name, phoneNumber, bornFrom, bornTo),
+                CustomerField.parse(fields), after, limit);
     }
 
+    /**
+     * Streams every customer as a JSON array, or as a CBOR or Smile array, newline delimited JSON or CSV with a header
+     * row when the {@code Accept} header prefers one. Customers are read through a database cursor and encoded one by
+     * one straight onto the response; 406 Not Acceptable if no format is accepted.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ExportFormat format = exportFormat(accept);
+        if (format == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter sequence = format.array()
+                    ? format.writer().writeValuesAsArray(outputStream)
+                    : format.writer().writeValues(outputStream)) {
+                customerService.exportCustomers(customer -> write(sequence, customer));
+            }
+        };
+        return ResponseEntity.ok().contentType(format.mediaType()).body(body);
+    }
+
+    /**
+     * Server-sent events of every customer change after position {@code since}, in order, then of changes as they
+     * happen. Each event id is the position of its change, so a reconnecting client resumes where it left off through
+     * {@code Last-Event-ID}. Without either, the stream starts with the next change.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long since,
+                                    @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId) {
+        long from = lastEventId != null ? lastEventId : since != null ? since : customerChangeRelay.position();
+        SseEmitter emitter = new SseEmitter(changeStreamTimeout);
+        CustomerChangeRelay.Subscription subscription = customerChangeRelay.subscribe(from,
+                change -> emitter.send(SseEmitter.event()
+                        .id(Long.toString(change.position()))
+                        .name(CHANGE_EVENT)
+                        .data(change, MediaType.APPLICATION_JSON)),
+                emitter::complete);
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(ex -> subscription.cancel());
+        return emitter;
+    }
+
+    /**
+     * Misses are answered with a prebuilt problem response; no exception is thrown on this path. A matching
+     * {@code If-None-Match} is answered with 304 Not Modified, see {@link CustomerETags}.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
-        return ResponseEntity.ok(customerService.getCustomerById(id));
+    public ResponseEntity<?> getCustomerById(@PathVariable Long id) {
+        Optional<Customer> customer = customerService.findCustomerById(id);
+        return customer.isPresent() ? withETag(customer.get()) : CustomerProblems.NOT_FOUND;
     }
 
+    /**
+     * With {@code Prefer: respond-async}, and asynchronous ingestion enabled, the customer is queued and the response
+     * is 202 Accepted with a tracking id; its progress is at the {@code Location} of the response. A full queue is
+     * answered with 429 Too Many Requests. An invalid customer is answered with 400 Bad Request listing every broken
+     * rule, see {@link CustomerValidator}.
+     */
     @PostMapping
-    public Customer createCustomer(@Valid @RequestBody Customer customer) {
-        return customerService.createCustomer(customer);
+    public ResponseEntity<?> createCustomer(@RequestBody Customer customer,
+                                            @RequestHeader(value = PREFER, required = false) String prefer) {
+        customerValidator.requireValid(customer);
+        if (customerIngestService != null && prefer != null && prefer.contains(RESPOND_ASYNC)) {
+            IngestStatus status = customerIngestService.submit(customer);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/customers/ingest/" + status.trackingId()))
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(status);
+        }
+        return ResponseEntity.ok(customerService.createCustomer(customer));
     }
 
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<?> getIngestStatus(@PathVariable String trackingId) {
+        Optional<IngestStatus> status = customerIngestService == null ? Optional.empty() : customerIngestService.getStatus(trackingId);
+        return status.isPresent() ? ResponseEntity.ok(status.get()) : CustomerProblems.UNKNOWN_TRACKING_ID;
+    }
+
+    /**
+     * With {@code If-Match} the update only applies if the customer's current ETag matches; otherwise the response is
+     * 412 Precondition Failed. {@code If-Match: *} updates unconditionally. The body replaces the customer and is
+     * validated like a new one.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Customer> updateCustomer(@Valid @PathVariable Long id, @RequestBody Customer customerDetails) {
-        return ResponseEntity.ok(customerService.updateCustomer(id, customerDetails));
+    public ResponseEntity<Customer> updateCustomer(@PathVariable Long id, @RequestBody Customer customerDetails,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) {
+            customerDetails.setVersion(versionOf(ifMatch));
+        }
+        customerValidator.requireValid(customerDetails);
+        return withETag(customerService.updateCustomer(id, customerDetails));
+    }
+
+    /**
+     * Accepts a JSON array or newline delimited JSON. Items are read and written as they stream in.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkResult createCustomers(InputStream body) throws IOException {
+        return readCustomers(customerReader, body, customerBulkService::createCustomers);
+    }
+
+    @PutMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkResult updateCustomers(InputStream body) throws IOException {
+        return readCustomers(customerReader, body, customerBulkService::updateCustomers);
+    }
+
+    /**
+     * Creates a customer for every row of newline delimited JSON or CSV with a header row, for loads too large for
+     * {@code /bulk}: rows are streamed into the database in large chunks, and only rejected rows are reported. Ids,
+     * versions and timestamps in the input are ignored. Malformed input is answered with 400 Bad Request, but chunks
+     * read before it stay imported.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ImportResult importCustomers(InputStream body,
+                                        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) throws IOException {
+        ObjectReader reader = TEXT_CSV.isCompatibleWith(contentType) ? csvCustomerReader : customerReader;
+        return readCustomers(reader, body, customerImportService::importCustomers);
+    }
+
+    @DeleteMapping("/bulk")
+    public BulkResult deleteCustomers(@RequestBody List<Long> ids) {
+        return customerBulkService.deleteCustomers(ids);
     }
 
     @DeleteMapping("/{id}")
@@ -43,5 +289,75 @@ public class CustomerController {
         customerService.deleteCustomer(id);
         return ResponseEntity.ok().build();
     }
-}
 
+    private static <T> T readCustomers(ObjectReader reader, InputStream body, Function<Iterator<Customer>, T> action)
+            throws IOException {
+        try (MappingIterator<Customer> customers = reader.readValues(body)) {
+            return action.apply(customers);
+        } catch (RuntimeException ex) {
+            // MappingIterator reports malformed input as an unchecked wrapper
+            if (ex.getCause() instanceof JsonProcessingException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * The first export format the {@code Accept} header allows, going by quality and specificity and then by the order
+     * the client listed them; {@code null} when it allows none.
+     */
+    private ExportFormat exportFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return exportFormats.get(0);
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (IllegalArgumentException ex) {
+            return exportFormats.get(0);
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (ExportFormat format : exportFormats) {
+                if (mediaType.includes(format.mediaType())) {
+                    return format;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static ObjectWriter exportWriter(ObjectMapper objectMapper) {
+        // Let the servlet buffer decide when to flush instead of flushing after every row
+        return objectMapper.writerFor(Customer.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * CSV columns in the order of {@link CustomerField}, which is also the order of the JSON properties.
+     */
+    private static CsvSchema csvSchema() {
+        CsvSchema.Builder schema = CsvSchema.builder().setUseHeader(true);
+        for (CustomerField field : CustomerField.values()) {
+            schema.addColumn(field.propertyName());
+        }
+        return schema.build();
+    }
+
+    private static void write(SequenceWriter sequence, Customer customer) {
+        try {
+            sequence.write(customer);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @param array whether customers are written as one array, or as a sequence of values
+     */
+    private record ExportFormat(MediaType mediaType, ObjectWriter writer, boolean array) {
+    }
+}
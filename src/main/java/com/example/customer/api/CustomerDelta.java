@@ -0,0 +1,12 @@
+package com.example.customer.api;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One keyset page of the customers modified and deleted since a point in time, in the order they changed.
+ * {@code nextCursor} is {@code null} on the last page, which instead carries the {@code watermark} to pass as
+ * {@code modifiedSince} on the next sync.
+ */
+public record CustomerDelta(List<Customer> customers, List<CustomerTombstone> deleted, String nextCursor, Instant watermark) {
+}
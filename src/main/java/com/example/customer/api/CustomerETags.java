@@ -0,0 +1,46 @@
+package com.example.customer.api;
+
+import com.example.customer.app.CustomerVersionConflictException;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Maps customer versions to and from entity tags, shared by the servlet and reactive controllers.
+ * <p>
+ * A version identifies one exact state of a customer, so it is a strong ETag. Both web stacks compare it, and
+ * {@code Last-Modified}, against {@code If-None-Match} and {@code If-Modified-Since} on GET requests and answer a match
+ * with 304 Not Modified without writing the body.
+ */
+final class CustomerETags {
+
+    private CustomerETags() {
+    }
+
+    static ResponseEntity<Customer> withETag(Customer customer) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (customer.getVersion() != null) {
+            response.eTag(customer.getVersion().toString());
+        }
+        if (customer.getUpdatedAt() != null) {
+            response.lastModified(customer.getUpdatedAt());
+        }
+        return response.body(customer);
+    }
+
+    /**
+     * Reads the version out of an {@code If-Match} header. Weak or foreign ETags can never match a version.
+     */
+    static Long versionOf(String ifMatch) {
+        String eTag = ifMatch.trim();
+        if ("*".equals(eTag)) {
+            return null;
+        }
+        if (eTag.length() < 2 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            throw new CustomerVersionConflictException();
+        }
+        try {
+            return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new CustomerVersionConflictException();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.customer.api;
+
+import com.example.customer.app.InvalidFieldsException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Customer properties a client can pick with {@code fields=}. Each one is named as in the JSON representation, which
+ * is also the name of the entity attribute it is read from.
+ */
+public enum CustomerField {
+
+    ID("id"),
+    FIRST_NAME("firstName"),
+    LAST_NAME("lastName"),
+    ADDRESS("address"),
+    PHONE_NUMBER("phoneNumber"),
+    DATE_OF_BIRTH("dateOfBirth"),
+    NATIONAL_SECURITY_NUMBER("nationalSecurityNumber"),
+    VERSION("version"),
+    UPDATED_AT("updatedAt");
+
+    private final String propertyName;
+
+    CustomerField(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    public String propertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Parses a comma separated list of property names. The id is always included, since page cursors are built from
+     * it.
+     *
+     * @throws InvalidFieldsException if a name is not a customer property
+     */
+    public static Set<CustomerField> parse(String fields) {
+        Set<CustomerField> parsed = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                parsed.add(of(trimmed));
+            }
+        }
+        return parsed;
+    }
+
+    private static CustomerField of(String propertyName) {
+        for (CustomerField field : values()) {
+            if (field.propertyName.equals(propertyName)) {
+                return field;
+            }
+        }
+        throw new InvalidFieldsException();
+    }
+}
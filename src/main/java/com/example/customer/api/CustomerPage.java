@@ -0,0 +1,9 @@
+package com.example.customer.api;
+
+import java.util.List;
+
+/**
+ * One keyset page of customers. {@code nextCursor} is {@code null} on the last page.
+ */
+public record CustomerPage(List<Customer> customers, String nextCursor) {
+}
@@ -0,0 +1,14 @@
+package com.example.customer.api;
+
+import java.time.LocalDate;
+
+/**
+ * Filters of a customer search. Every filter is optional and the ones given must all match.
+ *
+ * @param name        case-insensitive prefix of the first or last name
+ * @param phoneNumber exact phone number
+ * @param bornFrom    earliest date of birth, inclusive
+ * @param bornTo      latest date of birth, inclusive
+ */
+public record CustomerSearchCriteria(String name, String phoneNumber, LocalDate bornFrom, LocalDate bornTo) {
+}
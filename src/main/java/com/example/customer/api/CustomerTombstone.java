@@ -0,0 +1,9 @@
+package com.example.customer.api;
+
+import java.time.Instant;
+
+/**
+ * Marks a customer deleted at {@code deletedAt}, in a {@link CustomerDelta}.
+ */
+public record CustomerTombstone(Long id, Instant deletedAt) {
+}
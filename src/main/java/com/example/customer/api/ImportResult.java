@@ -0,0 +1,10 @@
+package com.example.customer.api;
+
+import java.util.List;
+
+/**
+ * Outcome of an import. Unlike {@link BulkResult} it only lists the rows that were not imported, and at most the first
+ * {@code customer.import.max-errors} of them, so its size does not grow with the input.
+ */
+public record ImportResult(long imported, long rejected, List<BulkItemResult> errors) {
+}
@@ -0,0 +1,26 @@
+package com.example.customer.api;
+
+/**
+ * Progress of a customer accepted for asynchronous creation. {@code customerId} is set once the customer is created,
+ * {@code error} when it could not be.
+ */
+public record IngestStatus(String trackingId, Status status, Long customerId, String error) {
+
+    public enum Status {
+        QUEUED,
+        CREATED,
+        FAILED
+    }
+
+    public static IngestStatus queued(String trackingId) {
+        return new IngestStatus(trackingId, Status.QUEUED, null, null);
+    }
+
+    public static IngestStatus created(String trackingId, Long customerId) {
+        return new IngestStatus(trackingId, Status.CREATED, customerId, null);
+    }
+
+    public static IngestStatus failed(String trackingId, String error) {
+        return new IngestStatus(trackingId, Status.FAILED, null, error);
+    }
+}
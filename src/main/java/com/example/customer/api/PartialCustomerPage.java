@@ -0,0 +1,11 @@
+package com.example.customer.api;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One keyset page of customers holding only the fields asked for, keyed by property name in {@link CustomerField}
+ * order. {@code nextCursor} is {@code null} on the last page.
+ */
+public record PartialCustomerPage(List<Map<String, Object>> customers, String nextCursor) {
+}
@@ -0,0 +1,80 @@
+package com.example.customer.api;
+
+import com.example.customer.app.CustomerProblems;
+import com.example.customer.app.CustomerRateLimitProperties;
+import com.example.customer.app.RateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the rate of API requests per client, so one client cannot take the capacity every other client shares.
+ * A client is identified by the {@code customer.rate-limit.client-header} header, or by its remote address when it
+ * does not send one. Requests over the limit are rejected with {@code 429 Too Many Requests} and a {@code Retry-After}
+ * of when the next one would be let through, before any other work is done for them.
+ * <p>
+ * The header is taken at face value; where clients must not be able to pick their own identity, authenticate them in
+ * front of this filter.
+ */
+@Component
+@ConditionalOnProperty(name = "customer.rate-limit.enabled", havingValue = "true")
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    public static final String METRIC_NAME = "customer.rate.limit.rejected";
+
+    private final RateLimiter rateLimiter;
+    private final String clientHeader;
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimitFilter(RateLimiter rateLimiter, CustomerRateLimitProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.clientHeader = properties.getClientHeader();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = rateLimiter.tryAcquire(client(request));
+        if (waitNanos > 0) {
+            rejected.increment();
+            // Whole seconds, rounded up so a client that honors it is not rejected again
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            CustomerProblems.write(CustomerProblems.RATE_LIMITED, response);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String client(HttpServletRequest request) {
+        String key = request.getHeader(clientHeader);
+        return key == null || key.isBlank() ? "ip:" + request.getRemoteAddr() : "key:" + key;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_NAME, rejected, LongAdder::sum)
+                .description("API requests rejected with 429 because their client exceeded its rate limit")
+                .register(registry);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.customer.api;
+
+import com.example.customer.app.CustomerProblems;
+import com.example.customer.app.CustomerService;
+import com.example.customer.app.CustomerValidator;
+import com.example.customer.app.ReactiveCustomerService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static com.example.customer.api.CustomerETags.versionOf;
+
+/**
+ * WebFlux implementation of the {@code /api/customers} contract, active when the application runs as a reactive web
+ * application ({@code spring.main.web-application-type=reactive}). Bulk endpoints, the change stream and
+ * {@code modifiedSince} deltas are only served by {@link CustomerController}.
+ */
+@RestController
+@RequestMapping("/api/customers")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomerController {
+
+    private final ReactiveCustomerService customerService;
+    private final CustomerValidator customerValidator;
+    private static final String DEFAULT_LIMIT = "" + CustomerService.DEFAULT_PAGE_SIZE;
+
+    public ReactiveCustomerController(ReactiveCustomerService customerService, CustomerValidator customerValidator) {
+        this.customerService = customerService;
+        this.customerValidator = customerValidator;
+    }
+
+    @GetMapping
+    public Mono<CustomerPage> getCustomers(@RequestParam(required = false) String after,
+                                           @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
+        return customerService.getCustomers(after, limit);
+    }
+
+    @GetMapping("/search")
+    public Mono<CustomerPage> searchCustomers(@RequestParam(required = false) String name,
+                                              @RequestParam(required = false) String phoneNumber,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
+        return customerService.searchCustomers(new CustomerSearchCriteria(name, phoneNumber, bornFrom, bornTo), after, limit);
+    }
+
+    /**
+     * Streams every customer as a JSON array, or as newline delimited JSON when asked for {@code application/x-ndjson}.
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Customer> exportCustomers() {
+        return customerService.exportCustomers();
+    }
+
+    /**
+     * Same conditional GET semantics as {@link CustomerController#getCustomerById}.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<?>> getCustomerById(@PathVariable Long id) {
+        return customerService.findCustomerById(id)
+                .<ResponseEntity<?>>map(CustomerETags::withETag)
+                .defaultIfEmpty(CustomerProblems.NOT_FOUND);
+    }
+
+    @PostMapping
+    public Mono<Customer> createCustomer(@RequestBody Customer customer) {
+        customerValidator.requireValid(customer);
+        return customerService.createCustomer(customer);
+    }
+
+    /**
+     * Same {@code If-Match} semantics as {@link CustomerController#updateCustomer}.
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Customer>> updateCustomer(@PathVariable Long id, @RequestBody Customer customerDetails,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) {
+            customerDetails.setVersion(versionOf(ifMatch));
+        }
+        customerValidator.requireValid(customerDetails);
+        return customerService.updateCustomer(id, customerDetails).map(CustomerETags::withETag);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteCustomer(@PathVariable Long id) {
+        return customerService.deleteCustomer(id).thenReturn(ResponseEntity.ok().<Void>build());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.customer.api;
+
+import com.example.customer.app.ReplicaDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Keeps the reads of a client on the primary for {@code customer.replicas.read-your-writes} after it changed
+ * something, so it does not miss its own write on a replica that has not caught up yet.
+ * <p>
+ * Every API request that is not a GET, HEAD or OPTIONS runs on the primary entirely and sets a cookie that holds the
+ * time until which the client's reads stay there. Clients without a cookie store can send the cookie back themselves.
+ * Streamed exports run on another thread after the request returns and always read from a replica.
+ */
+@Component
+@ConditionalOnProperty(name = "customer.replicas.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "customer-primary-until";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ReplicaDataSource replicaDataSource;
+    private final Duration window;
+
+    public ReadYourWritesFilter(ReplicaDataSource replicaDataSource,
+                                @Value("${customer.replicas.read-your-writes:5s}") Duration window) {
+        this.replicaDataSource = replicaDataSource;
+        this.window = window;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write) {
+            // Set before the chain runs; the response may be committed by the time it returns
+            Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis() + window.toMillis()));
+            cookie.setPath("/api");
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        } else if (!wroteRecently(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        replicaDataSource.pinToPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            replicaDataSource.unpin();
+        }
+    }
+
+    private static boolean wroteRecently(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.customer.api;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Releases a permit taken by a filter once the request is done. Streaming responses keep their connection until the
+ * async part completes, so for them the permit is held until then.
+ */
+record ReleasingAsyncListener(Runnable release) implements AsyncListener {
+
+    /**
+     * Runs {@code release} exactly once: now, or when the async part of {@code request} ends. Call after the filter
+     * chain returned.
+     */
+    static void releaseWhenDone(HttpServletRequest request, Runnable release) {
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable releaseOnce = () -> {
+            if (released.compareAndSet(false, true)) {
+                release.run();
+            }
+        };
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new ReleasingAsyncListener(releaseOnce));
+        } else {
+            releaseOnce.run();
+        }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        release.run();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        release.run();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        release.run();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+        event.getAsyncContext().addListener(this);
+    }
+}
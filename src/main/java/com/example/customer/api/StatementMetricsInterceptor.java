@@ -0,0 +1,68 @@
+package com.example.customer.api;
+
+import com.example.customer.app.StatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records how many SQL statements each request made, per endpoint, so N+1 selects or an extra read before a write
+ * show up as a shift in the distribution rather than only as latency.
+ * <p>
+ * Statements are counted on the request thread, so work done elsewhere is not covered:
+ * <ul>
+ *     <li>Asynchronous requests, such as the streamed export, are not recorded at all: their statements run on
+ *     another thread.</li>
+ *     <li>A customer created with {@code Prefer: respond-async} is inserted by the ingest writer, so the request
+ *     records none of its statements.</li>
+ *     <li>With lookup batching, a batch is loaded on one caller's thread, so that request records the query and the
+ *     others that joined the batch record none.</li>
+ * </ul>
+ */
+public class StatementMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String METRIC_NAME = "customer.requests.statements";
+
+    private final StatementCounter statementCounter;
+    private final MeterRegistry meterRegistry;
+
+    public StatementMetricsInterceptor(StatementCounter statementCounter, MeterRegistry meterRegistry) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        statementCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streamed responses query on another thread; stop counting so this thread does not keep a stale counter
+        statementCounter.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int statements = statementCounter.stop();
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // Only the dispatch that completes an asynchronous request gets here, after its statements ran elsewhere
+            return;
+        }
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(METRIC_NAME)
+                .description("SQL statements prepared by Hibernate per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                .publishPercentileHistogram()
+                .maximumExpectedValue(100.0)
+                .register(meterRegistry)
+                .record(statements);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.customer.app;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Broadcasts L1 invalidations of {@link TwoTierCache}s to every node over Redis pub/sub, and applies the ones
+ * published by other nodes.
+ */
+public class CacheInvalidationChannel implements MessageListener {
+
+    public static final String CHANNEL = "customer:cache:invalidation";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public CacheInvalidationChannel(RedisConnectionFactory connectionFactory) {
+        this.redisTemplate = new RedisTemplate<>();
+        this.redisTemplate.setConnectionFactory(connectionFactory);
+        this.redisTemplate.setKeySerializer(StringRedisSerializer.UTF_8);
+        this.redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer(getClass().getClassLoader()));
+        this.redisTemplate.afterPropertiesSet();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void register(TwoTierCache cache) {
+        caches.put(cache.getName(), cache);
+    }
+
+    /**
+     * Tells the other nodes to drop {@code key} from their L1, or every entry when {@code key} is {@code null}.
+     */
+    public void publish(String cacheName, Object key) {
+        redisTemplate.convertAndSend(CHANNEL, new Invalidation(nodeId, cacheName, key));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!(redisTemplate.getValueSerializer().deserialize(message.getBody()) instanceof Invalidation invalidation)
+                || nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        TwoTierCache cache = caches.get(invalidation.cacheName());
+        if (cache == null) {
+            return;
+        }
+        if (invalidation.key() == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(invalidation.key());
+        }
+    }
+
+    record Invalidation(String origin, String cacheName, Object key) implements Serializable {
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.customer.app;
+
+import com.example.customer.api.BulkItemResult;
+import com.example.customer.api.BulkItemResult.Status;
+import com.example.customer.api.BulkResult;
+import com.example.customer.api.Customer;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
+import static com.example.customer.app.CustomerMapper.toEntity;
+import static com.example.customer.app.CustomerMapper.updateEntity;
+
+/**
+ * Creates, updates and deletes customers in bulk. Items are validated one by one and written in chunks of
+ * {@code customer.bulk.chunk-size}, each chunk in its own transaction so Hibernate can send it as JDBC batches.
+ * A chunk that fails to commit is reported as failed without affecting the chunks before or after it. Chunks time out
+ * after {@code customer.changes.write-timeout}; see {@link CustomerChangeConfig}.
+ */
+@Service
+@Timed(value = "customer.service", histogram = true)
+public class CustomerBulkService {
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerValidator validator;
+    private final Cache customerCache;
+    private final CustomerIdFilter customerIdFilter;
+    private final CustomerChangeLog changeLog;
+    private final int chunkSize;
+
+    public CustomerBulkService(CustomerRepository customerRepository,
+                               @Qualifier(CustomerChangeConfig.CHUNK_TRANSACTIONS) TransactionTemplate transactionTemplate,
+                               CustomerValidator validator, CacheManager cacheManager, CustomerIdFilter customerIdFilter,
+                               CustomerChangeLog changeLog, @Value("${customer.bulk.chunk-size:500}") int chunkSize) {
+        this.customerRepository = customerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.customerCache = cacheManager.getCache(CUSTOMERS_CACHE);
+        this.customerIdFilter = customerIdFilter;
+        this.changeLog = changeLog;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkResult createCustomers(Iterator<Customer> customers) {
+        List<BulkItemResult> results = new ArrayList<>();
+        processInChunks(customers, false, results, this::insertChunk);
+        return toResult(results);
+    }
+
+    public BulkResult updateCustomers(Iterator<Customer> customers) {
+        List<BulkItemResult> results = new ArrayList<>();
+        processInChunks(customers, true, results, this::updateChunk);
+        return toResult(results);
+    }
+
+    public BulkResult deleteCustomers(List<Long> ids) {
+        List<BulkItemResult> results = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            deleteChunk(ids.subList(from, Math.min(from + chunkSize, ids.size())), from, results);
+        }
+        return toResult(results);
+    }
+
+    private void processInChunks(Iterator<Customer> customers, boolean requireId, List<BulkItemResult> results,
+                                 ChunkWriter chunkWriter) {
+        List<Customer> chunk = new ArrayList<>(chunkSize);
+        List<Integer> indexes = new ArrayList<>(chunkSize);
+        int index = 0;
+        while (customers.hasNext()) {
+            Customer customer = customers.next();
+            List<String> errors = validator.validate(customer, requireId);
+            if (errors.isEmpty()) {
+                chunk.add(customer);
+                indexes.add(index);
+            } else {
+                results.add(new BulkItemResult(index, customer == null ? null : customer.getId(), Status.INVALID, errors));
+            }
+            if (chunk.size() == chunkSize) {
+                chunkWriter.write(chunk, indexes, results);
+                chunk.clear();
+                indexes.clear();
+            }
+            index++;
+        }
+        if (!chunk.isEmpty()) {
+            chunkWriter.write(chunk, indexes, results);
+        }
+    }
+
+    private void insertChunk(List<Customer> chunk, List<Integer> indexes, List<BulkItemResult> results) {
+        try {
+            List<CustomerEntity> saved = transactionTemplate.execute(status -> {
+                List<CustomerEntity> entities = customerRepository.saveAll(chunk.stream().map(CustomerBulkService::newEntity).toList());
+                changeLog.created(entities.stream().map(CustomerMapper::toBean).toList());
+                return entities;
+            });
+            customerIdFilter.addAll(saved.stream().map(CustomerEntity::getId).toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                Long id = saved.get(i).getId();
+                // Drop any cached miss for the new id
+                customerCache.evict(id);
+                results.add(new BulkItemResult(indexes.get(i), id, Status.CREATED, List.of()));
+            }
+        } catch (RuntimeException ex) {
+            failChunk(chunk, indexes, ex, results);
+        }
+    }
+
+    private void updateChunk(List<Customer> chunk, List<Integer> indexes, List<BulkItemResult> results) {
+        try {
+            // One select for the whole chunk; the changes are flushed as batched, version checked updates on commit
+            Status[] outcomes = transactionTemplate.execute(status -> {
+                Map<Long, CustomerEntity> existing = customerRepository.findAllById(chunk.stream().map(Customer::getId).toList())
+                        .stream()
+                        .collect(Collectors.toMap(CustomerEntity::getId, Function.identity()));
+                Status[] chunkOutcomes = new Status[chunk.size()];
+                List<CustomerEntity> updated = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    Customer customer = chunk.get(i);
+                    CustomerEntity customerEntity = existing.get(customer.getId());
+                    if (customerEntity == null) {
+                        chunkOutcomes[i] = Status.NOT_FOUND;
+                    } else if (customer.getVersion() != null && !customer.getVersion().equals(customerEntity.getVersion())) {
+                        chunkOutcomes[i] = Status.CONFLICT;
+                    } else {
+                        updateEntity(customer, customerEntity);
+                        updated.add(customerEntity);
+                        chunkOutcomes[i] = Status.UPDATED;
+                    }
+                }
+                if (!updated.isEmpty()) {
+                    // Flush first so the recorded changes carry the incremented versions
+                    customerRepository.flush();
+                    changeLog.updated(updated.stream().map(CustomerMapper::toBean).toList());
+                }
+                return chunkOutcomes;
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                Long id = chunk.get(i).getId();
+                if (outcomes[i] == Status.UPDATED) {
+                    customerCache.evict(id);
+                }
+                results.add(new BulkItemResult(indexes.get(i), id, outcomes[i], List.of()));
+            }
+        } catch (RuntimeException ex) {
+            failChunk(chunk, indexes, ex, results);
+        }
+    }
+
+    private void deleteChunk(List<Long> ids, int firstIndex, List<BulkItemResult> results) {
+        try {
+            Set<Long> deleted = transactionTemplate.execute(status -> {
+                Set<Long> existing = new HashSet<>(customerRepository.findExistingIds(ids));
+                if (!existing.isEmpty()) {
+                    customerRepository.deleteAllByIdInBatch(existing);
+                    changeLog.deleted(existing);
+                }
+                return existing;
+            });
+            for (int i = 0; i < ids.size(); i++) {
+                Long id = ids.get(i);
+                boolean found = deleted.contains(id);
+                if (found) {
+                    customerCache.evict(id);
+                }
+                results.add(new BulkItemResult(firstIndex + i, id, found ? Status.DELETED : Status.NOT_FOUND, List.of()));
+            }
+        } catch (RuntimeException ex) {
+            for (int i = 0; i < ids.size(); i++) {
+                results.add(new BulkItemResult(firstIndex + i, ids.get(i), Status.FAILED, List.of(String.valueOf(ex.getMessage()))));
+            }
+        }
+    }
+
+    private static void failChunk(List<Customer> chunk, List<Integer> indexes, RuntimeException ex, List<BulkItemResult> results) {
+        for (int i = 0; i < chunk.size(); i++) {
+            results.add(new BulkItemResult(indexes.get(i), chunk.get(i).getId(), Status.FAILED, List.of(String.valueOf(ex.getMessage()))));
+        }
+    }
+
+    private static CustomerEntity newEntity(Customer customer) {
+        CustomerEntity customerEntity = toEntity(customer);
+        customerEntity.setId(null);
+        customerEntity.setVersion(null);
+        return customerEntity;
+    }
+
+    private static BulkResult toResult(List<BulkItemResult> results) {
+        results.sort(Comparator.comparingInt(BulkItemResult::index));
+        return BulkResult.of(results);
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(List<Customer> chunk, List<Integer> indexes, List<BulkItemResult> results);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-through caching of customers by id. The store is chosen with {@code spring.cache.type}: Redis in the cloud
+ * profile and an in-process Caffeine cache locally and in tests. With {@code customer.cache.local.enabled} an in-process tier
+ * is put in front of Redis and kept coherent across nodes over Redis pub/sub.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CustomerCacheProperties.class)
+public class CustomerCacheConfig {
+
+    public static final String CUSTOMERS_CACHE = "customers";
+
+    // Rough heap cost of a cached customer without its strings: cache entry, Long key and id, Customer and LocalDate
+    private static final int CUSTOMER_BASE_SIZE = 200;
+    private static final int STRING_BASE_SIZE = 40;
+    private static final int DEFAULT_ENTRY_SIZE = 256;
+
+    @Bean
+    public RedisCacheManagerBuilderCustomizer customerCacheCustomizer(CustomerCacheProperties properties, ObjectMapper objectMapper) {
+        return builder -> builder
+                .withCacheConfiguration(CUSTOMERS_CACHE, customerCacheConfiguration(properties, objectMapper))
+                .enableStatistics();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.cache.local.enabled", havingValue = "true")
+    public CacheInvalidationChannel cacheInvalidationChannel(RedisConnectionFactory connectionFactory) {
+        return new CacheInvalidationChannel(connectionFactory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.cache.local.enabled", havingValue = "true")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheInvalidationChannel invalidationChannel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationChannel, new ChannelTopic(CacheInvalidationChannel.CHANNEL));
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.cache.local.enabled", havingValue = "true")
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, CustomerCacheProperties properties,
+                                     ObjectMapper objectMapper, CacheInvalidationChannel invalidationChannel) {
+        RedisCacheManager remoteCacheManager = RedisCacheManager.builder(connectionFactory)
+                .withCacheConfiguration(CUSTOMERS_CACHE, customerCacheConfiguration(properties, objectMapper))
+                .enableStatistics()
+                .build();
+        remoteCacheManager.initializeCaches();
+
+        TwoTierCache customers = new TwoTierCache(CUSTOMERS_CACHE, localCache(properties.getLocal()),
+                remoteCacheManager.getCache(CUSTOMERS_CACHE), invalidationChannel);
+        invalidationChannel.register(customers);
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(customers));
+        return cacheManager;
+    }
+
+    /**
+     * Reports hits and misses of each tier separately, tagged {@code tier=l1} and {@code tier=l2}.
+     */
+    @Bean
+    public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return (cache, tags) -> registry -> {
+            new CaffeineCacheMetrics<>(cache.getLocalCache(), cache.getName(), Tags.of(tags).and("tier", "l1")).bindTo(registry);
+            if (cache.getRemoteCache() instanceof RedisCache redisCache) {
+                new RedisCacheMetrics(redisCache, Tags.of(tags).and("tier", "l2")).bindTo(registry);
+            }
+        };
+    }
+
+    /**
+     * Misses are cached as well, for {@code customer.cache.negative-ttl}, so probing for unknown ids does not reach the
+     * database every time.
+     */
+    static RedisCacheConfiguration customerCacheConfiguration(CustomerCacheProperties properties, ObjectMapper objectMapper) {
+        Duration ttl = properties.getTtl();
+        Duration negativeTtl = properties.getNegativeTtl();
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl((key, value) -> value == null || value instanceof NullValue ? negativeTtl : ttl)
+                .serializeValuesWith(SerializationPair.fromSerializer(valueSerializer(properties.getSerialization(), objectMapper)));
+    }
+
+    static RedisSerializer<?> valueSerializer(CustomerCacheProperties.Serialization serialization, ObjectMapper objectMapper) {
+        return switch (serialization) {
+            case JSON -> new Jackson2JsonRedisSerializer<>(objectMapper, Customer.class);
+            case JDK -> new JdkSerializationRedisSerializer(CustomerCacheConfig.class.getClassLoader());
+        };
+    }
+
+    /**
+     * Bounded by estimated heap size rather than entry count. Caffeine evicts with W-TinyLFU.
+     */
+    static com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache(CustomerCacheProperties.Local local) {
+        return Caffeine.newBuilder()
+                .maximumWeight(local.getMaximumSize().toBytes())
+                .weigher(CustomerCacheConfig::estimateSize)
+                .expireAfterWrite(local.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    static int estimateSize(Object key, Object value) {
+        if (value instanceof Customer customer) {
+            return CUSTOMER_BASE_SIZE
+                    + sizeOf(customer.getFirstName())
+                    + sizeOf(customer.getLastName())
+                    + sizeOf(customer.getAddress())
+                    + sizeOf(customer.getPhoneNumber())
+                    + sizeOf(customer.getNationalSecurityNumber());
+        }
+        return DEFAULT_ENTRY_SIZE;
+    }
+
+    private static int sizeOf(String value) {
+        return value == null ? 0 : STRING_BASE_SIZE + value.length();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.customer.app;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.cache")
+public class CustomerCacheProperties {
+
+    /**
+     * How long a customer stays in the remote cache after it was last loaded or updated.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * How long the remote cache remembers that a customer does not exist.
+     */
+    private Duration negativeTtl = Duration.ofSeconds(30);
+
+    /**
+     * Wire format of cached customers.
+     */
+    private Serialization serialization = Serialization.JSON;
+
+    /**
+     * In-process tier kept in front of Redis.
+     */
+    private final Local local = new Local();
+
+    public Duration getTtl() {
+        return ttl;
+    }
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+    public void setNegativeTtl(Duration negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+
+    public Serialization getSerialization() {
+        return serialization;
+    }
+    public void setSerialization(Serialization serialization) {
+        this.serialization = serialization;
+    }
+
+    public Local getLocal() {
+        return local;
+    }
+
+    public enum Serialization {
+        JSON,
+        JDK
+    }
+
+    public static class Local {
+
+        /**
+         * Whether to keep an in-process tier in front of Redis. Requires Redis.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Estimated heap the in-process tier may use before it starts evicting.
+         */
+        private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Upper bound on how long an entry is served locally, in case an invalidation message is lost.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getMaximumSize() {
+            return maximumSize;
+        }
+        public void setMaximumSize(DataSize maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.customer.app;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Change stream of customers, relayed from the {@link CustomerChangeLog} outbox, and the delta queries built on it.
+ * <p>
+ * Also the transactions of chunked writes, which time out after {@code customer.changes.write-timeout} so none can
+ * commit rows stamped further back than the {@code modifiedSince} delta's settle time.
+ */
+@Configuration
+@EnableConfigurationProperties(CustomerChangeProperties.class)
+public class CustomerChangeConfig {
+
+    /**
+     * Qualifier of the transaction template for chunked writes.
+     */
+    public static final String CHUNK_TRANSACTIONS = "chunkTransactionTemplate";
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerChangeConfig.class);
+
+    /**
+     * The template everything else uses. Declaring the chunk template makes Spring Boot back off from its own.
+     */
+    @Bean
+    @Primary
+    public TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    @Bean(CHUNK_TRANSACTIONS)
+    public TransactionTemplate chunkTransactionTemplate(PlatformTransactionManager transactionManager,
+                                                        CustomerChangeProperties properties) {
+        int timeoutSeconds = (int) Math.max(1, (properties.getWriteTimeout().toMillis() + 999) / 1000);
+        if (properties.getSettleTime().compareTo(Duration.ofSeconds(timeoutSeconds)) <= 0) {
+            log.warn("customer.changes.settle-time {} is not longer than the {}s chunked write timeout; modifiedSince "
+                    + "deltas can miss rows from long chunks", properties.getSettleTime(), timeoutSeconds);
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setTimeout(timeoutSeconds);
+        return transactionTemplate;
+    }
+
+    @Bean
+    public CustomerChangeRelay customerChangeRelay(CustomerChangeLog changeLog, CustomerChangeProperties properties) {
+        return new CustomerChangeRelay(changeLog, properties, Clock.systemUTC());
+    }
+
+    @Bean
+    public CustomerSyncService customerSyncService(CustomerRepository customerRepository, CustomerChangeLog changeLog,
+                                                   CustomerChangeProperties properties) {
+        return new CustomerSyncService(customerRepository, changeLog, properties, Clock.systemUTC());
+    }
+}
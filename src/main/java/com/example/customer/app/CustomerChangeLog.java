@@ -0,0 +1,155 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerChange;
+import com.example.customer.api.CustomerTombstone;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transactional outbox of customer changes, the {@code customer_changes} table. Writes go through the JDBC connection
+ * of the surrounding JPA transaction, so a change is recorded if and only if it commits. The row id is the position
+ * in the change stream; {@link CustomerChangeRelay} publishes the rows in that order.
+ * <p>
+ * Change times come from the application clock, like {@link CustomerEntity#getUpdatedAt()}, so deletions and
+ * modifications can be merged on one timeline.
+ */
+@Repository
+public class CustomerChangeLog {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO customer_changes (customer_id, change_type, version, payload, changed_at) VALUES (?, ?, ?, ?, ?)""";
+    private static final String SELECT_AFTER_SQL = """
+            SELECT id, customer_id, change_type, version, payload, changed_at
+            FROM customer_changes WHERE id > ? ORDER BY id LIMIT ?""";
+    private static final String SELECT_DELETED_SQL = """
+            SELECT customer_id, changed_at FROM customer_changes
+            WHERE change_type = 'DELETED' AND (changed_at > ? OR (changed_at = ? AND customer_id > ?)) AND changed_at < ?
+            ORDER BY changed_at, customer_id LIMIT ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectReader customerReader;
+    private final ObjectWriter customerWriter;
+
+    public CustomerChangeLog(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.customerReader = objectMapper.readerFor(Customer.class);
+        this.customerWriter = objectMapper.writerFor(Customer.class);
+    }
+
+    public void created(Collection<Customer> customers) {
+        insert(CustomerChange.Type.CREATED, customers);
+    }
+
+    public void updated(Collection<Customer> customers) {
+        insert(CustomerChange.Type.UPDATED, customers);
+    }
+
+    public void deleted(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        OffsetDateTime deletedAt = utc(CustomerEntity.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, ids, ids.size(), (statement, id) ->
+                bind(statement, id, CustomerChange.Type.DELETED, null, null, deletedAt));
+    }
+
+    /**
+     * Returns up to {@code limit} changes after {@code position}, in order.
+     */
+    public List<CustomerChange> findAfter(long position, int limit) {
+        return jdbcTemplate.query(SELECT_AFTER_SQL, this::toChange, position, limit);
+    }
+
+    /**
+     * Keyset page of the customers deleted at or after {@code after} and before {@code before}, in
+     * {@code (deletedAt, id)} order, starting after the customer {@code afterId} deleted at {@code after}. Only
+     * deletions within the retention period are known.
+     */
+    public List<CustomerTombstone> findDeleted(Instant after, long afterId, Instant before, int limit) {
+        return jdbcTemplate.query(SELECT_DELETED_SQL,
+                (resultSet, rowNumber) -> new CustomerTombstone(resultSet.getLong("customer_id"),
+                        resultSet.getObject("changed_at", OffsetDateTime.class).toInstant()),
+                utc(after), utc(after), afterId, utc(before), limit);
+    }
+
+    /**
+     * Position of the latest recorded change, or 0 when there is none.
+     */
+    public long lastPosition() {
+        Long position = jdbcTemplate.queryForObject("SELECT MAX(id) FROM customer_changes", Long.class);
+        return position == null ? 0 : position;
+    }
+
+    /**
+     * Deletes the changes recorded before {@code cutoff} and returns how many there were.
+     */
+    public int purgeBefore(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM customer_changes WHERE changed_at < ?", utc(cutoff));
+    }
+
+    /**
+     * The JSON stored for {@code customer}, for writers that do not go through this class.
+     */
+    public String payload(Customer customer) {
+        try {
+            return customerWriter.writeValueAsString(customer);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Customer " + customer.getId() + " cannot be serialized", ex);
+        }
+    }
+
+    private void insert(CustomerChange.Type type, Collection<Customer> customers) {
+        if (customers.isEmpty()) {
+            return;
+        }
+        Instant now = CustomerEntity.now();
+        jdbcTemplate.batchUpdate(INSERT_SQL, customers, customers.size(), (statement, customer) ->
+                bind(statement, customer.getId(), type, customer.getVersion(), payload(customer),
+                        utc(customer.getUpdatedAt() == null ? now : customer.getUpdatedAt())));
+    }
+
+    private static void bind(PreparedStatement statement, Long id, CustomerChange.Type type, Long version, String payload,
+                             OffsetDateTime changedAt) throws SQLException {
+        statement.setLong(1, id);
+        statement.setString(2, type.name());
+        statement.setObject(3, version, Types.BIGINT);
+        statement.setString(4, payload);
+        statement.setObject(5, changedAt);
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private CustomerChange toChange(ResultSet resultSet, int rowNumber) throws SQLException {
+        String payload = resultSet.getString("payload");
+        Customer customer;
+        try {
+            customer = payload == null ? null : customerReader.readValue(payload);
+        } catch (JsonProcessingException ex) {
+            throw new SQLException("Change " + resultSet.getLong("id") + " has an unreadable payload", ex);
+        }
+        return new CustomerChange(
+                resultSet.getLong("id"),
+                CustomerChange.Type.valueOf(resultSet.getString("change_type")),
+                resultSet.getLong("customer_id"),
+                resultSet.getObject("version", Long.class),
+                resultSet.getObject("changed_at", OffsetDateTime.class).toInstant(),
+                customer);
+    }
+}
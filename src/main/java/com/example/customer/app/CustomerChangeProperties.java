@@ -0,0 +1,125 @@
+package com.example.customer.app;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.changes")
+public class CustomerChangeProperties {
+
+    /**
+     * How often the relay polls the outbox for new changes.
+     */
+    private Duration pollInterval = Duration.ofMillis(200);
+
+    /**
+     * Most changes read from the outbox in one query.
+     */
+    private int batchSize = 500;
+
+    /**
+     * How long the relay waits for a missing position to commit before skipping it. Positions are allocated before
+     * their transaction commits, so a gap is usually a transaction still in flight, but a rolled back one leaves a
+     * gap for good.
+     */
+    private Duration gapTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How far behind the current time the {@code modifiedSince} query stops. Timestamps are taken before their
+     * transaction commits, and on nodes whose clocks may differ slightly, so a change is only handed out once
+     * nothing can still commit with an earlier timestamp. Keep it longer than {@code write-timeout}.
+     */
+    private Duration settleTime = Duration.ofSeconds(3);
+
+    /**
+     * Longest a chunked write may run before it is rolled back: a bulk or import chunk, or a batch of asynchronously
+     * created customers. These stamp many rows before they commit, so they are what {@code settle-time} has to wait
+     * for. Enforced in whole seconds, rounded up.
+     */
+    private Duration writeTimeout = Duration.ofSeconds(2);
+
+    /**
+     * How long changes are kept, and so how far back {@code modifiedSince} may go. Consumers that fall further behind
+     * must resynchronize from the customer list.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * How often changes older than the retention are deleted.
+     */
+    private Duration purgeInterval = Duration.ofHours(1);
+
+    /**
+     * Changes buffered per subscriber. A subscriber that falls this far behind is disconnected and has to resume
+     * from its last position.
+     */
+    private int subscriberBuffer = 10_000;
+
+    /**
+     * How long a change stream response stays open. Clients reconnect with {@code Last-Event-ID}.
+     */
+    private Duration emitterTimeout = Duration.ofMinutes(30);
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getGapTimeout() {
+        return gapTimeout;
+    }
+    public void setGapTimeout(Duration gapTimeout) {
+        this.gapTimeout = gapTimeout;
+    }
+
+    public Duration getSettleTime() {
+        return settleTime;
+    }
+    public void setSettleTime(Duration settleTime) {
+        this.settleTime = settleTime;
+    }
+
+    public Duration getWriteTimeout() {
+        return writeTimeout;
+    }
+    public void setWriteTimeout(Duration writeTimeout) {
+        this.writeTimeout = writeTimeout;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public Duration getPurgeInterval() {
+        return purgeInterval;
+    }
+    public void setPurgeInterval(Duration purgeInterval) {
+        this.purgeInterval = purgeInterval;
+    }
+
+    public int getSubscriberBuffer() {
+        return subscriberBuffer;
+    }
+    public void setSubscriberBuffer(int subscriberBuffer) {
+        this.subscriberBuffer = subscriberBuffer;
+    }
+
+    public Duration getEmitterTimeout() {
+        return emitterTimeout;
+    }
+    public void setEmitterTimeout(Duration emitterTimeout) {
+        this.emitterTimeout = emitterTimeout;
+    }
+}
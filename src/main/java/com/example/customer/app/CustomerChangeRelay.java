@@ -0,0 +1,241 @@
+package com.example.customer.app;
+
+import com.example.customer.api.CustomerChange;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes the {@link CustomerChangeLog} as an ordered change stream. The relay polls the outbox every
+ * {@code customer.changes.poll-interval} and hands new changes to its subscribers strictly in position order.
+ * <p>
+ * Positions are taken when a change is written but become visible when its transaction commits, so a later position
+ * can show up before an earlier one. The relay stops at the first missing position and waits for it for up to
+ * {@code customer.changes.gap-timeout}; after that the position is taken to belong to a rolled back transaction and
+ * is skipped. A transaction that takes longer than that to commit is missed by live subscribers.
+ * <p>
+ * Each subscriber gets its own virtual thread and a bounded buffer, so a slow consumer holds up only itself. It first
+ * catches up from the outbox, then follows the live changes; one that lets its buffer fill is disconnected and has to
+ * resume from its last position.
+ */
+public class CustomerChangeRelay implements MeterBinder {
+
+    public static final String METRIC_PREFIX = "customer.changes";
+
+    private final CustomerChangeLog changeLog;
+    private final CustomerChangeProperties properties;
+    private final Clock clock;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+
+    private volatile long position;
+    // First time the relay found the position after the current one missing; only touched by poll
+    private Instant gapSince;
+
+    public CustomerChangeRelay(CustomerChangeLog changeLog, CustomerChangeProperties properties, Clock clock) {
+        this.changeLog = changeLog;
+        this.properties = properties;
+        this.clock = clock;
+        // Live subscribers start from here; earlier changes are read back from the outbox
+        this.position = changeLog.lastPosition();
+    }
+
+    /**
+     * Position of the last change handed to subscribers. Every change up to it is in the outbox, or skipped for good.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Delivers every change after {@code since} to {@code listener}, in order, until the subscription is cancelled.
+     * {@code onClose} runs when the relay ends the subscription itself: the subscriber fell behind or the listener
+     * failed.
+     */
+    public Subscription subscribe(long since, ChangeListener listener, Runnable onClose) {
+        Subscription subscription = new Subscription(since, listener, onClose);
+        // Register before reading the position, so every change after it reaches the buffer
+        subscriptions.add(subscription);
+        subscription.start(position);
+        return subscription;
+    }
+
+    @Scheduled(fixedDelayString = "${customer.changes.poll-interval:200ms}")
+    public synchronized void poll() {
+        int batchSize = properties.getBatchSize();
+        List<CustomerChange> changes;
+        int published;
+        do {
+            changes = changeLog.findAfter(position, batchSize);
+            published = publish(changes);
+        } while (published == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${customer.changes.purge-interval:1h}",
+            initialDelayString = "${customer.changes.purge-interval:1h}")
+    public void purge() {
+        purged.add(changeLog.purgeBefore(clock.instant().minus(properties.getRetention())));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".position", this, CustomerChangeRelay::position)
+                .description("Position of the last customer change published")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".subscribers", subscriptions, Set::size)
+                .description("Open subscriptions to the customer change stream")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".relayed", relayed, LongAdder::sum)
+                .description("Customer changes published to subscribers")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".skipped", skipped, LongAdder::sum)
+                .description("Positions given up on after waiting for them for the gap timeout")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".disconnected", disconnected, LongAdder::sum)
+                .description("Subscriptions ended by the relay because the subscriber fell behind or failed")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".purged", purged, LongAdder::sum)
+                .description("Customer changes deleted after the retention period")
+                .register(registry);
+    }
+
+    private int publish(List<CustomerChange> changes) {
+        int published = 0;
+        for (CustomerChange change : changes) {
+            long missing = change.position() - position - 1;
+            if (missing > 0) {
+                if (!gapExpired()) {
+                    break;
+                }
+                skipped.add(missing);
+            }
+            gapSince = null;
+            position = change.position();
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(change);
+            }
+            relayed.increment();
+            published++;
+        }
+        return published;
+    }
+
+    private boolean gapExpired() {
+        Instant now = clock.instant();
+        if (gapSince == null) {
+            gapSince = now;
+            return false;
+        }
+        return Duration.between(gapSince, now).compareTo(properties.getGapTimeout()) >= 0;
+    }
+
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onChange(CustomerChange change) throws Exception;
+    }
+
+    public final class Subscription {
+
+        private final long since;
+        private final ChangeListener listener;
+        private final Runnable onClose;
+        private final BlockingQueue<CustomerChange> buffer;
+        private final Thread thread;
+        private volatile boolean cancelled;
+        private volatile boolean closed;
+        private long upTo;
+
+        private Subscription(long since, ChangeListener listener, Runnable onClose) {
+            this.since = since;
+            this.listener = listener;
+            this.onClose = onClose;
+            this.buffer = new ArrayBlockingQueue<>(properties.getSubscriberBuffer());
+            this.thread = Thread.ofVirtual().name("customer-changes-" + since).unstarted(this::run);
+        }
+
+        /**
+         * Stops delivering changes. Does not run {@code onClose}.
+         */
+        public void cancel() {
+            cancelled = true;
+            close();
+        }
+
+        public boolean isActive() {
+            return !closed;
+        }
+
+        private void start(long upTo) {
+            this.upTo = upTo;
+            thread.start();
+        }
+
+        private void offer(CustomerChange change) {
+            if (!buffer.offer(change)) {
+                close();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            subscriptions.remove(this);
+            thread.interrupt();
+        }
+
+        private void run() {
+            long delivered = since;
+            try {
+                // Catch up on what was published before the subscription, page by page
+                int batchSize = properties.getBatchSize();
+                catchUp:
+                while (delivered < upTo && !closed) {
+                    List<CustomerChange> page = changeLog.findAfter(delivered, batchSize);
+                    for (CustomerChange change : page) {
+                        if (change.position() > upTo) {
+                            break catchUp;
+                        }
+                        listener.onChange(change);
+                        delivered = change.position();
+                    }
+                    if (page.size() < batchSize) {
+                        break;
+                    }
+                }
+                // Then follow the live changes; the buffer may repeat some of the ones just read
+                while (!closed) {
+                    CustomerChange change = buffer.take();
+                    if (change.position() > delivered) {
+                        listener.onChange(change);
+                        delivered = change.position();
+                    }
+                }
+            } catch (InterruptedException ex) {
+                // Closed
+            } catch (Exception ex) {
+                // The listener failed, typically because the client went away
+            } finally {
+                closed = true;
+                subscriptions.remove(this);
+                if (!cancelled) {
+                    disconnected.increment();
+                    onClose.run();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.customer.app;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Encodes the keyset position of a customer page as an opaque cursor so clients do not depend on the id ordering.
+ */
+public final class CustomerCursor {
+
+    private CustomerCursor() {
+    }
+
+    public static String encode(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    /**
+     * Encodes a position in modification order: the customer {@code id}, changed at {@code changedAt}. Timestamps are
+     * kept to the microsecond, the precision they are stored at.
+     */
+    public static String encode(Instant changedAt, long id) {
+        String position = ChronoUnit.MICROS.between(Instant.EPOCH, changedAt) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor made by {@link #encode(Instant, long)}.
+     */
+    public static Position decodePosition(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(':');
+            if (separator < 0) {
+                throw new InvalidCursorException();
+            }
+            return new Position(Instant.EPOCH.plus(Long.parseLong(position.substring(0, separator)), ChronoUnit.MICROS),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | ArithmeticException | DateTimeException ex) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    public record Position(Instant changedAt, long id) {
+    }
+}
@@ -1,21 +1,40 @@
 package com.example.customer.app;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "customers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CustomerEntity.CACHE_REGION)
 public class CustomerEntity {
 
+    /**
+     * Second-level cache region of customers, see {@link CustomerEntityCacheConfig}.
+     */
+    public static final String CACHE_REGION = "customer-entities";
+
+    // A pooled sequence lets Hibernate assign ids without a round trip per row, which is what allows batched inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -42,6 +61,34 @@ public class CustomerEntity {
     @Size(max = 20)
     private String nationalSecurityNumber;
 
+    @Version
+    private Long version;
+
+    @Column(updatable = false)
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    /**
+     * The current time at the precision the timestamp columns store, so a timestamp handed out before a write
+     * compares equal to the one read back after it.
+     */
+    public static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    // Single statement updates bypass these callbacks and set updatedAt themselves
+    @PrePersist
+    void onCreate() {
+        createdAt = now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = now();
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -98,5 +145,29 @@ public class CustomerEntity {
     public void setNationalSecurityNumber(String nationalSecurityNumber) {
         this.nationalSecurityNumber = nationalSecurityNumber;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
 
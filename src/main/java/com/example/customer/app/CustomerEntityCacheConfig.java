@@ -0,0 +1,76 @@
+package com.example.customer.app;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for {@link CustomerEntity}, and the query cache, in bounded in-process Caffeine caches
+ * behind JCache. Unlike the {@code customers} cache of {@link CustomerService}, which holds API representations, these
+ * hold entity state: they serve {@code findById} and the cacheable repository queries below the service layer.
+ * <p>
+ * The regions are local to each instance and Hibernate only invalidates them for writes made through it, so entries
+ * can be stale for up to {@code customer.entity-cache.ttl} where several instances share a database. JPQL bulk updates
+ * and deletes, such as {@link CustomerRepository#deleteCustomerById}, evict the whole customer region and invalidate
+ * every cached query on the table; {@link CustomerService#updateCustomer} avoids them for customers that are cached.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.entity-cache.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(CustomerEntityCacheProperties.class)
+public class CustomerEntityCacheConfig {
+
+    /**
+     * A cache manager of its own per application context, with every region created up front so their bounds apply.
+     * Hibernate closes it with the session factory.
+     */
+    @Bean(destroyMethod = "")
+    public CacheManager hibernateCacheManager(CustomerEntityCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:customer:hibernate:" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(CustomerEntity.CACHE_REGION, bounded(properties.getMaximumSize(), properties.getTtl()));
+        if (properties.isQueryCache()) {
+            cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                    bounded(properties.getQueryCacheMaximumSize(), properties.getTtl()));
+            // One entry per table; evicting one would only make the query cache miss, so it is not bounded
+            CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+            timestamps.setStatisticsEnabled(true);
+            cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestamps);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager hibernateCacheManager,
+                                                               CustomerEntityCacheProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, properties.isQueryCache());
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // Regions are all created above; a missing one is a mistake, not something to fill with an unbounded cache
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maximumSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
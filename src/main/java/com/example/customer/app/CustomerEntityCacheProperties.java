@@ -0,0 +1,69 @@
+package com.example.customer.app;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.entity-cache")
+public class CustomerEntityCacheProperties {
+
+    /**
+     * Whether Hibernate keeps loaded customers in its second-level cache.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Most customers kept.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a cached customer or query result is kept after it was written.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Whether results of cacheable queries are kept too, until the next write to a table they read.
+     */
+    private boolean queryCache = true;
+
+    /**
+     * Most query results kept.
+     */
+    private long queryCacheMaximumSize = 1_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public boolean isQueryCache() {
+        return queryCache;
+    }
+    public void setQueryCache(boolean queryCache) {
+        this.queryCache = queryCache;
+    }
+
+    public long getQueryCacheMaximumSize() {
+        return queryCacheMaximumSize;
+    }
+    public void setQueryCacheMaximumSize(long queryCacheMaximumSize) {
+        this.queryCacheMaximumSize = queryCacheMaximumSize;
+    }
+}
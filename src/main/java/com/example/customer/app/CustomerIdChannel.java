@@ -0,0 +1,86 @@
+package com.example.customer.app;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Broadcasts the ids of created customers to every node over Redis pub/sub, so each node's {@link CustomerIdFilter}
+ * learns about customers created elsewhere. Messages are {@code <node id>:<id>,<id>,...}.
+ * <p>
+ * Pub/sub does not redeliver: a node that misses a message may answer 404 for that id until its next rebuild. The
+ * window is covered in practice by the shared cache, which holds every new customer from the moment it is created,
+ * and lookups only consult the filter on a cache miss.
+ * <p>
+ * Publishing is best effort for the same reason, and it happens after the customers have committed: a failure to reach
+ * Redis is logged and counted instead of failing the write that created them.
+ */
+public class CustomerIdChannel implements MessageListener, MeterBinder {
+
+    public static final String CHANNEL = "customer:ids:created";
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerIdChannel.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private volatile CustomerIdFilter filter;
+    private final LongAdder publishFailures = new LongAdder();
+
+    public CustomerIdChannel(RedisConnectionFactory connectionFactory) {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    public void register(CustomerIdFilter filter) {
+        this.filter = filter;
+    }
+
+    public void publish(Long id) {
+        send(nodeId + ':' + id);
+    }
+
+    public void publish(Collection<Long> ids) {
+        send(ids.stream().map(String::valueOf).collect(Collectors.joining(",", nodeId + ':', "")));
+    }
+
+    private void send(String message) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+        } catch (DataAccessException ex) {
+            publishFailures.increment();
+            log.warn("Could not publish created customer ids; other nodes learn them on their next rebuild: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(CustomerIdFilter.METRIC_PREFIX + ".publish.failures", publishFailures, LongAdder::sum)
+                .description("Broadcasts of created ids that could not reach Redis")
+                .register(registry);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        CustomerIdFilter target = filter;
+        if (separator < 0 || target == null || separator == nodeId.length() && body.startsWith(nodeId)) {
+            return;
+        }
+        for (String id : body.substring(separator + 1).split(",")) {
+            target.addLocal(Long.parseLong(id));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.customer.app;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter of existing customer ids, so lookups of ids that were never created are answered without a
+ * query. The filter can report an absent id as present, which costs the query it would have cost anyway, but never
+ * the other way round as long as every create goes through {@link #add} once its transaction has committed.
+ * <p>
+ * The filter is loaded by scanning the ids once the application is ready, and until then every id is reported as
+ * possibly present. Deleted ids cannot be removed from a Bloom filter; they stay until the next rebuild, every
+ * {@code customer.id-filter.rebuild-interval}, which also resizes the filter for the current row count.
+ */
+public class CustomerIdFilter implements MeterBinder {
+
+    public static final String METRIC_PREFIX = "customer.id.filter";
+
+    // Room for the table to double between rebuilds before the false positive rate drifts above the target
+    private static final long GROWTH_FACTOR = 2;
+    private static final long MINIMUM_CAPACITY = 10_000;
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerIdFilterProperties properties;
+    private final CustomerIdChannel channel;
+    private final LongAdder skippedLookups = new LongAdder();
+
+    private volatile LongBloomFilter filter;
+    private volatile LongBloomFilter rebuilding;
+    private volatile long lastRebuildNanos;
+
+    public CustomerIdFilter(CustomerRepository customerRepository, TransactionTemplate transactionTemplate,
+                            CustomerIdFilterProperties properties, CustomerIdChannel channel) {
+        this.customerRepository = customerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.channel = channel;
+    }
+
+    /**
+     * Returns {@code false} only when no customer with this id can exist.
+     */
+    public boolean mightExist(Long id) {
+        LongBloomFilter current = filter;
+        if (current == null || current.mightContain(id)) {
+            return true;
+        }
+        skippedLookups.increment();
+        return false;
+    }
+
+    /**
+     * Records a created customer, on this node and, when nodes share Redis, on the others. Call it after the insert
+     * commits: a rebuild scanning the ids in between would not see the row and would replace the filter it was added to.
+     */
+    public void add(Long id) {
+        addLocal(id);
+        if (channel != null) {
+            channel.publish(id);
+        }
+    }
+
+    public void addAll(Collection<Long> ids) {
+        ids.forEach(this::addLocal);
+        if (channel != null && !ids.isEmpty()) {
+            channel.publish(ids);
+        }
+    }
+
+    void addLocal(long id) {
+        // Read the filter being built first: once it is published as the current filter the field is cleared, so the
+        // id lands in the new filter either way
+        LongBloomFilter next = rebuilding;
+        LongBloomFilter current = filter;
+        if (current != null) {
+            current.put(id);
+        }
+        if (next != null) {
+            next.put(id);
+        }
+    }
+
+    // Runs before the application reports itself ready to take traffic
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${customer.id-filter.rebuild-interval:1h}",
+            initialDelayString = "${customer.id-filter.rebuild-interval:1h}")
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long capacity = Math.max(MINIMUM_CAPACITY, customerRepository.count() * GROWTH_FACTOR);
+        LongBloomFilter next = LongBloomFilter.create(capacity, properties.getFalsePositiveRate());
+        // Customers created while the scan runs may be missed by it, so addLocal records them in the new filter too
+        rebuilding = next;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Long> ids = customerRepository.streamIds()) {
+                    ids.forEach(next::put);
+                }
+            });
+            filter = next;
+        } finally {
+            rebuilding = null;
+        }
+        lastRebuildNanos = System.nanoTime() - start;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".size", this, idFilter -> idFilter.filter == null ? 0 : idFilter.filter.sizeInBytes())
+                .description("Heap used by the customer id filter")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".ids", this, idFilter -> idFilter.filter == null ? 0 : idFilter.filter.insertions())
+                .description("Customer ids in the filter, including deleted ones not yet dropped by a rebuild")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".false.positive.rate", this,
+                        idFilter -> idFilter.filter == null ? 1 : idFilter.filter.expectedFalsePositiveRate())
+                .description("Estimated chance that an id that does not exist still costs a query")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".skipped.lookups", skippedLookups, LongAdder::sum)
+                .description("Lookups answered as not found without a query")
+                .register(registry);
+        TimeGauge.builder(METRIC_PREFIX + ".rebuild.duration", this, TimeUnit.NANOSECONDS, idFilter -> idFilter.lastRebuildNanos)
+                .description("Time the last rebuild of the customer id filter took")
+                .register(registry);
+    }
+}
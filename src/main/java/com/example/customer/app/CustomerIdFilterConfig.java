@@ -0,0 +1,53 @@
+package com.example.customer.app;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Filter of existing customer ids in front of lookups by id. With {@code customer.id-filter.enabled=false} the filter
+ * stays empty and reports every id as possibly present. Nodes that share a Redis cache also share created ids over
+ * Redis pub/sub.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(CustomerIdFilterProperties.class)
+public class CustomerIdFilterConfig {
+
+    @Bean
+    public CustomerIdFilter customerIdFilter(CustomerRepository customerRepository, PlatformTransactionManager transactionManager,
+                                             CustomerIdFilterProperties properties, ObjectProvider<CustomerIdChannel> channel) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        CustomerIdChannel idChannel = channel.getIfAvailable();
+        CustomerIdFilter filter = new CustomerIdFilter(customerRepository, transactionTemplate, properties, idChannel);
+        if (idChannel != null) {
+            idChannel.register(filter);
+        }
+        return filter;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = {"customer.id-filter.enabled", "customer.id-filter.shared"}, havingValue = "true")
+    public CustomerIdChannel customerIdChannel(RedisConnectionFactory connectionFactory) {
+        return new CustomerIdChannel(connectionFactory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = {"customer.id-filter.enabled", "customer.id-filter.shared"}, havingValue = "true")
+    public RedisMessageListenerContainer customerIdListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                     CustomerIdChannel idChannel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(idChannel, new ChannelTopic(CustomerIdChannel.CHANNEL));
+        return container;
+    }
+}
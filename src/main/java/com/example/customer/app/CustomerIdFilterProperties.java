@@ -0,0 +1,58 @@
+package com.example.customer.app;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.id-filter")
+public class CustomerIdFilterProperties {
+
+    /**
+     * Whether lookups by id consult an in-memory filter of existing ids before querying the database.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Target chance that the filter reports an id that does not exist as present, which costs one query.
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * How often the filter is rebuilt from the database. Rebuilding drops deleted ids and resizes the filter.
+     */
+    private Duration rebuildInterval = Duration.ofHours(1);
+
+    /**
+     * Whether created ids are broadcast to the other nodes over Redis. Needed whenever more than one node serves
+     * lookups.
+     */
+    private boolean shared = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public Duration getRebuildInterval() {
+        return rebuildInterval;
+    }
+    public void setRebuildInterval(Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+}
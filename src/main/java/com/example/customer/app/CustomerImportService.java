@@ -0,0 +1,239 @@
+package com.example.customer.app;
+
+import com.example.customer.api.BulkItemResult;
+import com.example.customer.api.BulkItemResult.Status;
+import com.example.customer.api.Customer;
+import com.example.customer.api.ImportResult;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
+import static com.example.customer.app.CustomerMapper.toEntity;
+
+/**
+ * Imports a stream of new customers in chunks of {@code customer.import.chunk-size}, each in its own transaction, with
+ * its changes recorded in the {@link CustomerChangeLog}. Memory use is bounded by one chunk however long the input is.
+ * <p>
+ * On PostgreSQL a chunk is written with {@code COPY ... FROM STDIN}, with ids taken from the customer sequence one
+ * value per row like the reactive stack does. Other databases get JDBC batches through Hibernate instead. Rows are
+ * validated with the same rules as single creates first; invalid ones are skipped and reported.
+ */
+@Service
+@Timed(value = "customer.service", histogram = true)
+public class CustomerImportService {
+
+    private static final String NEXT_IDS_SQL = "SELECT nextval('customers_seq') FROM generate_series(1, ?)";
+    private static final String COPY_SQL = """
+            COPY customers (id, first_name, last_name, address, phone_number, date_of_birth, national_security_number,
+                            version, created_at, updated_at)
+            FROM STDIN (FORMAT csv)""";
+
+    private final CustomerRepository customerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerValidator validator;
+    private final Cache customerCache;
+    private final CustomerIdFilter customerIdFilter;
+    private final CustomerChangeLog changeLog;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int chunkSize;
+    private final int maxErrors;
+    private volatile Boolean copySupported;
+
+    public CustomerImportService(CustomerRepository customerRepository, JdbcTemplate jdbcTemplate,
+                                 @Qualifier(CustomerChangeConfig.CHUNK_TRANSACTIONS) TransactionTemplate transactionTemplate,
+                                 CustomerValidator validator,
+                                 CacheManager cacheManager, CustomerIdFilter customerIdFilter, CustomerChangeLog changeLog,
+                                 EntityManagerFactory entityManagerFactory,
+                                 @Value("${customer.import.chunk-size:5000}") int chunkSize,
+                                 @Value("${customer.import.max-errors:100}") int maxErrors) {
+        this.customerRepository = customerRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.customerCache = cacheManager.getCache(CUSTOMERS_CACHE);
+        this.customerIdFilter = customerIdFilter;
+        this.changeLog = changeLog;
+        this.entityManagerFactory = entityManagerFactory;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Creates a customer for every valid row. Ids, versions and timestamps in the input are ignored. A chunk that
+     * fails to commit is reported as failed without affecting the chunks before or after it.
+     */
+    public ImportResult importCustomers(Iterator<Customer> customers) {
+        Progress progress = new Progress();
+        List<Customer> chunk = new ArrayList<>(chunkSize);
+        List<Integer> indexes = new ArrayList<>(chunkSize);
+        int index = 0;
+        while (customers.hasNext()) {
+            Customer customer = customers.next();
+            List<String> errors = validator.validate(customer, false);
+            if (errors.isEmpty()) {
+                chunk.add(customer);
+                indexes.add(index);
+            } else {
+                progress.reject(new BulkItemResult(index, null, Status.INVALID, errors));
+            }
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, indexes, progress);
+                chunk.clear();
+                indexes.clear();
+            }
+            index++;
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, indexes, progress);
+        }
+        return new ImportResult(progress.imported, progress.rejected, progress.errors);
+    }
+
+    private void writeChunk(List<Customer> chunk, List<Integer> indexes, Progress progress) {
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                List<Customer> created = copySupported() ? copy(chunk) : save(chunk);
+                changeLog.created(created);
+                return created.stream().map(Customer::getId).toList();
+            });
+        } catch (RuntimeException ex) {
+            for (Integer index : indexes) {
+                progress.reject(new BulkItemResult(index, null, Status.FAILED, List.of(String.valueOf(ex.getMessage()))));
+            }
+            return;
+        }
+        customerIdFilter.addAll(ids);
+        for (Long id : ids) {
+            // Drop any cached miss for the new id
+            customerCache.evict(id);
+        }
+        if (copySupported()) {
+            // Hibernate did not see the rows go in, so cached listing pages would not include them
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+        }
+        progress.imported += ids.size();
+    }
+
+    private List<Customer> copy(List<Customer> chunk) {
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, chunk.size());
+        Instant now = CustomerEntity.now();
+        for (int i = 0; i < chunk.size(); i++) {
+            Customer customer = chunk.get(i);
+            customer.setId(ids.get(i));
+            customer.setVersion(0L);
+            customer.setUpdatedAt(now);
+        }
+        // The driver applies the transaction timeout to statements but not to COPY, so hand the rest of it to the server
+        ConnectionHolder connectionHolder = (ConnectionHolder) TransactionSynchronizationManager.getResource(jdbcTemplate.getDataSource());
+        if (connectionHolder != null && connectionHolder.hasTimeout()) {
+            jdbcTemplate.execute("SET LOCAL statement_timeout = " + connectionHolder.getTimeToLiveInMillis());
+        }
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder row = new StringBuilder(256);
+                for (Customer customer : chunk) {
+                    row.setLength(0);
+                    byte[] line = csvRow(row, customer, now).getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(line, 0, line.length);
+                }
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+        return chunk;
+    }
+
+    private List<Customer> save(List<Customer> chunk) {
+        List<CustomerEntity> entities = new ArrayList<>(chunk.size());
+        for (Customer customer : chunk) {
+            CustomerEntity customerEntity = toEntity(customer);
+            customerEntity.setId(null);
+            customerEntity.setVersion(null);
+            entities.add(customerEntity);
+        }
+        return customerRepository.saveAll(entities).stream().map(CustomerMapper::toBean).toList();
+    }
+
+    private boolean copySupported() {
+        Boolean supported = copySupported;
+        if (supported == null) {
+            supported = jdbcTemplate.execute((ConnectionCallback<Boolean>) this::isPostgres);
+            copySupported = supported;
+        }
+        return supported;
+    }
+
+    private boolean isPostgres(Connection connection) throws SQLException {
+        return connection.isWrapperFor(PGConnection.class);
+    }
+
+    private static String csvRow(StringBuilder row, Customer customer, Instant now) {
+        row.append(customer.getId()).append(',');
+        quote(row, customer.getFirstName()).append(',');
+        quote(row, customer.getLastName()).append(',');
+        quote(row, customer.getAddress()).append(',');
+        quote(row, customer.getPhoneNumber()).append(',');
+        row.append(customer.getDateOfBirth()).append(',');
+        quote(row, customer.getNationalSecurityNumber()).append(',');
+        row.append(customer.getVersion()).append(',');
+        row.append(now).append(',').append(now).append('\n');
+        return row.toString();
+    }
+
+    /**
+     * Appends {@code value} as a quoted CSV field, so commas, quotes and line breaks in it survive. Validation has
+     * already rejected missing values.
+     */
+    private static StringBuilder quote(StringBuilder row, String value) {
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        return row.append('"');
+    }
+
+    private final class Progress {
+
+        private long imported;
+        private long rejected;
+        private final List<BulkItemResult> errors = new ArrayList<>();
+
+        private void reject(BulkItemResult result) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.customer.app;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
+
+/**
+ * Asynchronous creation of customers, only set up with {@code customer.ingest.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.ingest.enabled", havingValue = "true")
+@EnableConfigurationProperties(CustomerIngestProperties.class)
+public class CustomerIngestConfig {
+
+    @Bean
+    public CustomerIngestService customerIngestService(CustomerRepository customerRepository,
+                                                       @Qualifier(CustomerChangeConfig.CHUNK_TRANSACTIONS) TransactionTemplate transactionTemplate,
+                                                       CustomerValidator validator,
+                                                       CacheManager cacheManager, CustomerIdFilter customerIdFilter,
+                                                       CustomerChangeLog changeLog, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                                       CustomerIngestProperties properties) throws IOException {
+        CustomerIngestProperties.Journal journal = properties.getJournal();
+        return new CustomerIngestService(customerRepository, transactionTemplate, validator,
+                cacheManager.getCache(CUSTOMERS_CACHE), customerIdFilter, changeLog,
+                journal.isEnabled() ? new IngestJournal(journal.getPath(), journal.isFsync(), objectMapper) : null,
+                journal.isEnabled() ? new IngestLedger(jdbcTemplate) : null, properties);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.customer.app;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.ingest")
+public class CustomerIngestProperties {
+
+    /**
+     * Whether {@code POST /api/customers} with {@code Prefer: respond-async} is queued and answered with 202.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Customers that may wait in the queue before requests are rejected with 429. Rounded up to a power of two.
+     */
+    private int capacity = 65_536;
+
+    /**
+     * Most customers inserted in one transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * How long the writer sleeps when the queue is empty.
+     */
+    private Duration idleWait = Duration.ofMillis(5);
+
+    /**
+     * How long the writer waits before it tries customers again after the database could not be reached. Doubled on
+     * every failure in a row, up to {@code max-retry-backoff}.
+     */
+    private Duration retryBackoff = Duration.ofMillis(100);
+
+    /**
+     * Longest wait between attempts while the database cannot be reached.
+     */
+    private Duration maxRetryBackoff = Duration.ofSeconds(30);
+
+    /**
+     * How long the status of a tracking id is kept after its last change.
+     */
+    private Duration statusTtl = Duration.ofHours(1);
+
+    /**
+     * Most tracking ids whose status is kept.
+     */
+    private long statusCapacity = 1_000_000;
+
+    /**
+     * Local journal that makes queued customers survive a restart.
+     */
+    private final Journal journal = new Journal();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getIdleWait() {
+        return idleWait;
+    }
+    public void setIdleWait(Duration idleWait) {
+        this.idleWait = idleWait;
+    }
+
+    public Duration getRetryBackoff() {
+        return retryBackoff;
+    }
+    public void setRetryBackoff(Duration retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    public Duration getMaxRetryBackoff() {
+        return maxRetryBackoff;
+    }
+    public void setMaxRetryBackoff(Duration maxRetryBackoff) {
+        this.maxRetryBackoff = maxRetryBackoff;
+    }
+
+    public Duration getStatusTtl() {
+        return statusTtl;
+    }
+    public void setStatusTtl(Duration statusTtl) {
+        this.statusTtl = statusTtl;
+    }
+
+    public long getStatusCapacity() {
+        return statusCapacity;
+    }
+    public void setStatusCapacity(long statusCapacity) {
+        this.statusCapacity = statusCapacity;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public static class Journal {
+
+        /**
+         * Whether accepted customers are journaled before they are acknowledged and replayed on startup.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Journal file. It holds customer data, national security numbers included, so keep it on a protected volume.
+         */
+        private Path path = Path.of("data", "customer-ingest.journal");
+
+        /**
+         * Whether every append is forced to disk. Without it a process crash loses nothing, but a host crash can lose
+         * the last acknowledged customers.
+         */
+        private boolean fsync = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+        public void setPath(Path path) {
+            this.path = path;
+        }
+
+        public boolean isFsync() {
+            return fsync;
+        }
+        public void setFsync(boolean fsync) {
+            this.fsync = fsync;
+        }
+    }
+}
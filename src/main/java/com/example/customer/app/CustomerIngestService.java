@@ -0,0 +1,440 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.IngestStatus;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.validation.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.example.customer.app.CustomerMapper.toBean;
+import static com.example.customer.app.CustomerMapper.toEntity;
+
+/**
+ * Write-behind creation of customers. {@link #submit} validates a customer, queues it in a bounded lock-free ring
+ * buffer and returns a tracking id at once; a single writer thread drains the buffer and inserts what it finds in
+ * batches of up to {@code customer.ingest.batch-size}, one transaction per batch, which Hibernate sends as JDBC
+ * batches. A full buffer rejects the customer instead of blocking the request.
+ * <p>
+ * Only customers the database rejects, for a constraint or validation failure, are reported as failed. When it cannot
+ * be reached or does not answer in time the customers stay queued and the writer tries them again, waiting from
+ * {@code customer.ingest.retry-backoff} up to {@code customer.ingest.max-retry-backoff} between attempts.
+ * <p>
+ * With {@code customer.ingest.journal.enabled} every customer is written to an {@link IngestJournal} before it is
+ * acknowledged, and customers left in the journal by a crash are created on the next start. Each journaled customer is
+ * also recorded in an {@link IngestLedger} in the transaction that creates it, so the ones created just before a crash,
+ * which the journal had no chance to mark done, are not created a second time.
+ */
+public class CustomerIngestService implements SmartLifecycle, MeterBinder {
+
+    public static final String METRIC_PREFIX = "customer.ingest";
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerIngestService.class);
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerValidator validator;
+    private final Cache customerCache;
+    private final CustomerIdFilter customerIdFilter;
+    private final CustomerChangeLog changeLog;
+    private final IngestJournal journal;
+    private final IngestLedger ledger;
+    private final MpscRingBuffer<Pending> queue;
+    private final com.github.benmanes.caffeine.cache.Cache<String, IngestStatus> statuses;
+    private final int batchSize;
+    private final long idleWaitNanos;
+    private final long retryBackoffNanos;
+    private final long maxRetryBackoffNanos;
+    // Owned by the writer, and by start before it starts the writer: customers to try again before draining the queue
+    private final ArrayDeque<Pending> retries = new ArrayDeque<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private volatile DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public CustomerIngestService(CustomerRepository customerRepository, TransactionTemplate transactionTemplate,
+                                 CustomerValidator validator, Cache customerCache,
+                                 CustomerIdFilter customerIdFilter, CustomerChangeLog changeLog, IngestJournal journal,
+                                 IngestLedger ledger, CustomerIngestProperties properties) {
+        this.customerRepository = customerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.customerCache = customerCache;
+        this.customerIdFilter = customerIdFilter;
+        this.changeLog = changeLog;
+        this.journal = journal;
+        this.ledger = ledger;
+        this.queue = new MpscRingBuffer<>(properties.getCapacity());
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.getStatusCapacity())
+                .expireAfterWrite(properties.getStatusTtl())
+                .build();
+        this.batchSize = properties.getBatchSize();
+        this.idleWaitNanos = properties.getIdleWait().toNanos();
+        this.retryBackoffNanos = properties.getRetryBackoff().toNanos();
+        this.maxRetryBackoffNanos = Math.max(retryBackoffNanos, properties.getMaxRetryBackoff().toNanos());
+    }
+
+    /**
+     * Queues a customer for creation. It is validated here, since a failure in the writer could only be reported
+     * through the status.
+     *
+     * @throws InvalidCustomerException if the customer is invalid or would not fit the table
+     * @throws IngestQueueFullException if the queue is full or the service is stopped
+     */
+    public IngestStatus submit(Customer customer) {
+        validator.requireValid(customer);
+        if (!running) {
+            rejected.increment();
+            throw new IngestQueueFullException();
+        }
+
+        // Ids come from the sequence and versions from Hibernate
+        customer.setId(null);
+        customer.setVersion(null);
+        String trackingId = UUID.randomUUID().toString();
+        IngestStatus status = IngestStatus.queued(trackingId);
+        // Journal and record the status first: the writer may create the customer before offer returns
+        if (journal != null) {
+            journal.accepted(trackingId, customer);
+        }
+        statuses.put(trackingId, status);
+        if (!queue.offer(new Pending(trackingId, customer))) {
+            statuses.invalidate(trackingId);
+            if (journal != null) {
+                journal.done(List.of(trackingId));
+            }
+            rejected.increment();
+            throw new IngestQueueFullException();
+        }
+        accepted.increment();
+        return status;
+    }
+
+    public Optional<IngestStatus> getStatus(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    /**
+     * Creates whatever a previous run left in the journal, then starts the writer.
+     */
+    @Override
+    public void start() {
+        if (journal != null) {
+            replay();
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("customer-ingest-writer").daemon().start(this::drainLoop);
+    }
+
+    /**
+     * Stops accepting customers and waits for the writer to create the ones already queued.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before the web server takes requests and stops after it has stopped taking them.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".queue.size", queue, MpscRingBuffer::size)
+                .description("Customers waiting to be created")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".queue.capacity", queue, MpscRingBuffer::capacity)
+                .description("Customers that may wait before requests are rejected")
+                .register(registry);
+        counter(registry, "accepted", accepted);
+        counter(registry, "rejected", rejected);
+        counter(registry, "created", created);
+        counter(registry, "failed", failed);
+        FunctionCounter.builder(METRIC_PREFIX + ".retries", retried, LongAdder::sum)
+                .description("Customers left queued after a transient database failure, once per attempt")
+                .register(registry);
+        batchSizes = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                .description("Customers inserted per batch")
+                .register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, String outcome, LongAdder adder) {
+        FunctionCounter.builder(METRIC_PREFIX + ".customers", adder, LongAdder::sum)
+                .description("Customers submitted for asynchronous creation, by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        long backoffNanos = retryBackoffNanos;
+        while (running || !queue.isEmpty() || !retries.isEmpty()) {
+            while (batch.size() < batchSize && !retries.isEmpty()) {
+                batch.add(retries.poll());
+            }
+            if (batch.isEmpty()) {
+                queue.drain(batch::add, batchSize);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(idleWaitNanos);
+                continue;
+            }
+            List<Pending> left;
+            try {
+                left = write(batch);
+            } catch (RuntimeException ex) {
+                // Nothing may end the only writer: submits would be accepted until the queue fills, then rejected
+                log.error("Writing {} queued customers failed", batch.size(), ex);
+                left = List.of();
+            } finally {
+                batch.clear();
+            }
+            if (left.isEmpty()) {
+                backoffNanos = retryBackoffNanos;
+                continue;
+            }
+            retry(left);
+            if (!running) {
+                // Stopping: give up rather than hold the shutdown for as long as the database is away
+                log.warn("Stopped with {} queued customers not created{}", retries.size() + queue.size(),
+                        journal != null ? "; they are created on the next start" : "");
+                return;
+            }
+            LockSupport.parkNanos(backoffNanos);
+            backoffNanos = Math.min(backoffNanos * 2, maxRetryBackoffNanos);
+        }
+    }
+
+    /**
+     * Puts customers a transient failure left uncreated ahead of the others, in their original order.
+     */
+    private void retry(List<Pending> left) {
+        for (int i = left.size() - 1; i >= 0; i--) {
+            retries.addFirst(left.get(i));
+        }
+        retried.add(left.size());
+    }
+
+    private void replay() {
+        Map<String, Customer> pending;
+        try {
+            pending = journal.pending();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        // Customers created just before the crash, before the journal could mark them done
+        Map<String, Long> alreadyCreated = ledger != null ? ledger.all() : Map.of();
+        List<IngestStatus> skipped = new ArrayList<>();
+        List<Pending> batch = new ArrayList<>(batchSize);
+        for (Map.Entry<String, Customer> entry : pending.entrySet()) {
+            Long customerId = alreadyCreated.get(entry.getKey());
+            if (customerId != null) {
+                skipped.add(IngestStatus.created(entry.getKey(), customerId));
+                continue;
+            }
+            statuses.put(entry.getKey(), IngestStatus.queued(entry.getKey()));
+            Pending customer = new Pending(entry.getKey(), entry.getValue());
+            if (!retries.isEmpty()) {
+                // The database is away, so leave the rest to the writer rather than wait for each batch to fail
+                retries.add(customer);
+                continue;
+            }
+            batch.add(customer);
+            if (batch.size() == batchSize) {
+                replayBatch(batch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            replayBatch(batch);
+        }
+        if (!skipped.isEmpty()) {
+            finish(skipped);
+        }
+    }
+
+    private void replayBatch(List<Pending> batch) {
+        List<Pending> left = write(batch);
+        batch.clear();
+        if (!left.isEmpty()) {
+            retry(left);
+        }
+    }
+
+    /**
+     * Creates a batch of customers and returns those a transient failure left uncreated, which stay in the journal.
+     */
+    private List<Pending> write(List<Pending> batch) {
+        List<IngestStatus> outcomes = new ArrayList<>(batch.size());
+        List<Pending> left = List.of();
+        try {
+            outcomes.addAll(transactionTemplate.execute(status -> {
+                List<CustomerEntity> entities = customerRepository.saveAll(batch.stream().map(pending -> toEntity(pending.customer())).toList());
+                changeLog.created(entities.stream().map(CustomerMapper::toBean).toList());
+                List<IngestStatus> results = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    results.add(IngestStatus.created(batch.get(i).trackingId(), entities.get(i).getId()));
+                }
+                if (ledger != null) {
+                    ledger.created(results);
+                }
+                return results;
+            }));
+        } catch (RuntimeException ex) {
+            outcomes.clear();
+            if (isTransient(ex) && !(ex instanceof TransactionTimedOutException || ex instanceof QueryTimeoutException)) {
+                log.warn("Could not create {} queued customers, trying again", batch.size(), ex);
+                return new ArrayList<>(batch);
+            }
+            // One bad row fails the whole batch, so retry row by row to fail only that one. A batch that ran past the
+            // write timeout would only time out again, so it goes row by row as well
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    outcomes.add(writeOne(batch.get(i)));
+                } catch (RuntimeException transientEx) {
+                    log.warn("Could not create {} queued customers, trying again", batch.size() - i, transientEx);
+                    left = new ArrayList<>(batch.subList(i, batch.size()));
+                    break;
+                }
+            }
+        }
+
+        if (!outcomes.isEmpty()) {
+            finish(outcomes);
+            DistributionSummary summary = batchSizes;
+            if (summary != null) {
+                summary.record(outcomes.size());
+            }
+        }
+        return left;
+    }
+
+    /**
+     * Publishes the outcome of customers whose transaction is over and marks them done in the journal. The id filter
+     * and the cache are best effort here, so a failure of either cannot keep the customers in the journal.
+     */
+    private void finish(List<IngestStatus> outcomes) {
+        List<Long> ids = new ArrayList<>(outcomes.size());
+        List<String> trackingIds = new ArrayList<>(outcomes.size());
+        for (IngestStatus outcome : outcomes) {
+            if (outcome.status() == IngestStatus.Status.CREATED) {
+                ids.add(outcome.customerId());
+                created.increment();
+            } else {
+                failed.increment();
+            }
+            trackingIds.add(outcome.trackingId());
+        }
+        try {
+            customerIdFilter.addAll(ids);
+        } catch (RuntimeException ex) {
+            log.warn("Could not add {} created customers to the id filter", ids.size(), ex);
+        }
+        if (customerCache != null) {
+            try {
+                // Drop any cached miss for the new ids
+                ids.forEach(customerCache::evict);
+            } catch (RuntimeException ex) {
+                log.warn("Could not evict {} created customers from the cache", ids.size(), ex);
+            }
+        }
+        outcomes.forEach(outcome -> statuses.put(outcome.trackingId(), outcome));
+        if (journal != null) {
+            journal.done(trackingIds);
+        }
+        if (ledger != null) {
+            try {
+                ledger.forget(trackingIds);
+            } catch (RuntimeException ex) {
+                // The journal no longer replays these customers, so their rows are only left-over clutter
+            }
+        }
+    }
+
+    /**
+     * Creates one customer, or reports why the database rejected it.
+     *
+     * @throws RuntimeException if the failure is transient, so the customer may still be created
+     */
+    private IngestStatus writeOne(Pending pending) {
+        try {
+            return transactionTemplate.execute(status -> {
+                CustomerEntity entity = customerRepository.save(toEntity(pending.customer()));
+                changeLog.created(List.of(toBean(entity)));
+                IngestStatus result = IngestStatus.created(pending.trackingId(), entity.getId());
+                if (ledger != null) {
+                    ledger.created(List.of(result));
+                }
+                return result;
+            });
+        } catch (RuntimeException ex) {
+            if (isTransient(ex)) {
+                throw ex;
+            }
+            return IngestStatus.failed(pending.trackingId(), String.valueOf(ex.getMessage()));
+        }
+    }
+
+    /**
+     * Whether a write failed because the database could not be reached or did not answer in time, rather than because
+     * it rejected the rows, so that trying the same rows again may succeed.
+     */
+    private static boolean isTransient(RuntimeException ex) {
+        if (ex instanceof DataIntegrityViolationException
+                || NestedExceptionUtils.getRootCause(ex) instanceof ConstraintViolationException) {
+            return false;
+        }
+        return ex instanceof DataAccessException || ex instanceof TransactionException;
+    }
+
+    record Pending(String trackingId, Customer customer) {
+    }
+}
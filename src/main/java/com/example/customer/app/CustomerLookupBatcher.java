@@ -0,0 +1,240 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces concurrent lookups by id into one query. The first lookup to arrive opens a batch and waits up to
+ * {@code customer.lookup-batching.window} for others to join it; then it loads every id in the batch with a single
+ * {@code IN} query and hands each caller its customer. A lookup that fills the batch to
+ * {@code customer.lookup-batching.max-batch-size} loads it at once. A lookup of an id that is already in a batch, open
+ * or loading, waits for that batch instead of adding the id again.
+ * <p>
+ * No threads of its own are used: batches are loaded on the thread of one of their callers, so each lookup costs at
+ * most the window in added latency. Like {@link CustomerRepository#findById}, batches are loaded in a read-write
+ * transaction, so they stay on the primary, with the entities read-only; entities in the second-level cache are taken
+ * from there and only the others are queried.
+ * <p>
+ * Off by default, lookups then go to {@link CustomerRepository#findById} one by one. The customer cache already
+ * collapses concurrent misses for the same id, so batching pays off when many different ids miss at the same time.
+ */
+@Component
+public class CustomerLookupBatcher implements MeterBinder {
+
+    public static final String METRIC_PREFIX = "customer.lookup";
+
+    private final CustomerRepository customerRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock: the batch new ids join, and the result of every id in a batch that is open or loading
+    private Batch open;
+    private final Map<Long, CompletableFuture<Optional<Customer>>> inFlight = new HashMap<>();
+
+    private final LongAdder joined = new LongAdder();
+    private volatile DistributionSummary batchSizes;
+
+    public CustomerLookupBatcher(CustomerRepository customerRepository, EntityManager entityManager,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${customer.lookup-batching.enabled:false}") boolean enabled,
+                                 @Value("${customer.lookup-batching.window:2ms}") Duration window,
+                                 @Value("${customer.lookup-batching.max-batch-size:100}") int maxBatchSize) {
+        this.customerRepository = customerRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * Looks a customer up by id, together with the lookups of other ids made at the same time. A failed query fails
+     * every lookup in its batch with the same exception.
+     */
+    public Optional<Customer> findById(Long id) {
+        if (!enabled) {
+            return customerRepository.findById(id).map(CustomerMapper::toBean);
+        }
+
+        CompletableFuture<Optional<Customer>> result;
+        Batch batch = null;
+        boolean leader = false;
+        boolean full = false;
+        lock.lock();
+        try {
+            result = inFlight.get(id);
+            if (result != null) {
+                joined.increment();
+            } else {
+                result = new CompletableFuture<>();
+                inFlight.put(id, result);
+                if (open == null) {
+                    open = new Batch();
+                    leader = true;
+                }
+                batch = open;
+                batch.add(id, result);
+                if (batch.ids.size() >= maxBatchSize) {
+                    open = null;
+                    batch.closed = true;
+                    full = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full) {
+            LockSupport.unpark(batch.leader);
+            load(batch);
+        } else if (leader) {
+            awaitWindow(batch);
+            if (close(batch)) {
+                load(batch);
+            }
+        }
+        return join(result);
+    }
+
+    private void awaitWindow(Batch batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        long remaining;
+        while (!batch.closed && (remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    /**
+     * Closes {@code batch} to new ids, unless a lookup that filled it already did. Returns whether it was still open.
+     */
+    private boolean close(Batch batch) {
+        lock.lock();
+        try {
+            if (batch.closed) {
+                return false;
+            }
+            batch.closed = true;
+            if (open == batch) {
+                open = null;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads {@code batch} and completes the lookup of every id in it. Whatever fails, the query, the mapping or an
+     * {@link Error}, fails the lookups not yet completed, since nothing else would wake their callers.
+     */
+    private void load(Batch batch) {
+        Throwable failure = null;
+        try {
+            DistributionSummary sizes = batchSizes;
+            if (sizes != null) {
+                sizes.record(batch.ids.size());
+            }
+
+            List<CustomerEntity> entities = transactionTemplate.execute(status -> {
+                Session session = entityManager.unwrap(Session.class);
+                session.setDefaultReadOnly(true);
+                // Ordered, so entities line up with ids and missing ones are null
+                return session.byMultipleIds(CustomerEntity.class)
+                        .withBatchSize(batch.ids.size())
+                        .multiLoad(batch.ids);
+            });
+
+            finish(batch);
+            for (int i = 0; i < batch.ids.size(); i++) {
+                CustomerEntity entity = entities.get(i);
+                batch.results.get(i).complete(entity == null ? Optional.empty() : Optional.of(CustomerMapper.toBean(entity)));
+            }
+        } catch (Throwable ex) {
+            failure = ex;
+        } finally {
+            finish(batch);
+            for (CompletableFuture<Optional<Customer>> result : batch.results) {
+                if (!result.isDone()) {
+                    result.completeExceptionally(failure != null ? failure
+                            : new IllegalStateException("Batched lookup ended without a result"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Lets lookups that arrive from now on start a new query for the ids of {@code batch}, rather than take the result
+     * of one that may have started before a write they need to see. Only removes the batch's own results, so calling it
+     * again cannot drop those of a newer batch for the same ids.
+     */
+    private void finish(Batch batch) {
+        lock.lock();
+        try {
+            for (int i = 0; i < batch.ids.size(); i++) {
+                inFlight.remove(batch.ids.get(i), batch.results.get(i));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Optional<Customer> join(CompletableFuture<Optional<Customer>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizes = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                .description("Ids loaded per batched lookup query")
+                .publishPercentileHistogram()
+                .maximumExpectedValue((double) maxBatchSize)
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".joined", joined, LongAdder::sum)
+                .description("Lookups that waited for a batch already loading their id instead of adding it")
+                .register(registry);
+    }
+
+    private static final class Batch {
+
+        private final Thread leader = Thread.currentThread();
+        private final List<Long> ids = new ArrayList<>();
+        private final List<CompletableFuture<Optional<Customer>>> results = new ArrayList<>();
+        private volatile boolean closed;
+
+        private void add(Long id, CompletableFuture<Optional<Customer>> result) {
+            ids.add(id);
+            results.add(result);
+        }
+    }
+}
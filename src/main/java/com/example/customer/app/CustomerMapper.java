@@ -2,6 +2,11 @@ package com.example.customer.app;
 
 import com.example.customer.api.Customer;
 
+/**
+ * Conversions between the API type and the persistence types, for the paths that have an entity or row in hand. Reads
+ * of the blocking stack that only return customers construct them in the query instead, see
+ * {@link CustomerRepository#CUSTOMER}.
+ */
 public class CustomerMapper {
 
     public static CustomerEntity toEntity(Customer customer) {
@@ -17,23 +22,54 @@ public class CustomerMapper {
         customerEntity.setPhoneNumber(customer.getPhoneNumber());
         customerEntity.setDateOfBirth(customer.getDateOfBirth());
         customerEntity.setNationalSecurityNumber(customer.getNationalSecurityNumber());
+        customerEntity.setVersion(customer.getVersion());
         return customerEntity;
     }
 
+    /**
+     * Copies the customer's fields onto an existing, typically managed, entity. The id and version are left unchanged
+     * so Hibernate keeps control of optimistic locking.
+     */
+    public static void updateEntity(Customer customer, CustomerEntity customerEntity) {
+        customerEntity.setFirstName(customer.getFirstName());
+        customerEntity.setLastName(customer.getLastName());
+        customerEntity.setAddress(customer.getAddress());
+        customerEntity.setPhoneNumber(customer.getPhoneNumber());
+        customerEntity.setDateOfBirth(customer.getDateOfBirth());
+        customerEntity.setNationalSecurityNumber(customer.getNationalSecurityNumber());
+    }
+
     public static Customer toBean(CustomerEntity customerEntity) {
         if (customerEntity == null) {
             return null;
         }
 
-        Customer customer = new Customer();
-        customer.setId(customerEntity.getId());
-        customer.setFirstName(customerEntity.getFirstName());
-        customer.setLastName(customerEntity.getLastName());
-        customer.setAddress(customerEntity.getAddress());
-        customer.setPhoneNumber(customerEntity.getPhoneNumber());
-        customer.setDateOfBirth(customerEntity.getDateOfBirth());
-        customer.setNationalSecurityNumber(customerEntity.getNationalSecurityNumber());
-        return customer;
+        return new Customer(customerEntity.getId(), customerEntity.getFirstName(), customerEntity.getLastName(),
+                customerEntity.getAddress(), customerEntity.getPhoneNumber(), customerEntity.getDateOfBirth(),
+                customerEntity.getNationalSecurityNumber(), customerEntity.getVersion(), customerEntity.getUpdatedAt());
+    }
+
+    /**
+     * Maps a customer onto the row type of the reactive stack. Version and timestamp handling is up to the caller, as
+     * with {@link #toEntity}.
+     */
+    public static CustomerRow toRow(Customer customer) {
+        if (customer == null) {
+            return null;
+        }
+
+        return new CustomerRow(customer.getId(), customer.getFirstName(), customer.getLastName(), customer.getAddress(),
+                customer.getPhoneNumber(), customer.getDateOfBirth(), customer.getNationalSecurityNumber(),
+                customer.getVersion(), null, null);
     }
-}
 
+    public static Customer fromRow(CustomerRow customerRow) {
+        if (customerRow == null) {
+            return null;
+        }
+
+        return new Customer(customerRow.id(), customerRow.firstName(), customerRow.lastName(), customerRow.address(),
+                customerRow.phoneNumber(), customerRow.dateOfBirth(), customerRow.nationalSecurityNumber(),
+                customerRow.version(), customerRow.updatedAt() == null ? null : customerRow.updatedAt().toInstant());
+    }
+}
@@ -3,7 +3,8 @@ package com.example.customer.app;
 public class CustomerNotFoundException extends RuntimeException {
 
     public CustomerNotFoundException() {
-        super("Customer not found");
+        // Signals an expected outcome rather than a bug, so skip the stack trace
+        super("Customer not found", null, false, false);
     }
 }
 
@@ -0,0 +1,70 @@
+package com.example.customer.app;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 7807 problem responses for the outcomes clients hit routinely. Their content never changes, so each one is
+ * serialized once and the same immutable response is returned every time.
+ */
+public final class CustomerProblems {
+
+    public static final ResponseEntity<byte[]> NOT_FOUND =
+            problem(HttpStatus.NOT_FOUND, "Customer not found", HttpHeaders.EMPTY);
+    public static final ResponseEntity<byte[]> VERSION_CONFLICT =
+            problem(HttpStatus.PRECONDITION_FAILED, "Customer has been modified by another request", HttpHeaders.EMPTY);
+    public static final ResponseEntity<byte[]> INVALID_CURSOR =
+            problem(HttpStatus.BAD_REQUEST, "Invalid page cursor", HttpHeaders.EMPTY);
+    public static final ResponseEntity<byte[]> INVALID_FIELDS =
+            problem(HttpStatus.BAD_REQUEST, "Unknown field; fields takes a comma separated list of customer properties", HttpHeaders.EMPTY);
+    public static final ResponseEntity<byte[]> UNKNOWN_TRACKING_ID =
+            problem(HttpStatus.NOT_FOUND, "Unknown or expired tracking id", HttpHeaders.EMPTY);
+    public static final ResponseEntity<byte[]> SYNC_EXPIRED =
+            problem(HttpStatus.GONE, "Changes that old are no longer kept; reload all customers and sync from now", HttpHeaders.EMPTY);
+    public static final ResponseEntity<byte[]> INGEST_QUEUE_FULL =
+            problem(HttpStatus.TOO_MANY_REQUESTS, "Ingestion queue is full", retryAfter(1));
+    // Without Retry-After, which depends on the client's bucket and is set by the caller
+    public static final ResponseEntity<byte[]> RATE_LIMITED =
+            problem(HttpStatus.TOO_MANY_REQUESTS, "Request rate limit exceeded", HttpHeaders.EMPTY);
+    public static final ResponseEntity<byte[]> BULKHEAD_FULL =
+            problem(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent requests of this kind", retryAfter(1));
+    public static final ResponseEntity<byte[]> CONCURRENCY_LIMITED =
+            problem(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent requests", retryAfter(1));
+
+    private CustomerProblems() {
+    }
+
+    /**
+     * Writes {@code problem} to a response outside of Spring MVC, as servlet filters that reject a request must.
+     */
+    public static void write(ResponseEntity<byte[]> problem, HttpServletResponse response) throws IOException {
+        response.setStatus(problem.getStatusCode().value());
+        problem.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setContentLength(problem.getBody().length);
+        response.getOutputStream().write(problem.getBody());
+    }
+
+    /**
+     * The detail strings are constants without characters that need JSON escaping, so plain concatenation is enough.
+     */
+    private static ResponseEntity<byte[]> problem(HttpStatus status, String detail, HttpHeaders headers) {
+        String json = "{\"type\":\"about:blank\",\"title\":\"" + status.getReasonPhrase() + "\",\"status\":" + status.value()
+                + ",\"detail\":\"" + detail + "\"}";
+        return ResponseEntity.status(status)
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static HttpHeaders retryAfter(int seconds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        return headers;
+    }
+}
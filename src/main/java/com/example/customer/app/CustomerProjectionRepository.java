@@ -0,0 +1,28 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerField;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Queries that read columns without loading entities of the customers table, mixed into {@link CustomerRepository}.
+ */
+public interface CustomerProjectionRepository {
+
+    /**
+     * The first {@code limit} customers matching {@code specification} in id order, each as a map of the selected
+     * {@code fields}. Only those columns are selected and no entities are loaded, so nothing enters the persistence
+     * context.
+     */
+    List<Map<String, Object>> findFields(Set<CustomerField> fields, Specification<CustomerEntity> specification, int limit);
+
+    /**
+     * The first {@code limit} customers matching {@code specification} in id order, constructed straight from the
+     * selected columns like the queries using {@link CustomerRepository#CUSTOMER}.
+     */
+    List<Customer> findCustomers(Specification<CustomerEntity> specification, int limit);
+}
@@ -0,0 +1,65 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class CustomerProjectionRepositoryImpl implements CustomerProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    CustomerProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(Set<CustomerField> fields, Specification<CustomerEntity> specification, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<CustomerEntity> root = query.from(CustomerEntity.class);
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (CustomerField field : fields) {
+            selections.add(root.get(field.propertyName()).alias(field.propertyName()));
+        }
+        query.multiselect(selections)
+                .where(specification.toPredicate(root, query, builder))
+                .orderBy(builder.asc(root.get("id")));
+
+        List<Tuple> tuples = entityManager.createQuery(query).setMaxResults(limit).getResultList();
+        List<Map<String, Object>> customers = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> customer = new LinkedHashMap<>();
+            for (CustomerField field : fields) {
+                customer.put(field.propertyName(), tuple.get(field.propertyName()));
+            }
+            customers.add(customer);
+        }
+        return customers;
+    }
+
+    @Override
+    public List<Customer> findCustomers(Specification<CustomerEntity> specification, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Customer> query = builder.createQuery(Customer.class);
+        Root<CustomerEntity> root = query.from(CustomerEntity.class);
+        query.select(builder.construct(Customer.class, root.get("id"), root.get("firstName"), root.get("lastName"),
+                        root.get("address"), root.get("phoneNumber"), root.get("dateOfBirth"),
+                        root.get("nationalSecurityNumber"), root.get("version"), root.get("updatedAt")))
+                .where(specification.toPredicate(root, query, builder))
+                .orderBy(builder.asc(root.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.customer.app;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Per-client rate limiting of API requests, applied by {@code RateLimitFilter}. Each node keeps its own buckets unless
+ * {@code customer.rate-limit.shared} moves them to Redis.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.rate-limit.enabled", havingValue = "true")
+@EnableConfigurationProperties(CustomerRateLimitProperties.class)
+public class CustomerRateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.rate-limit.shared", havingValue = "false", matchIfMissing = true)
+    public LocalRateLimiter localRateLimiter(CustomerRateLimitProperties properties) {
+        return new LocalRateLimiter(properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.rate-limit.shared", havingValue = "true")
+    public RedisRateLimiter redisRateLimiter(RedisConnectionFactory connectionFactory, CustomerRateLimitProperties properties) {
+        return new RedisRateLimiter(connectionFactory, properties);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.customer.app;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "customer.rate-limit")
+public class CustomerRateLimitProperties {
+
+    /**
+     * Whether API requests are rate limited per client.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Sustained requests per second each client may make.
+     */
+    private double requestsPerSecond = 50;
+
+    /**
+     * Requests a client may make at once after being idle, on top of the sustained rate.
+     */
+    private int burst = 100;
+
+    /**
+     * Request header that identifies a client. Requests without it are limited by remote address.
+     */
+    private String clientHeader = "X-API-Key";
+
+    /**
+     * Most clients whose buckets are kept in memory. Idle buckets are full and are dropped first.
+     */
+    private long maxClients = 100_000;
+
+    /**
+     * Whether the buckets are kept in Redis and shared by all nodes, instead of each node limiting on its own.
+     */
+    private boolean shared = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+    public void setRequestsPerSecond(double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public String getClientHeader() {
+        return clientHeader;
+    }
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    public long getMaxClients() {
+        return maxClients;
+    }
+    public void setMaxClients(long maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.customer.app;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for read-only transactions, only set up with {@code customer.replicas.enabled=true}.
+ * <p>
+ * The application's data source becomes a {@link LazyConnectionDataSourceProxy} over the primary pool. The proxy only
+ * fetches a real connection at the first statement, by which time the transaction has marked the connection read-only
+ * or not, and takes read-only ones from the {@link ReplicaDataSource}. Everything else, including Flyway, the outbox
+ * and any work outside a transaction, uses the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(CustomerReplicaProperties.class)
+public class CustomerReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * One pool per replica, sized and tuned like the primary pool.
+     */
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, CustomerReplicaProperties properties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : properties.getUrls()) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setPoolName("replica-" + replicas.size());
+            config.setJdbcUrl(url);
+            if (properties.getUsername() != null) {
+                config.setUsername(properties.getUsername());
+                config.setPassword(properties.getPassword());
+            }
+            config.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            // A replica that is down at startup is ejected by the health check instead of failing the application
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaDataSource(primaryDataSource, replicas, properties.getConnectionTimeout());
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.customer.app;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "customer.replicas")
+public class CustomerReplicaProperties {
+
+    /**
+     * Whether read-only transactions are sent to the read replicas.
+     */
+    private boolean enabled = false;
+
+    /**
+     * JDBC urls of the read replicas.
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * Login for the replicas; the primary's when not set.
+     */
+    private String username;
+
+    /**
+     * Password for the replicas; the primary's when not set.
+     */
+    private String password;
+
+    /**
+     * How long a replica connection may take before the read falls back to the primary and the replica is ejected.
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+
+    /**
+     * How often replicas are checked, to eject failed ones and take recovered ones back.
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * How long reads of a client stay on the primary after it changed something, to outlast the replication lag.
+     */
+    private Duration readYourWrites = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getUrls() {
+        return urls;
+    }
+    public void setUrls(List<String> urls) {
+        this.urls = urls;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public Duration getConnectionTimeout() {
+        return connectionTimeout;
+    }
+    public void setConnectionTimeout(Duration connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public Duration getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+    public void setHealthCheckInterval(Duration healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public Duration getReadYourWrites() {
+        return readYourWrites;
+    }
+    public void setReadYourWrites(Duration readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+}
@@ -1,10 +1,133 @@
 package com.example.customer.app;
 
+import com.example.customer.api.Customer;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<CustomerEntity, Long> {
-    // Custom query methods (if any) can be added here
-}
+public interface CustomerRepository extends JpaRepository<CustomerEntity, Long>, JpaSpecificationExecutor<CustomerEntity>,
+        CustomerProjectionRepository {
+
+    /**
+     * JPQL constructor expression that selects the columns of {@code c} straight into a {@link Customer}, for reads
+     * that only return customers: they load no entities and copy nothing.
+     */
+    String CUSTOMER = "new com.example.customer.api.Customer(c.id, c.firstName, c.lastName, c.address, c.phoneNumber, "
+            + "c.dateOfBirth, c.nationalSecurityNumber, c.version, c.updatedAt)";
+
+    /**
+     * Redeclared to run in a read-write transaction: the inherited method is read-only, which would send lookups to a
+     * read replica, see {@link CustomerService#findCustomerById}. The entity is still loaded read-only, without a
+     * snapshot for dirty checking.
+     */
+    @Override
+    @Transactional
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    Optional<CustomerEntity> findById(Long id);
+
+    /**
+     * Keyset page: the next {@code limit} customers with an id greater than {@code id}. Results are kept in the query
+     * cache until the next write to the table.
+     */
+    @Query("select " + CUSTOMER + " from CustomerEntity c where c.id > :id order by c.id")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Customer> findCustomersAfter(@Param("id") Long id, Limit limit);
+
+    /**
+     * Streams every customer in id order using a server-side cursor. Must be consumed inside a transaction
+     * and closed by the caller. Nothing enters the persistence context or the second-level cache, which a full scan
+     * would only flush.
+     */
+    @Query("select " + CUSTOMER + " from CustomerEntity c order by c.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<Customer> streamAll();
 
+    /**
+     * Streams every customer id, for rebuilding {@link CustomerIdFilter}. Must be consumed inside a transaction and
+     * closed by the caller.
+     */
+    @Query("select c.id from CustomerEntity c")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "10000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Long> streamIds();
+
+    /**
+     * Keyset page of the customers modified at or after {@code after} and before {@code before}, in
+     * {@code (updatedAt, id)} order, starting after the customer {@code afterId} modified at {@code after}.
+     */
+    @Query("select " + CUSTOMER + " from CustomerEntity c"
+            + " where (c.updatedAt > :after or (c.updatedAt = :after and c.id > :afterId)) and c.updatedAt < :before"
+            + " order by c.updatedAt, c.id")
+    List<Customer> findModified(@Param("after") Instant after, @Param("afterId") long afterId,
+                                @Param("before") Instant before, Limit limit);
+
+    /**
+     * Updates a customer in one statement, without loading it first. Returns the number of rows updated.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update CustomerEntity c
+            set c.firstName = :firstName, c.lastName = :lastName, c.address = :address, c.phoneNumber = :phoneNumber,
+                c.dateOfBirth = :dateOfBirth, c.nationalSecurityNumber = :nationalSecurityNumber, c.version = c.version + 1,
+                c.updatedAt = :updatedAt
+            where c.id = :id""")
+    int updateCustomer(@Param("id") Long id,
+                       @Param("updatedAt") Instant updatedAt,
+                       @Param("firstName") String firstName,
+                       @Param("lastName") String lastName,
+                       @Param("address") String address,
+                       @Param("phoneNumber") String phoneNumber,
+                       @Param("dateOfBirth") LocalDate dateOfBirth,
+                       @Param("nationalSecurityNumber") String nationalSecurityNumber);
+
+    /**
+     * Updates a customer in one statement if it is still at {@code version}. Returns the number of rows updated.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update CustomerEntity c
+            set c.firstName = :firstName, c.lastName = :lastName, c.address = :address, c.phoneNumber = :phoneNumber,
+                c.dateOfBirth = :dateOfBirth, c.nationalSecurityNumber = :nationalSecurityNumber, c.version = c.version + 1,
+                c.updatedAt = :updatedAt
+            where c.id = :id and c.version = :version""")
+    int updateCustomer(@Param("id") Long id,
+                       @Param("version") Long version,
+                       @Param("updatedAt") Instant updatedAt,
+                       @Param("firstName") String firstName,
+                       @Param("lastName") String lastName,
+                       @Param("address") String address,
+                       @Param("phoneNumber") String phoneNumber,
+                       @Param("dateOfBirth") LocalDate dateOfBirth,
+                       @Param("nationalSecurityNumber") String nationalSecurityNumber);
+
+    /**
+     * Deletes a customer in one statement, without loading it first. Returns the number of rows deleted.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from CustomerEntity c where c.id = :id")
+    int deleteCustomerById(@Param("id") Long id);
+
+    @Query("select c.id from CustomerEntity c where c.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,34 @@
+package com.example.customer.app;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * R2DBC mapping of the {@code customers} table used by the reactive stack. Inserts leave {@code id} empty and take it
+ * from the column default, which draws from the same sequence as {@link CustomerEntity}.
+ */
+@Table("customers")
+public record CustomerRow(@Id Long id,
+                          String firstName,
+                          String lastName,
+                          String address,
+                          String phoneNumber,
+                          LocalDate dateOfBirth,
+                          String nationalSecurityNumber,
+                          Long version,
+                          OffsetDateTime createdAt,
+                          OffsetDateTime updatedAt) {
+
+    /**
+     * Copy of this row to insert as a new customer at version 0, created now.
+     */
+    public CustomerRow asNew() {
+        OffsetDateTime now = CustomerEntity.now().atOffset(ZoneOffset.UTC);
+        return new CustomerRow(null, firstName, lastName, address, phoneNumber, dateOfBirth, nationalSecurityNumber, 0L,
+                now, now);
+    }
+}
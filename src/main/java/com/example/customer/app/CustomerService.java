@@ -1,58 +1,270 @@
 package com.example.customer.app;
 
 import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerField;
+import com.example.customer.api.CustomerPage;
+import com.example.customer.api.CustomerSearchCriteria;
+import com.example.customer.api.PartialCustomerPage;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
 import static com.example.customer.app.CustomerMapper.toBean;
 import static com.example.customer.app.CustomerMapper.toEntity;
+import static com.example.customer.app.CustomerMapper.updateEntity;
 
 @Service
+@Timed(value = "customer.service", histogram = true)
 public class CustomerService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final CustomerRepository customerRepository;
+    private final EntityManager entityManager;
+    private final CustomerIdFilter customerIdFilter;
+    private final CustomerChangeLog changeLog;
+    private final CustomerLookupBatcher lookupBatcher;
 
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository, EntityManager entityManager, CustomerIdFilter customerIdFilter,
+                           CustomerChangeLog changeLog, CustomerLookupBatcher lookupBatcher) {
         this.customerRepository = customerRepository;
+        this.entityManager = entityManager;
+        this.customerIdFilter = customerIdFilter;
+        this.changeLog = changeLog;
+        this.lookupBatcher = lookupBatcher;
     }
 
-    public List<Customer> getAllCustomers() {
-        return customerRepository.findAll().stream().map(CustomerMapper::toBean).toList();
+    /**
+     * Read-only, like {@link #searchCustomers} and {@link #exportCustomers}, so with read replicas configured the query
+     * runs on a replica.
+     */
+    @Transactional(readOnly = true)
+    public CustomerPage getCustomers(String after, int limit) {
+        int pageSize = pageSize(limit);
+        // Fetch one extra row to find out whether another page exists without a count query
+        List<Customer> customers = customerRepository.findCustomersAfter(CustomerCursor.decode(after), Limit.of(pageSize + 1));
+        return toPage(customers, pageSize);
     }
 
-    public Customer getCustomerById(Long id) {
-        Optional<CustomerEntity> customer = customerRepository.findById(id);
-        if (customer.isPresent()) {
-            return toBean(customer.get());
-        } else {
-            throw new CustomerNotFoundException();
+    /**
+     * Keyset paginated search. Results are in id order so the same cursor scheme as {@link #getCustomers} applies.
+     */
+    @Transactional(readOnly = true)
+    public CustomerPage searchCustomers(CustomerSearchCriteria criteria, String after, int limit) {
+        int pageSize = pageSize(limit);
+        Specification<CustomerEntity> specification = CustomerSpecifications.matching(criteria, CustomerCursor.decode(after));
+        return toPage(customerRepository.findCustomers(specification, pageSize + 1), pageSize);
+    }
+
+    /**
+     * Like {@link #getCustomers(String, int)}, but reads and returns only the given {@code fields}.
+     */
+    @Transactional(readOnly = true)
+    public PartialCustomerPage getCustomers(Set<CustomerField> fields, String after, int limit) {
+        int pageSize = pageSize(limit);
+        List<Map<String, Object>> rows = customerRepository.findFields(fields,
+                CustomerSpecifications.idGreaterThan(CustomerCursor.decode(after)), pageSize + 1);
+        return toPartialPage(rows, pageSize);
+    }
+
+    /**
+     * Like {@link #searchCustomers(CustomerSearchCriteria, String, int)}, but reads and returns only the given
+     * {@code fields}.
+     */
+    @Transactional(readOnly = true)
+    public PartialCustomerPage searchCustomers(CustomerSearchCriteria criteria, Set<CustomerField> fields, String after, int limit) {
+        int pageSize = pageSize(limit);
+        List<Map<String, Object>> rows = customerRepository.findFields(fields,
+                CustomerSpecifications.matching(criteria, CustomerCursor.decode(after)), pageSize + 1);
+        return toPartialPage(rows, pageSize);
+    }
+
+    /**
+     * Streams every customer to {@code consumer} in id order. Customers are constructed from the rows without loading
+     * entities, so the persistence context stays empty and memory use is constant regardless of table size.
+     */
+    @Transactional(readOnly = true)
+    public void exportCustomers(Consumer<Customer> consumer) {
+        try (Stream<Customer> customers = customerRepository.streamAll()) {
+            customers.forEach(consumer);
         }
     }
 
+    /**
+     * Looks a customer up by id. A miss is an empty result rather than an exception, since clients probing for ids
+     * make misses common. Ids the {@link CustomerIdFilter} has never seen are answered without a query. Misses are
+     * cached too where the cache store allows it; creating a customer replaces the cached miss for its id.
+     * <p>
+     * Lookups stay on the primary even with read replicas: what they read is cached, and a lagging replica could put a
+     * customer that was just deleted back into the cache. So the repository runs them in a read-write transaction,
+     * opened only on a cache miss, and loads the entity read-only instead. With lookup batching enabled, misses for
+     * different ids at the same time share one query, see {@link CustomerLookupBatcher}.
+     */
+    @Cacheable(cacheNames = CUSTOMERS_CACHE, key = "#id", sync = true)
+    public Optional<Customer> findCustomerById(Long id) {
+        if (!customerIdFilter.mightExist(id)) {
+            return Optional.empty();
+        }
+        return lookupBatcher.findById(id);
+    }
+
+    /**
+     * Creates a customer and records the change in the {@link CustomerChangeLog}, in one transaction. The same goes
+     * for updates and deletes. The id is added to the {@link CustomerIdFilter} once the transaction commits: a rebuild
+     * that started in between would not see the row and would drop an id added earlier.
+     */
+    @Transactional
+    @CachePut(cacheNames = CUSTOMERS_CACHE, key = "#result.id")
     public Customer createCustomer(Customer customer) {
-        return toBean(customerRepository.save(toEntity(customer)));
+        CustomerEntity customerEntity = toEntity(customer);
+        // Ids come from the sequence and versions from Hibernate; client supplied values would turn the insert into a merge
+        customerEntity.setId(null);
+        customerEntity.setVersion(null);
+        Customer created = toBean(customerRepository.save(customerEntity));
+        changeLog.created(List.of(created));
+        Long id = created.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                customerIdFilter.add(id);
+            }
+        });
+        return created;
     }
 
+    /**
+     * Updates a customer with one version checked UPDATE, without reading it from the database first. When
+     * {@code customerDetails} carries a version the update only applies if the stored customer is still at that version.
+     * <p>
+     * A customer in the second-level cache is updated in place: it is taken from the cache, its fields are overwritten
+     * and Hibernate flushes the UPDATE, which refreshes the cached entity too. Any other customer, and every customer
+     * when the entity cache is off, is updated with a JPQL UPDATE. The refreshed customer is cached when its new version
+     * is known, otherwise the cached copy is evicted.
+     */
+    @Transactional
+    @Caching(
+            put = @CachePut(cacheNames = CUSTOMERS_CACHE, key = "#id", unless = "#result.version == null"),
+            evict = @CacheEvict(cacheNames = CUSTOMERS_CACHE, key = "#id", condition = "#result.version == null"))
     public Customer updateCustomer(Long id, Customer customerDetails) {
-        Optional<CustomerEntity> customerOptional = customerRepository.findById(id);
+        if (entityManager.getEntityManagerFactory().getCache().contains(CustomerEntity.class, id)) {
+            return updateInPlace(id, customerDetails);
+        }
 
-        if (customerOptional.isPresent()) {
-            return toBean(customerRepository.save(toEntity(customerDetails)));
-        } else {
+        Long version = customerDetails.getVersion();
+        Instant updatedAt = CustomerEntity.now();
+        int updated = version == null
+                ? customerRepository.updateCustomer(id, updatedAt, customerDetails.getFirstName(), customerDetails.getLastName(),
+                        customerDetails.getAddress(), customerDetails.getPhoneNumber(), customerDetails.getDateOfBirth(),
+                        customerDetails.getNationalSecurityNumber())
+                : customerRepository.updateCustomer(id, version, updatedAt, customerDetails.getFirstName(), customerDetails.getLastName(),
+                        customerDetails.getAddress(), customerDetails.getPhoneNumber(), customerDetails.getDateOfBirth(),
+                        customerDetails.getNationalSecurityNumber());
+
+        if (updated == 0) {
+            // Only the failure path pays for a second query, to tell a stale version from a missing customer
+            if (version != null && customerRepository.existsById(id)) {
+                throw new CustomerVersionConflictException();
+            }
             throw new CustomerNotFoundException();
         }
+
+        // A new customer, so the caller's request is not changed and cannot alias the cached copy
+        Customer updatedCustomer = new Customer(id, customerDetails.getFirstName(), customerDetails.getLastName(),
+                customerDetails.getAddress(), customerDetails.getPhoneNumber(), customerDetails.getDateOfBirth(),
+                customerDetails.getNationalSecurityNumber(), version == null ? null : version + 1, updatedAt);
+        changeLog.updated(List.of(updatedCustomer));
+        return updatedCustomer;
     }
 
-    public void deleteCustomer(Long id) {
-        Optional<CustomerEntity> customer = customerRepository.findById(id);
+    /**
+     * Overwrites the fields of the cached entity. The customer returned always carries its new version. A concurrent
+     * update between the load and the flush is reported as a version conflict.
+     */
+    private Customer updateInPlace(Long id, Customer customerDetails) {
+        // Found in the second-level cache, unless it was evicted since it was checked
+        CustomerEntity customerEntity = entityManager.find(CustomerEntity.class, id);
+        if (customerEntity == null) {
+            throw new CustomerNotFoundException();
+        }
+        Long version = customerDetails.getVersion();
+        if (version != null && !version.equals(customerEntity.getVersion())) {
+            throw new CustomerVersionConflictException();
+        }
+
+        updateEntity(customerDetails, customerEntity);
+        // Always dirty, so an update that changes no field still moves the version and updatedAt on
+        customerEntity.setUpdatedAt(CustomerEntity.now());
+        try {
+            // Flush first so the returned and recorded customer carry the incremented version
+            customerRepository.flush();
+        } catch (OptimisticLockingFailureException ex) {
+            throw new CustomerVersionConflictException();
+        }
 
-        if (customer.isPresent()) {
-            customerRepository.deleteById(id);
-        } else {
+        Customer updated = toBean(customerEntity);
+        changeLog.updated(List.of(updated));
+        return updated;
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CUSTOMERS_CACHE, key = "#id")
+    public void deleteCustomer(Long id) {
+        if (customerRepository.deleteCustomerById(id) == 0) {
             throw new CustomerNotFoundException();
         }
+        changeLog.deleted(List.of(id));
     }
-}
 
+    static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Turns up to {@code pageSize + 1} customers into a page; the extra one only signals that there is a next page.
+     * The page is a view of {@code rows}, nothing is copied.
+     */
+    static CustomerPage toPage(List<Customer> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Customer> customers = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? CustomerCursor.encode(customers.get(pageSize - 1).getId()) : null;
+        return new CustomerPage(customers, nextCursor);
+    }
+
+    /**
+     * Like {@link #toPage(List, int)}, for rows that still need to be mapped to customers.
+     */
+    static <T> CustomerPage toPage(List<T> rows, int pageSize, Function<T, Customer> mapper) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Customer> customers = rows.stream().limit(pageSize).map(mapper).toList();
+        String nextCursor = hasMore ? CustomerCursor.encode(customers.get(pageSize - 1).getId()) : null;
+        return new CustomerPage(customers, nextCursor);
+    }
+
+    private static PartialCustomerPage toPartialPage(List<Map<String, Object>> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Map<String, Object>> customers = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? CustomerCursor.encode((Long) customers.get(pageSize - 1).get(CustomerField.ID.propertyName())) : null;
+        return new PartialCustomerPage(customers, nextCursor);
+    }
+}
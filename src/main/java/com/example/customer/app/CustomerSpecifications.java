@@ -0,0 +1,84 @@
+package com.example.customer.app;
+
+import com.example.customer.api.CustomerSearchCriteria;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Query predicates for customer searches. Each one maps onto an index created by the search index migration.
+ */
+public final class CustomerSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private CustomerSpecifications() {
+    }
+
+    public static Specification<CustomerEntity> matching(CustomerSearchCriteria criteria, long afterId) {
+        List<Specification<CustomerEntity>> specifications = new ArrayList<>();
+        specifications.add(idGreaterThan(afterId));
+        if (criteria.name() != null && !criteria.name().isBlank()) {
+            specifications.add(nameStartsWith(criteria.name()));
+        }
+        if (criteria.phoneNumber() != null && !criteria.phoneNumber().isBlank()) {
+            specifications.add(phoneNumberEquals(criteria.phoneNumber()));
+        }
+        if (criteria.bornFrom() != null) {
+            specifications.add(bornOnOrAfter(criteria.bornFrom()));
+        }
+        if (criteria.bornTo() != null) {
+            specifications.add(bornOnOrBefore(criteria.bornTo()));
+        }
+        return Specification.allOf(specifications);
+    }
+
+    public static Specification<CustomerEntity> idGreaterThan(long id) {
+        return (root, query, builder) -> builder.greaterThan(root.<Long>get("id"), id);
+    }
+
+    /**
+     * Case-insensitive prefix match on the first or the last name, written as {@code lower(column) like 'abc%'} so it
+     * can use the {@code lower()} expression indexes.
+     */
+    public static Specification<CustomerEntity> nameStartsWith(String prefix) {
+        String pattern = prefixPattern(prefix);
+        return (root, query, builder) -> builder.or(
+                builder.like(builder.lower(root.<String>get("lastName")), pattern, LIKE_ESCAPE),
+                builder.like(builder.lower(root.<String>get("firstName")), pattern, LIKE_ESCAPE));
+    }
+
+    public static Specification<CustomerEntity> phoneNumberEquals(String phoneNumber) {
+        return (root, query, builder) -> builder.equal(root.get("phoneNumber"), phoneNumber.trim());
+    }
+
+    public static Specification<CustomerEntity> bornOnOrAfter(LocalDate date) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.<LocalDate>get("dateOfBirth"), date);
+    }
+
+    public static Specification<CustomerEntity> bornOnOrBefore(LocalDate date) {
+        return (root, query, builder) -> builder.lessThanOrEqualTo(root.<LocalDate>get("dateOfBirth"), date);
+    }
+
+    /**
+     * Lower case {@code LIKE} pattern matching values that start with {@code prefix}, escaped with a backslash.
+     */
+    static String prefixPattern(String prefix) {
+        return escapeLike(prefix.trim().toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
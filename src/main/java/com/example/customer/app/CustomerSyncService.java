@@ -0,0 +1,97 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerDelta;
+import com.example.customer.api.CustomerTombstone;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.customer.app.CustomerService.pageSize;
+
+/**
+ * Answers "what changed since X" for clients that keep a copy of the customers. Modified customers come from the
+ * indexed {@code updated_at} column, deleted ones from the tombstones in the {@link CustomerChangeLog}; both are
+ * merged into one keyset paginated timeline ordered by change time and id.
+ * <p>
+ * The timeline stops {@code customer.changes.settle-time} before now, so nothing can still commit behind the returned
+ * watermark. Deletions are only known for the change retention period, so older {@code modifiedSince} values are
+ * rejected and the client has to reload.
+ */
+@Timed(value = "customer.service", histogram = true)
+public class CustomerSyncService {
+
+    private final CustomerRepository customerRepository;
+    private final CustomerChangeLog changeLog;
+    private final CustomerChangeProperties properties;
+    private final Clock clock;
+
+    public CustomerSyncService(CustomerRepository customerRepository, CustomerChangeLog changeLog,
+                               CustomerChangeProperties properties, Clock clock) {
+        this.customerRepository = customerRepository;
+        this.changeLog = changeLog;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * One page of the customers modified or deleted at or after {@code modifiedSince}, continuing from {@code after}
+     * when given. The last page carries the watermark for the next sync instead of a cursor.
+     * <p>
+     * Both sources are read in one transaction, on one connection. It is not marked read-only, which would send it to
+     * a read replica; the customers are loaded read-only instead.
+     */
+    @Transactional
+    public CustomerDelta getModifiedCustomers(Instant modifiedSince, String after, int limit) {
+        Instant now = clock.instant();
+        if (modifiedSince.isBefore(now.minus(properties.getRetention()))) {
+            throw new SyncExpiredException();
+        }
+        Instant before = now.minus(properties.getSettleTime());
+        // Customer ids start at 1, so the first page includes everything changed at modifiedSince itself
+        CustomerCursor.Position from = after == null || after.isEmpty()
+                ? new CustomerCursor.Position(modifiedSince, 0)
+                : CustomerCursor.decodePosition(after);
+        int pageSize = pageSize(limit);
+
+        // Either source may fill the page on its own; one extra row each tells whether there is more
+        List<Customer> modified = customerRepository.findModified(from.changedAt(), from.id(), before, Limit.of(pageSize + 1));
+        List<CustomerTombstone> deleted = changeLog.findDeleted(from.changedAt(), from.id(), before, pageSize + 1);
+
+        List<Customer> customers = new ArrayList<>();
+        List<CustomerTombstone> tombstones = new ArrayList<>();
+        int m = 0;
+        int d = 0;
+        Instant lastChangedAt = null;
+        long lastId = 0;
+        while (m + d < pageSize && (m < modified.size() || d < deleted.size())) {
+            if (d == deleted.size() || m < modified.size() && compare(modified.get(m), deleted.get(d)) <= 0) {
+                Customer customer = modified.get(m++);
+                customers.add(customer);
+                lastChangedAt = customer.getUpdatedAt();
+                lastId = customer.getId();
+            } else {
+                CustomerTombstone tombstone = deleted.get(d++);
+                tombstones.add(tombstone);
+                lastChangedAt = tombstone.deletedAt();
+                lastId = tombstone.id();
+            }
+        }
+
+        if (m < modified.size() || d < deleted.size()) {
+            return new CustomerDelta(customers, tombstones, CustomerCursor.encode(lastChangedAt, lastId), null);
+        }
+        Instant watermark = before.isAfter(modifiedSince) ? before : modifiedSince;
+        return new CustomerDelta(customers, tombstones, null, watermark);
+    }
+
+    private static int compare(Customer customer, CustomerTombstone tombstone) {
+        int byTime = customer.getUpdatedAt().compareTo(tombstone.deletedAt());
+        return byTime != 0 ? byTime : Long.compare(customer.getId(), tombstone.id());
+    }
+}
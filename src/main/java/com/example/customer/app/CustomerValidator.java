@@ -0,0 +1,172 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks customers against both the API rules on {@link Customer} and the column rules on {@link CustomerEntity} in
+ * one pass, with the messages Bean Validation would give. The annotations on those classes stay the declaration of
+ * the rules; this is a hand-specialized copy of them that reads the getters directly instead of going through
+ * reflection and a regex, and allocates nothing for a valid customer. {@code CustomerValidatorTest} checks that both
+ * agree, so a constraint added to either class must be added here as well.
+ * <p>
+ * Every write path checks customers here before they reach Hibernate, which therefore does not validate them again
+ * on persist ({@code jakarta.persistence.validation.mode=none}).
+ */
+@Component
+public class CustomerValidator {
+
+    static final String FIRST_NAME_BLANK = "firstName: First Name cannot be blank";
+    static final String LAST_NAME_BLANK = "lastName: Last Name cannot be blank";
+    static final String NATIONAL_SECURITY_NUMBER_FORMAT =
+            "nationalSecurityNumber: National Security number must be in the format nnn-nn-nnnn";
+    private static final String NOT_NULL = ": must not be null";
+    private static final String NAME_SIZE = ": size must be between 2 and 50";
+    private static final String PAST = "dateOfBirth: must be a date in the past";
+
+    private final Clock clock;
+    private volatile Today today;
+
+    public CustomerValidator() {
+        this(Clock.systemDefaultZone());
+    }
+
+    CustomerValidator(Clock clock) {
+        this.clock = clock;
+        this.today = new Today(clock);
+    }
+
+    /**
+     * Returns what is wrong with {@code customer}, one {@code property: message} entry per broken rule; an empty list
+     * when it is valid.
+     */
+    public List<String> validate(Customer customer, boolean requireId) {
+        if (customer == null) {
+            return List.of("Customer cannot be null");
+        }
+        List<String> errors = null;
+        if (requireId && customer.getId() == null) {
+            errors = add(errors, "id: Id cannot be null");
+        }
+        errors = checkName(errors, "firstName", customer.getFirstName(), FIRST_NAME_BLANK);
+        errors = checkName(errors, "lastName", customer.getLastName(), LAST_NAME_BLANK);
+        errors = checkSize(errors, "address", customer.getAddress(), 100);
+        errors = checkSize(errors, "phoneNumber", customer.getPhoneNumber(), 15);
+        LocalDate dateOfBirth = customer.getDateOfBirth();
+        if (dateOfBirth == null) {
+            errors = add(errors, "dateOfBirth" + NOT_NULL);
+        } else if (!dateOfBirth.isBefore(today())) {
+            errors = add(errors, PAST);
+        }
+        String nationalSecurityNumber = customer.getNationalSecurityNumber();
+        if (nationalSecurityNumber != null && !isNationalSecurityNumber(nationalSecurityNumber)) {
+            errors = add(errors, NATIONAL_SECURITY_NUMBER_FORMAT);
+        }
+        errors = checkSize(errors, "nationalSecurityNumber", nationalSecurityNumber, 20);
+        return errors == null ? List.of() : errors;
+    }
+
+    /**
+     * @throws InvalidCustomerException with the errors {@link #validate} finds, if any
+     */
+    public void requireValid(Customer customer) {
+        List<String> errors = validate(customer, false);
+        if (!errors.isEmpty()) {
+            throw new InvalidCustomerException(errors);
+        }
+    }
+
+    /**
+     * {@code @NotBlank} on the customer, {@code @NotNull @Size(min = 2, max = 50)} on the entity.
+     */
+    private static List<String> checkName(List<String> errors, String property, String value, String blankMessage) {
+        if (value == null) {
+            return add(add(errors, blankMessage), property + NOT_NULL);
+        }
+        if (isBlank(value)) {
+            errors = add(errors, blankMessage);
+        }
+        if (value.length() < 2 || value.length() > 50) {
+            errors = add(errors, property + NAME_SIZE);
+        }
+        return errors;
+    }
+
+    /**
+     * {@code @NotNull @Size(max = max)} on the entity.
+     */
+    private static List<String> checkSize(List<String> errors, String property, String value, int max) {
+        if (value == null) {
+            return add(errors, property + NOT_NULL);
+        }
+        if (value.length() > max) {
+            return add(errors, property + ": size must be between 0 and " + max);
+        }
+        return errors;
+    }
+
+    /**
+     * Blank as {@code @NotBlank} sees it: nothing left after {@link String#trim()}.
+     */
+    private static boolean isBlank(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@code @Pattern(regexp = "^\\d{3}-\\d{2}-\\d{4}$")}, where {@code \d} is an ASCII digit.
+     */
+    static boolean isNationalSecurityNumber(String value) {
+        if (value.length() != 11) {
+            return false;
+        }
+        for (int i = 0; i < 11; i++) {
+            char c = value.charAt(i);
+            boolean valid = i == 3 || i == 6 ? c == '-' : c >= '0' && c <= '9';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> add(List<String> errors, String error) {
+        if (errors == null) {
+            errors = new ArrayList<>(4);
+        }
+        errors.add(error);
+        return errors;
+    }
+
+    /**
+     * The current date in the clock's zone, only looked up again once the day is over.
+     */
+    private LocalDate today() {
+        Today current = today;
+        if (clock.millis() >= current.endMillis) {
+            current = new Today(clock);
+            today = current;
+        }
+        return current.date;
+    }
+
+    private static final class Today {
+
+        private final LocalDate date;
+        private final long endMillis;
+
+        private Today(Clock clock) {
+            this.date = LocalDate.now(clock);
+            this.endMillis = date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.customer.app;
+
+public class CustomerVersionConflictException extends RuntimeException {
+
+    public CustomerVersionConflictException() {
+        // Signals an expected outcome rather than a bug, so skip the stack trace
+        super("Customer has been modified by another request", null, false, false);
+    }
+}
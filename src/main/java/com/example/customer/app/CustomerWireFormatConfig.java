@@ -0,0 +1,33 @@
+package com.example.customer.app;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary alternatives to JSON for service-to-service calls, chosen through the {@code Accept} and
+ * {@code Content-Type} headers: CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}).
+ * Both carry the same fields as the JSON representation, so {@link com.example.customer.api.Customer} and the page
+ * types are their schema too.
+ * <p>
+ * Spring MVC registers converters for both formats by itself, but with an object mapper of its own; these replace them
+ * with copies of the application's mapper so every format honours the same {@code spring.jackson.*} settings. JSON
+ * stays first, so clients that accept anything still get JSON.
+ */
+@Configuration
+public class CustomerWireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory()));
+    }
+}
@@ -1,22 +1,133 @@
 package com.example.customer.app;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+/**
+ * Maps exceptions to RFC 7807 problem responses and counts them in {@code customer.errors}, tagged by outcome and
+ * exception type. The framework's own errors, such as an unsupported method or media type, an unknown path or a
+ * parameter that does not convert, keep the status and problem the framework gives them. Anything else is a
+ * {@code 500} whose detail says nothing about the cause; the exception is logged instead.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    public static final String ERRORS_METRIC = "customer.errors";
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private final MeterRegistry meterRegistry;
+
+    // Web slice tests have no meter registry, so fall back to the global one
+    public GlobalExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
     @ExceptionHandler(CustomerNotFoundException.class)
-    public ResponseEntity<String> handleResourceNotFoundException(CustomerNotFoundException ex, WebRequest request) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    public ResponseEntity<byte[]> handleResourceNotFoundException(CustomerNotFoundException ex) {
+        count("not_found", ex);
+        return CustomerProblems.NOT_FOUND;
+    }
+
+    @ExceptionHandler(CustomerVersionConflictException.class)
+    public ResponseEntity<byte[]> handleVersionConflictException(CustomerVersionConflictException ex) {
+        count("version_conflict", ex);
+        return CustomerProblems.VERSION_CONFLICT;
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<byte[]> handleInvalidCursorException(InvalidCursorException ex) {
+        count("invalid_cursor", ex);
+        return CustomerProblems.INVALID_CURSOR;
+    }
+
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<byte[]> handleInvalidFieldsException(InvalidFieldsException ex) {
+        count("invalid_fields", ex);
+        return CustomerProblems.INVALID_FIELDS;
+    }
+
+    @ExceptionHandler(SyncExpiredException.class)
+    public ResponseEntity<byte[]> handleSyncExpiredException(SyncExpiredException ex) {
+        count("sync_expired", ex);
+        return CustomerProblems.SYNC_EXPIRED;
+    }
+
+    @ExceptionHandler(IngestQueueFullException.class)
+    public ResponseEntity<byte[]> handleIngestQueueFullException(IngestQueueFullException ex) {
+        count("queue_full", ex);
+        return CustomerProblems.INGEST_QUEUE_FULL;
+    }
+
+    @ExceptionHandler(InvalidCustomerException.class)
+    public ProblemDetail handleInvalidCustomerException(InvalidCustomerException ex) {
+        count("invalid_customer", ex);
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Customer is invalid");
+        problem.setProperty("errors", ex.getErrors());
+        return problem;
+    }
+
+    @ExceptionHandler(JsonProcessingException.class)
+    public ProblemDetail handleUnreadableBodyException(JsonProcessingException ex) {
+        count("malformed_body", ex);
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getOriginalMessage());
+    }
+
+    /**
+     * A request body that is not valid JSON, or does not fit a customer, on the endpoints that bind it with
+     * {@code @RequestBody}.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ProblemDetail handleMessageNotReadableException(HttpMessageNotReadableException ex) {
+        count("malformed_body", ex);
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Request body is malformed");
+    }
+
+    /**
+     * A path variable or parameter, such as {@code limit} or {@code modifiedSince}, that does not convert to its type.
+     */
+    @ExceptionHandler(TypeMismatchException.class)
+    public ProblemDetail handleTypeMismatchException(TypeMismatchException ex) {
+        count("invalid_request", ex);
+        String name = ex instanceof MethodArgumentTypeMismatchException mismatch ? mismatch.getName() : ex.getPropertyName();
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
+                name == null ? "Invalid request parameter" : "Invalid value for '" + name + "'");
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<String> handleGlobalException(Exception ex, WebRequest request) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    public ResponseEntity<ProblemDetail> handleGlobalException(Exception ex) {
+        if (ex instanceof ErrorResponse errorResponse) {
+            HttpStatusCode status = errorResponse.getStatusCode();
+            count(status.is5xxServerError() ? "internal_error" : "invalid_request", ex);
+            return ResponseEntity.status(status).headers(errorResponse.getHeaders()).body(errorResponse.getBody());
+        }
+        count("internal_error", ex);
+        log.error("Request failed", ex);
+        return ResponseEntity.internalServerError()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error"));
     }
-}
 
+    private void count(String outcome, Exception ex) {
+        Counter.builder(ERRORS_METRIC)
+                .description("Requests that ended in an exception, by how they were answered")
+                .tag("outcome", outcome)
+                .tag("exception", ex.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+}
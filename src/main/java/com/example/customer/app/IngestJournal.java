@@ -0,0 +1,150 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only file of customers accepted for asynchronous creation, one JSON record per line. An {@code accepted}
+ * record is written before a customer is acknowledged and a {@code done} record once it is created or has failed, so
+ * after a crash the customers still to create are the accepted ones without a done record. The file is truncated
+ * whenever nothing is outstanding, which keeps it short in steady state.
+ */
+final class IngestJournal implements Closeable {
+
+    private static final String ACCEPTED = "accepted";
+    private static final String DONE = "done";
+
+    private final FileChannel channel;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final Path path;
+    private final boolean fsync;
+    private long outstanding;
+
+    IngestJournal(Path path, boolean fsync, ObjectMapper objectMapper) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.path = path;
+        this.fsync = fsync;
+        this.writer = objectMapper.writerFor(Record.class);
+        this.reader = objectMapper.readerFor(Record.class);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    synchronized void accepted(String trackingId, Customer customer) {
+        append(List.of(new Record(ACCEPTED, trackingId, customer)));
+        outstanding++;
+    }
+
+    synchronized void done(Collection<String> trackingIds) {
+        append(trackingIds.stream().map(trackingId -> new Record(DONE, trackingId, null)).toList());
+        outstanding -= trackingIds.size();
+        if (outstanding <= 0) {
+            outstanding = 0;
+            truncate();
+        }
+    }
+
+    /**
+     * Customers accepted but not done, in the order they were accepted. Counts them as outstanding, so call it once,
+     * before any new record is written.
+     */
+    synchronized Map<String, Customer> pending() throws IOException {
+        Map<String, Customer> pending = new LinkedHashMap<>();
+        try (BufferedReader lines = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Record record;
+                try {
+                    record = reader.readValue(line);
+                } catch (IOException ex) {
+                    // A crash can leave the last line half written; its customer was never acknowledged
+                    continue;
+                }
+                if (ACCEPTED.equals(record.type())) {
+                    pending.put(record.trackingId(), record.customer());
+                } else {
+                    pending.remove(record.trackingId());
+                }
+            }
+        }
+        outstanding = pending.size();
+        if (pending.isEmpty()) {
+            truncate();
+        } else if (!endsWithNewline()) {
+            // Terminate a half written last line so the next record starts on a line of its own
+            channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+        }
+        return pending;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void append(List<Record> records) {
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (Record record : records) {
+                lines.append(writer.writeValueAsString(record)).append('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private boolean endsWithNewline() throws IOException {
+        try (SeekableByteChannel file = Files.newByteChannel(path)) {
+            if (file.size() == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            file.position(file.size() - 1).read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    private void truncate() {
+        try {
+            channel.truncate(0);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Record(String type, String trackingId, Customer customer) {
+    }
+}
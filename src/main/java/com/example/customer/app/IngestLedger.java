@@ -0,0 +1,55 @@
+package com.example.customer.app;
+
+import com.example.customer.api.IngestStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code customer_ingests} table: the tracking id and customer id of every journaled customer, written in the same
+ * transaction as the customer. The {@link IngestJournal} only learns that a customer was created after that
+ * transaction commits, so a crash in between leaves it accepted in the journal although it exists; the ledger tells
+ * the replay which of them to skip, which makes journaled creation exactly-once.
+ * <p>
+ * A row is only needed until the journal records its customer as done, so it is deleted right after that. Instances
+ * that share the database share the table, which is why rows are only ever deleted by tracking id; one left behind by a
+ * crash between the two steps is never read again, since tracking ids are random.
+ */
+final class IngestLedger {
+
+    private static final String INSERT_SQL = "INSERT INTO customer_ingests (tracking_id, customer_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    IngestLedger(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records created customers, by tracking id. Call it in the transaction that inserts them.
+     */
+    void created(Collection<IngestStatus> created) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, created, created.size(), (statement, status) -> {
+            statement.setString(1, status.trackingId());
+            statement.setLong(2, status.customerId());
+        });
+    }
+
+    /**
+     * Customer ids by tracking id, for every customer recorded and not yet forgotten.
+     */
+    Map<String, Long> all() {
+        Map<String, Long> created = new HashMap<>();
+        jdbcTemplate.query("SELECT tracking_id, customer_id FROM customer_ingests",
+                (RowCallbackHandler) resultSet -> created.put(resultSet.getString(1), resultSet.getLong(2)));
+        return created;
+    }
+
+    void forget(Collection<String> trackingIds) {
+        jdbcTemplate.batchUpdate("DELETE FROM customer_ingests WHERE tracking_id = ?", trackingIds, trackingIds.size(),
+                (statement, trackingId) -> statement.setString(1, trackingId));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.customer.app;
+
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException() {
+        // Signals an expected outcome rather than a bug, so skip the stack trace
+        super("Ingestion queue is full", null, false, false);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.customer.app;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException() {
+        // Signals an expected outcome rather than a bug, so skip the stack trace
+        super("Invalid page cursor", null, false, false);
+    }
+}
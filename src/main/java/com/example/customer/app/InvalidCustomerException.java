@@ -0,0 +1,18 @@
+package com.example.customer.app;
+
+import java.util.List;
+
+public class InvalidCustomerException extends RuntimeException {
+
+    private final List<String> errors;
+
+    public InvalidCustomerException(List<String> errors) {
+        // Signals an expected outcome rather than a bug, so skip the stack trace
+        super(String.join("; ", errors), null, false, false);
+        this.errors = errors;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.customer.app;
+
+public class InvalidFieldsException extends RuntimeException {
+
+    public InvalidFieldsException() {
+        // Signals an expected outcome rather than a bug, so skip the stack trace
+        super("Unknown customer field", null, false, false);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.customer.app;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Buckets in process memory, each limiting a client on this node only. A bucket is an {@link AtomicLong} holding the
+ * time, in {@link System#nanoTime()}, at which it will be full again; a token is taken by moving that time one
+ * interval forward, as long as it stays within {@code burst} intervals from now.
+ * <p>
+ * Buckets that were idle long enough to be full again are indistinguishable from new ones, so they expire after that
+ * time, and at most {@code maxClients} are kept.
+ */
+public class LocalRateLimiter implements RateLimiter {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoTime;
+
+    public LocalRateLimiter(CustomerRateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    LocalRateLimiter(CustomerRateLimitProperties properties, LongSupplier nanoTime) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / properties.getRequestsPerSecond()));
+        this.capacityNanos = intervalNanos * Math.max(1, properties.getBurst());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(Duration.ofNanos(Math.max(capacityNanos, Duration.ofSeconds(1).toNanos())))
+                .build();
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public long tryAcquire(String client) {
+        long now = nanoTime.getAsLong();
+        AtomicLong fullAt = buckets.get(client, key -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - now < 0 ? now : current) + intervalNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.customer.app;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter of {@code long} values. Safe for concurrent use: bits are only ever set, with a compare-and-set per
+ * word, so readers never see a value disappear.
+ */
+final class LongBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final LongAdder bitsSet = new LongAdder();
+    private final LongAdder insertions = new LongAdder();
+
+    private LongBloomFilter(long bitCount, int hashCount) {
+        this.words = new AtomicLongArray(Math.toIntExact(bitCount / Long.SIZE));
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Sizes the filter with the usual formulas: {@code m = -n ln p / (ln 2)^2} bits and {@code k = m / n ln 2} hash
+     * functions.
+     */
+    static LongBloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long n = Math.max(expectedInsertions, 1);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bits = Math.max(Long.SIZE, (bits + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        return new LongBloomFilter(bits, hashes);
+    }
+
+    void put(long value) {
+        long hash1 = mix(value);
+        long hash2 = mix(value + 0x9E3779B97F4A7C15L);
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            changed |= setBit(index(hash1 + i * hash2));
+        }
+        if (changed) {
+            insertions.increment();
+        }
+    }
+
+    boolean mightContain(long value) {
+        long hash1 = mix(value);
+        long hash2 = mix(value + 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash1 + i * hash2);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    /**
+     * Values that set at least one new bit; a close estimate of the distinct values added.
+     */
+    long insertions() {
+        return insertions.sum();
+    }
+
+    /**
+     * Current chance that a value never added is reported as present, from the share of bits set.
+     */
+    double expectedFalsePositiveRate() {
+        return Math.pow((double) bitsSet.sum() / bitCount, hashCount);
+    }
+
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = words.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(word, current, current | mask));
+        bitsSet.increment();
+        return true;
+    }
+
+    private long index(long hash) {
+        return (hash & Long.MAX_VALUE) % bitCount;
+    }
+
+    // SplitMix64 finalizer: sequential ids map to well spread hashes
+    private static long mix(long value) {
+        long z = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.customer.app;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Producers claim a slot by advancing the producer
+ * index with a compare-and-set and then publish the element into it; the consumer takes elements in claim order and
+ * frees their slots.
+ */
+final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * Capacity is rounded up to a power of two so a slot is found with a mask instead of a division.
+     */
+    MpscRingBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(requestedCapacity, 2) * 2 - 1);
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Returns {@code false} without blocking when the buffer is full.
+     */
+    boolean offer(E element) {
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex.get() >= capacity) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+        slots.setRelease((int) index & mask, element);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code limit} elements to {@code consumer}. Only one thread may drain. Stops early at a slot that
+     * was claimed but not yet published; that element is picked up by the next drain.
+     */
+    int drain(Consumer<E> consumer, int limit) {
+        long index = consumerIndex.get();
+        int drained = 0;
+        while (drained < limit) {
+            int offset = (int) index & mask;
+            E element = slots.getAcquire(offset);
+            if (element == null) {
+                break;
+            }
+            // Free the slot before the index moves past it, so a producer never overwrites an unread element
+            slots.setRelease(offset, null);
+            consumerIndex.setRelease(++index);
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, producerIndex.get() - consumerIndex.get());
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.customer.app;
+
+/**
+ * Token bucket per client: a client may make {@code burst} requests at once and then {@code requestsPerSecond} on
+ * average. Both implementations keep a bucket as a single timestamp, the time at which it will be full again (GCRA),
+ * so taking a token is one compare-and-set or one Redis round trip.
+ */
+public interface RateLimiter {
+
+    /**
+     * Takes a token from the bucket of {@code client}.
+     *
+     * @return {@code 0} if the request may proceed, otherwise the nanoseconds until the bucket holds a token again
+     */
+    long tryAcquire(String client);
+}
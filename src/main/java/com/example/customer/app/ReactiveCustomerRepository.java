@@ -0,0 +1,68 @@
+package com.example.customer.app;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Non-blocking counterpart of {@link CustomerRepository}, over R2DBC.
+ */
+@Repository
+public interface ReactiveCustomerRepository extends R2dbcRepository<CustomerRow, Long> {
+
+    /**
+     * Keyset page: the customers with an id greater than {@code id}, ordered and limited by {@code pageable}.
+     */
+    Flux<CustomerRow> findByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Updates a customer in one statement, without loading it first. Emits the number of rows updated.
+     */
+    @Modifying
+    @Query("""
+            UPDATE customers
+            SET first_name = :firstName, last_name = :lastName, address = :address, phone_number = :phoneNumber,
+                date_of_birth = :dateOfBirth, national_security_number = :nationalSecurityNumber, version = version + 1,
+                updated_at = :updatedAt
+            WHERE id = :id""")
+    Mono<Integer> updateCustomer(@Param("id") Long id,
+                                 @Param("updatedAt") OffsetDateTime updatedAt,
+                                 @Param("firstName") String firstName,
+                                 @Param("lastName") String lastName,
+                                 @Param("address") String address,
+                                 @Param("phoneNumber") String phoneNumber,
+                                 @Param("dateOfBirth") LocalDate dateOfBirth,
+                                 @Param("nationalSecurityNumber") String nationalSecurityNumber);
+
+    /**
+     * Updates a customer in one statement if it is still at {@code version}. Emits the number of rows updated.
+     */
+    @Modifying
+    @Query("""
+            UPDATE customers
+            SET first_name = :firstName, last_name = :lastName, address = :address, phone_number = :phoneNumber,
+                date_of_birth = :dateOfBirth, national_security_number = :nationalSecurityNumber, version = version + 1,
+                updated_at = :updatedAt
+            WHERE id = :id AND version = :version""")
+    Mono<Integer> updateCustomer(@Param("id") Long id,
+                                 @Param("version") Long version,
+                                 @Param("updatedAt") OffsetDateTime updatedAt,
+                                 @Param("firstName") String firstName,
+                                 @Param("lastName") String lastName,
+                                 @Param("address") String address,
+                                 @Param("phoneNumber") String phoneNumber,
+                                 @Param("dateOfBirth") LocalDate dateOfBirth,
+                                 @Param("nationalSecurityNumber") String nationalSecurityNumber);
+
+    @Modifying
+    @Query("DELETE FROM customers WHERE id = :id")
+    Mono<Integer> deleteCustomerById(@Param("id") Long id);
+}
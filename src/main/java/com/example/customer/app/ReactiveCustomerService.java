@@ -0,0 +1,218 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerChange;
+import com.example.customer.api.CustomerPage;
+import com.example.customer.api.CustomerSearchCriteria;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
+import static com.example.customer.app.CustomerMapper.toRow;
+import static com.example.customer.app.CustomerService.pageSize;
+import static com.example.customer.app.CustomerService.toPage;
+
+/**
+ * Non-blocking counterpart of {@link CustomerService} for the WebFlux stack, with the same paging, search and
+ * optimistic locking semantics.
+ * <p>
+ * Reads go straight to the database: the customer cache is blocking, so this service only evicts entries it makes
+ * stale, off the event loop, to keep servlet instances sharing the cache consistent. Writes record their change in the
+ * {@link CustomerChangeLog} outbox in the same R2DBC transaction.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomerService {
+
+    private static final Sort ID_ORDER = Sort.by("id");
+    private static final String INSERT_CHANGE_SQL = """
+            INSERT INTO customer_changes (customer_id, change_type, version, payload, changed_at)
+            VALUES (:customerId, :changeType, :version, :payload, :changedAt)""";
+
+    private final ReactiveCustomerRepository customerRepository;
+    private final R2dbcEntityTemplate template;
+    private final Cache cache;
+    private final CustomerIdFilter customerIdFilter;
+    private final CustomerChangeLog changeLog;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveCustomerService(ReactiveCustomerRepository customerRepository, R2dbcEntityTemplate template,
+                                   CacheManager cacheManager, CustomerIdFilter customerIdFilter, CustomerChangeLog changeLog) {
+        this.customerRepository = customerRepository;
+        this.template = template;
+        this.cache = cacheManager.getCache(CUSTOMERS_CACHE);
+        this.customerIdFilter = customerIdFilter;
+        this.changeLog = changeLog;
+        // The JPA transaction manager is the application's only one; R2DBC transactions are local to this service
+        this.transactionalOperator = TransactionalOperator.create(
+                new R2dbcTransactionManager(template.getDatabaseClient().getConnectionFactory()));
+    }
+
+    public Mono<CustomerPage> getCustomers(String after, int limit) {
+        int pageSize = pageSize(limit);
+        return Mono.fromCallable(() -> CustomerCursor.decode(after))
+                // Fetch one extra row to find out whether another page exists without a count query
+                .flatMapMany(afterId -> customerRepository.findByIdGreaterThan(afterId, PageRequest.of(0, pageSize + 1, ID_ORDER)))
+                .collectList()
+                .map(rows -> toPage(rows, pageSize, CustomerMapper::fromRow));
+    }
+
+    /**
+     * Keyset paginated search with the same predicates as {@link CustomerSpecifications}, so it uses the same indexes.
+     */
+    public Mono<CustomerPage> searchCustomers(CustomerSearchCriteria criteria, String after, int limit) {
+        int pageSize = pageSize(limit);
+        return Mono.fromCallable(() -> CustomerCursor.decode(after))
+                .flatMapMany(afterId -> search(criteria, afterId, pageSize + 1))
+                .collectList()
+                .map(rows -> toPage(rows, pageSize, CustomerMapper::fromRow));
+    }
+
+    /**
+     * Streams every customer in id order. Rows are fetched as the subscriber requests them.
+     */
+    public Flux<Customer> exportCustomers() {
+        return customerRepository.findAll(ID_ORDER).map(CustomerMapper::fromRow);
+    }
+
+    /**
+     * Emits the customer, or completes empty when there is none. Ids the {@link CustomerIdFilter} has never seen
+     * complete empty without a query.
+     */
+    public Mono<Customer> findCustomerById(Long id) {
+        if (!customerIdFilter.mightExist(id)) {
+            return Mono.empty();
+        }
+        return customerRepository.findById(id).map(CustomerMapper::fromRow);
+    }
+
+    public Mono<Customer> createCustomer(Customer customer) {
+        // Client supplied ids and versions are ignored; an id would turn the insert into an update
+        return customerRepository.save(toRow(customer).asNew())
+                .map(CustomerMapper::fromRow)
+                .flatMap(created -> recordChange(CustomerChange.Type.CREATED, created.getId(), created).thenReturn(created))
+                .as(transactionalOperator::transactional)
+                .flatMap(created -> recordCreated(created.getId()).thenReturn(created));
+    }
+
+    /**
+     * Updates a customer with a single UPDATE statement, without reading it first. The outcomes are those of
+     * {@link CustomerService#updateCustomer}, except that without a version the new version is not known.
+     */
+    public Mono<Customer> updateCustomer(Long id, Customer customerDetails) {
+        Long version = customerDetails.getVersion();
+        Instant updatedAt = CustomerEntity.now();
+        OffsetDateTime updatedAtUtc = updatedAt.atOffset(ZoneOffset.UTC);
+        Mono<Integer> updated = version == null
+                ? customerRepository.updateCustomer(id, updatedAtUtc, customerDetails.getFirstName(), customerDetails.getLastName(),
+                        customerDetails.getAddress(), customerDetails.getPhoneNumber(), customerDetails.getDateOfBirth(),
+                        customerDetails.getNationalSecurityNumber())
+                : customerRepository.updateCustomer(id, version, updatedAtUtc, customerDetails.getFirstName(), customerDetails.getLastName(),
+                        customerDetails.getAddress(), customerDetails.getPhoneNumber(), customerDetails.getDateOfBirth(),
+                        customerDetails.getNationalSecurityNumber());
+
+        return updated.flatMap(count -> {
+                    if (count == 0) {
+                        // Only the failure path pays for a second query, to tell a stale version from a missing customer
+                        Mono<Boolean> conflict = version == null ? Mono.just(false) : customerRepository.existsById(id);
+                        return conflict.flatMap(exists -> Mono.<Customer>error(exists
+                                ? new CustomerVersionConflictException()
+                                : new CustomerNotFoundException()));
+                    }
+                    customerDetails.setId(id);
+                    customerDetails.setVersion(version == null ? null : version + 1);
+                    customerDetails.setUpdatedAt(updatedAt);
+                    return recordChange(CustomerChange.Type.UPDATED, id, customerDetails).thenReturn(customerDetails);
+                })
+                .as(transactionalOperator::transactional)
+                .flatMap(customer -> evict(id).thenReturn(customer));
+    }
+
+    public Mono<Void> deleteCustomer(Long id) {
+        return customerRepository.deleteCustomerById(id)
+                .flatMap(count -> count == 0
+                        ? Mono.<Void>error(new CustomerNotFoundException())
+                        : recordChange(CustomerChange.Type.DELETED, id, null))
+                .as(transactionalOperator::transactional)
+                .then(evict(id));
+    }
+
+    private Flux<CustomerRow> search(CustomerSearchCriteria criteria, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM customers WHERE id > :afterId");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("afterId", afterId);
+        if (criteria.name() != null && !criteria.name().isBlank()) {
+            sql.append(" AND (lower(last_name) LIKE :name OR lower(first_name) LIKE :name)");
+            parameters.put("name", CustomerSpecifications.prefixPattern(criteria.name()));
+        }
+        if (criteria.phoneNumber() != null && !criteria.phoneNumber().isBlank()) {
+            sql.append(" AND phone_number = :phoneNumber");
+            parameters.put("phoneNumber", criteria.phoneNumber().trim());
+        }
+        if (criteria.bornFrom() != null) {
+            sql.append(" AND date_of_birth >= :bornFrom");
+            parameters.put("bornFrom", criteria.bornFrom());
+        }
+        if (criteria.bornTo() != null) {
+            sql.append(" AND date_of_birth <= :bornTo");
+            parameters.put("bornTo", criteria.bornTo());
+        }
+        sql.append(" ORDER BY id LIMIT :limit");
+        parameters.put("limit", limit);
+
+        DatabaseClient.GenericExecuteSpec statement = template.getDatabaseClient().sql(sql.toString()).bindValues(parameters);
+        return statement.map((row, metadata) -> template.getConverter().read(CustomerRow.class, row, metadata)).all();
+    }
+
+    private Mono<Void> recordChange(CustomerChange.Type type, Long id, Customer customer) {
+        Instant changedAt = customer == null || customer.getUpdatedAt() == null ? CustomerEntity.now() : customer.getUpdatedAt();
+        DatabaseClient.GenericExecuteSpec statement = template.getDatabaseClient().sql(INSERT_CHANGE_SQL)
+                .bind("customerId", id)
+                .bind("changeType", type.name())
+                .bind("changedAt", changedAt.atOffset(ZoneOffset.UTC));
+        Long version = customer == null ? null : customer.getVersion();
+        statement = version == null ? statement.bindNull("version", Long.class) : statement.bind("version", version);
+        statement = customer == null
+                ? statement.bindNull("payload", String.class)
+                : statement.bind("payload", changeLog.payload(customer));
+        return statement.then();
+    }
+
+    /**
+     * Adds the id to the filter, which may publish it over Redis, and drops any miss the servlet stack cached for it.
+     */
+    private Mono<Void> recordCreated(Long id) {
+        return Mono.fromRunnable(() -> {
+                    customerIdFilter.add(id);
+                    if (cache != null) {
+                        cache.evict(id);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private Mono<Void> evict(Long id) {
+        if (cache == null) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> cache.evict(id)).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.customer.app;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buckets in Redis, shared by every node, so a client is limited to the configured rate overall rather than per node.
+ * A bucket is one key holding the time, in microseconds of the Redis server clock, at which it will be full again;
+ * a script takes the token atomically, with the same arithmetic as {@link LocalRateLimiter}, and lets the key expire
+ * once the bucket is full.
+ * <p>
+ * When Redis cannot be reached the node falls back to its own {@link LocalRateLimiter}, so requests are still
+ * limited, per node, rather than rejected or let through unchecked.
+ */
+public class RedisRateLimiter implements RateLimiter, MeterBinder {
+
+    public static final String KEY_PREFIX = "customer:rate-limit:";
+    public static final String METRIC_PREFIX = "customer.rate.limit";
+
+    // Numbers are formatted explicitly: Lua would print large ones in exponent notation
+    private static final RedisScript<Long> TAKE_TOKEN = RedisScript.of("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local interval = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2])
+            local full_at = tonumber(redis.call('GET', KEYS[1])) or now
+            if full_at < now then
+                full_at = now
+            end
+            local next = full_at + interval
+            local wait = next - now - capacity
+            if wait > 0 then
+                return wait
+            end
+            redis.call('SET', KEYS[1], string.format('%.0f', next), 'PX', math.ceil((next - now) / 1000))
+            return 0""", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimiter fallback;
+    private final String interval;
+    private final String capacity;
+    private final LongAdder fallbacks = new LongAdder();
+
+    public RedisRateLimiter(RedisConnectionFactory connectionFactory, CustomerRateLimitProperties properties) {
+        this(new StringRedisTemplate(connectionFactory), properties, new LocalRateLimiter(properties));
+    }
+
+    RedisRateLimiter(StringRedisTemplate redisTemplate, CustomerRateLimitProperties properties, RateLimiter fallback) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+        long intervalMicros = Math.max(1, (long) (1_000_000L / properties.getRequestsPerSecond()));
+        this.interval = Long.toString(intervalMicros);
+        this.capacity = Long.toString(intervalMicros * Math.max(1, properties.getBurst()));
+    }
+
+    @Override
+    public long tryAcquire(String client) {
+        Long waitMicros;
+        try {
+            waitMicros = redisTemplate.execute(TAKE_TOKEN, List.of(KEY_PREFIX + client), interval, capacity);
+        } catch (DataAccessException ex) {
+            fallbacks.increment();
+            return fallback.tryAcquire(client);
+        }
+        return waitMicros == null || waitMicros <= 0 ? 0 : TimeUnit.MICROSECONDS.toNanos(waitMicros);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_PREFIX + ".fallbacks", fallbacks, LongAdder::sum)
+                .description("Rate limit checks made against the node's own buckets because Redis could not be reached")
+                .register(registry);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.customer.app;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Source of the connections for read-only transactions: the read replicas, taken round robin, as long as at least one
+ * of them is healthy, and the primary otherwise.
+ * <p>
+ * A replica is ejected as soon as handing out one of its connections fails, and by the health check that validates a
+ * connection of every replica each {@code customer.replicas.health-check-interval}. The health check also takes
+ * recovered replicas back. Threads that were {@linkplain #pinToPrimary() pinned} read from the primary, so a client
+ * sees its own writes even while the replicas lag behind.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements MeterBinder, AutoCloseable {
+
+    public static final String METRIC_PREFIX = "customer.replicas";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final int validationTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder ejections = new LongAdder();
+
+    public ReplicaDataSource(DataSource primary, List<? extends DataSource> replicas, Duration validationTimeout) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.toSeconds());
+    }
+
+    /**
+     * Makes read-only transactions on the current thread use the primary until {@link #unpin()}.
+     */
+    public void pinToPrimary() {
+        pinned.set(Boolean.TRUE);
+    }
+
+    public void unpin() {
+        pinned.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (pinned.get() == null && !replicas.isEmpty()) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replicaConnections.increment();
+                    return connection;
+                } catch (SQLException ex) {
+                    // Try the next replica, and the primary after the last one
+                    eject(replica);
+                }
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    @Scheduled(fixedDelayString = "${customer.replicas.health-check-interval:5s}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(validationTimeoutSeconds);
+            } catch (SQLException ex) {
+                healthy = false;
+            }
+            if (healthy) {
+                replica.healthy = true;
+            } else {
+                eject(replica);
+            }
+        }
+    }
+
+    /**
+     * Number of replicas currently taking reads.
+     */
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".healthy", this, ReplicaDataSource::healthyReplicas)
+                .description("Read replicas currently taking reads")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".connections", replicaConnections, LongAdder::sum)
+                .description("Connections handed out for read-only transactions, by where they went")
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".connections", primaryConnections, LongAdder::sum)
+                .description("Connections handed out for read-only transactions, by where they went")
+                .tag("target", "primary")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".ejected", ejections, LongAdder::sum)
+                .description("Times a read replica was taken out of rotation")
+                .register(registry);
+        // The replica pools are not beans, so the actuator does not see them; report them like the primary pool
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof HikariDataSource hikari
+                    && hikari.getMetricRegistry() == null && hikari.getMetricsTrackerFactory() == null) {
+                hikari.setMetricRegistry(registry);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void eject(Replica replica) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            ejections.increment();
+        }
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
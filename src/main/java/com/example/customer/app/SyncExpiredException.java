@@ -0,0 +1,9 @@
+package com.example.customer.app;
+
+public class SyncExpiredException extends RuntimeException {
+
+    public SyncExpiredException() {
+        // Signals an expected outcome rather than a bug, so skip the stack trace
+        super("modifiedSince is older than the change retention", null, false, false);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.customer.app;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A cache with a bounded in-process first tier (L1) in front of a shared remote second tier (L2).
+ * <p>
+ * Reads try L1, then L2, then the loader; values found further down are copied up. Writes and evictions go to both
+ * tiers and are broadcast through the {@link CacheInvalidationChannel} so other nodes drop their L1 copy. Concurrent
+ * misses for the same key are collapsed so only one caller runs the loader.
+ * <p>
+ * A {@code null} value, such as a lookup that found nothing, is cached in both tiers when the remote cache allows
+ * nulls; L1 holds it as {@link NullValue#INSTANCE}, since Caffeine cannot hold {@code null}.
+ */
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+    private final Cache remoteCache;
+    private final CacheInvalidationChannel invalidationChannel;
+    private final boolean allowNullValues;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loadsInFlight = new ConcurrentHashMap<>();
+
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache, Cache remoteCache,
+                        CacheInvalidationChannel invalidationChannel) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationChannel = invalidationChannel;
+        this.allowNullValues = remoteCache instanceof AbstractValueAdaptingCache adapting && adapting.isAllowNullValues();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getLocalCache() {
+        return localCache;
+    }
+
+    public Cache getRemoteCache() {
+        return remoteCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = lookup(key);
+        return value != null ? new SimpleValueWrapper(fromStoreValue(value)) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Object value = fromStoreValue(lookup(key));
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> loadInFlight = loadsInFlight.putIfAbsent(key, load);
+        if (loadInFlight != null) {
+            return (T) await(key, valueLoader, loadInFlight);
+        }
+
+        try {
+            T loaded = valueLoader.call();
+            if (loaded != null || allowNullValues) {
+                remoteCache.put(key, loaded);
+                localCache.put(key, toStoreValue(loaded));
+            }
+            load.complete(loaded);
+            return loaded;
+        } catch (Exception ex) {
+            load.completeExceptionally(ex);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            loadsInFlight.remove(key, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        localCache.put(key, toStoreValue(value));
+        invalidationChannel.publish(name, key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        localCache.invalidate(key);
+        invalidationChannel.publish(name, key);
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        invalidationChannel.publish(name, null);
+    }
+
+    /**
+     * Drops the L1 copy of {@code key} after another node changed it.
+     */
+    public void evictLocal(Object key) {
+        localCache.invalidate(key);
+    }
+
+    /**
+     * Drops every L1 entry after another node cleared the cache.
+     */
+    public void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    /**
+     * The L1 form of the value cached for {@code key}, {@link NullValue#INSTANCE} for a cached {@code null}, or
+     * {@code null} if neither tier has it.
+     */
+    private Object lookup(Object key) {
+        Object value = localCache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (remoteValue == null) {
+            return null;
+        }
+        value = toStoreValue(remoteValue.get());
+        localCache.put(key, value);
+        return value;
+    }
+
+    private static Object toStoreValue(Object value) {
+        return value != null ? value : NullValue.INSTANCE;
+    }
+
+    private static Object fromStoreValue(Object value) {
+        return value == NullValue.INSTANCE ? null : value;
+    }
+
+    private static Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> loadInFlight) {
+        try {
+            return loadInFlight.join();
+        } catch (CompletionException ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+        }
+    }
+}
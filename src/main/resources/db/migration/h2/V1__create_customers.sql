@@ -0,0 +1,13 @@
+-- Customer ids come from a pooled sequence: Hibernate reserves 50 ids per call so inserts can be batched
+CREATE SEQUENCE IF NOT EXISTS customers_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS customers (
+    id                       BIGINT       NOT NULL PRIMARY KEY,
+    first_name               VARCHAR(50)  NOT NULL,
+    last_name                VARCHAR(50)  NOT NULL,
+    address                  VARCHAR(100) NOT NULL,
+    phone_number             VARCHAR(15)  NOT NULL,
+    date_of_birth            DATE         NOT NULL,
+    national_security_number VARCHAR(20)  NOT NULL,
+    version                  BIGINT       DEFAULT 0 NOT NULL
+);
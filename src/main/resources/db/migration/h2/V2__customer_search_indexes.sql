@@ -0,0 +1,6 @@
+-- H2 has no expression indexes, so the case-insensitive name search cannot use these; they keep local plans close
+-- to the Postgres ones for the exact-match filters
+CREATE INDEX IF NOT EXISTS idx_customers_last_name ON customers (last_name);
+CREATE INDEX IF NOT EXISTS idx_customers_first_name ON customers (first_name);
+CREATE INDEX IF NOT EXISTS idx_customers_phone_number ON customers (phone_number);
+CREATE INDEX IF NOT EXISTS idx_customers_date_of_birth ON customers (date_of_birth);
@@ -0,0 +1,7 @@
+-- Lets inserts that do not go through Hibernate (the R2DBC stack) take ids from the same sequence. Each of them uses a
+-- single sequence value, which never falls inside one of Hibernate's pooled blocks
+ALTER TABLE customers ALTER COLUMN id SET DEFAULT NEXT VALUE FOR customers_seq;
+
+-- Move the sequence past its start value: Hibernate treats a first value equal to the start as the beginning of a
+-- block spanning two sequence calls, which another writer could interleave with
+SELECT NEXT VALUE FOR customers_seq;
@@ -0,0 +1,6 @@
+-- Creation and last modification times, set by the application. Existing customers get the time of the migration
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+-- Tombstones for the modifiedSince query, read in (changed_at, customer_id) order
+CREATE INDEX IF NOT EXISTS idx_customer_changes_deleted ON customer_changes (change_type, changed_at, customer_id);
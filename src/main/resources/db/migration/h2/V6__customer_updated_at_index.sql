@@ -0,0 +1,2 @@
+-- Keyset order of the modifiedSince query
+CREATE INDEX IF NOT EXISTS idx_customers_updated_at ON customers (updated_at, id);
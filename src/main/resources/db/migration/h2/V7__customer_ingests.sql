@@ -0,0 +1,6 @@
+-- Customers created from the ingest journal, written in the same transaction as the customer so a replay after a
+-- crash can skip the ones that already exist. Rows are deleted once the journal records the customer as done
+CREATE TABLE IF NOT EXISTS customer_ingests (
+    tracking_id VARCHAR(36) PRIMARY KEY,
+    customer_id BIGINT      NOT NULL
+);
@@ -0,0 +1,23 @@
+-- Written to also apply on databases whose schema was created by hibernate.ddl-auto before Flyway took over
+
+-- Customer ids come from a pooled sequence: Hibernate reserves 50 ids per call so inserts can be batched
+CREATE SEQUENCE IF NOT EXISTS customers_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS customers (
+    id                       BIGINT       NOT NULL PRIMARY KEY,
+    first_name               VARCHAR(50)  NOT NULL,
+    last_name                VARCHAR(50)  NOT NULL,
+    address                  VARCHAR(100) NOT NULL,
+    phone_number             VARCHAR(15)  NOT NULL,
+    date_of_birth            DATE         NOT NULL,
+    national_security_number VARCHAR(20)  NOT NULL,
+    version                  BIGINT       NOT NULL DEFAULT 0
+);
+
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE customers SET version = 0 WHERE version IS NULL;
+ALTER TABLE customers ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE customers ALTER COLUMN version SET NOT NULL;
+
+-- Hibernate treats each sequence value as the top of a block of 50 ids, so start the next block above existing rows
+SELECT setval('customers_seq', (SELECT COALESCE(MAX(id), 0) FROM customers) + 50, false);
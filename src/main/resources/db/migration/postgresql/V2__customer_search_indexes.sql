@@ -0,0 +1,9 @@
+-- Built concurrently so existing tables stay writable; Flyway runs this script outside a transaction
+
+-- Case-insensitive prefix search on either name. text_pattern_ops lets LIKE 'abc%' use the index under any collation,
+-- and the two indexes are combined with a bitmap OR
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_last_name_lower ON customers (lower(last_name) text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_first_name_lower ON customers (lower(first_name) text_pattern_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_phone_number ON customers (phone_number);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_date_of_birth ON customers (date_of_birth);
@@ -0,0 +1,9 @@
+-- Lets inserts that do not go through Hibernate (the R2DBC stack) take ids from the same sequence. Each of them uses a
+-- single sequence value, which never falls inside one of Hibernate's pooled blocks. Schemas created by ddl-auto have an
+-- identity column instead, which cannot take a default
+ALTER TABLE customers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE customers ALTER COLUMN id SET DEFAULT nextval('customers_seq');
+
+-- Move the sequence past its start value: Hibernate treats a first value equal to the start as the beginning of a
+-- block spanning two sequence calls, which another writer could interleave with
+SELECT nextval('customers_seq');
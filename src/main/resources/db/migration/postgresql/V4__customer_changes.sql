@@ -0,0 +1,13 @@
+-- Transactional outbox: one row per customer create, update or delete, written in the same transaction as the change.
+-- The id is the position in the change stream
+CREATE TABLE IF NOT EXISTS customer_changes (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    customer_id BIGINT      NOT NULL,
+    change_type VARCHAR(10) NOT NULL,
+    version     BIGINT,
+    payload     TEXT,
+    changed_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Retention deletes by age
+CREATE INDEX IF NOT EXISTS idx_customer_changes_changed_at ON customer_changes (changed_at);
@@ -0,0 +1,8 @@
+-- Creation and last modification times, set by the application. Existing customers get the time of the migration.
+-- now() is evaluated once, so Postgres 11+ records the default in the catalog instead of rewriting the table
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS created_at TIMESTAMPTZ NOT NULL DEFAULT now();
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+-- Tombstones for the modifiedSince query, read in (changed_at, customer_id) order
+CREATE INDEX IF NOT EXISTS idx_customer_changes_deleted ON customer_changes (changed_at, customer_id)
+    WHERE change_type = 'DELETED';
@@ -0,0 +1,3 @@
+-- Keyset order of the modifiedSince query. Built concurrently so the table stays writable; Flyway runs this script
+-- outside a transaction, which is why it is separate from V5
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_updated_at ON customers (updated_at, id);
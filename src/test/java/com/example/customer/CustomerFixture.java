@@ -14,7 +14,7 @@ public class CustomerFixture {
         customer.setAddress("1234 Elm Street");
         customer.setPhoneNumber("080-322-3344");
         customer.setDateOfBirth(LocalDate.of(1980, 1, 1));
-        customer.setNationalSecurityNumber("123-456-7890");
+        customer.setNationalSecurityNumber("123-45-6789");
         return customer;
     }
 
@@ -25,7 +25,7 @@ public class CustomerFixture {
         customerEntity.setAddress("1234 Elm Street");
         customerEntity.setPhoneNumber("080-322-3344");
         customerEntity.setDateOfBirth(LocalDate.of(1980, 1, 1));
-        customerEntity.setNationalSecurityNumber("123-456-7890");
+        customerEntity.setNationalSecurityNumber("123-45-6789");
         return customerEntity;
     }
 }
@@ -0,0 +1,82 @@
+package com.example.customer.api;
+
+import com.example.customer.api.BulkheadFilter.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadFilterTest {
+
+    private final BulkheadFilter filter = new BulkheadFilter(1, 1, 1);
+
+    @Test
+    void bulkhead_ShouldClassifyCustomerEndpoints() {
+        assertEquals(Bulkhead.SCAN, BulkheadFilter.bulkhead(new MockHttpServletRequest("GET", "/api/customers")));
+        assertEquals(Bulkhead.SCAN, BulkheadFilter.bulkhead(new MockHttpServletRequest("GET", "/api/customers/search")));
+        assertEquals(Bulkhead.SCAN, BulkheadFilter.bulkhead(new MockHttpServletRequest("GET", "/api/customers/export")));
+        assertEquals(Bulkhead.READ, BulkheadFilter.bulkhead(new MockHttpServletRequest("GET", "/api/customers/42")));
+        assertEquals(Bulkhead.READ, BulkheadFilter.bulkhead(new MockHttpServletRequest("HEAD", "/api/customers/42")));
+        assertEquals(Bulkhead.WRITE, BulkheadFilter.bulkhead(new MockHttpServletRequest("POST", "/api/customers")));
+        assertEquals(Bulkhead.WRITE, BulkheadFilter.bulkhead(new MockHttpServletRequest("PUT", "/api/customers/42")));
+        assertEquals(Bulkhead.WRITE, BulkheadFilter.bulkhead(new MockHttpServletRequest("DELETE", "/api/customers/bulk")));
+        assertNull(BulkheadFilter.bulkhead(new MockHttpServletRequest("GET", "/api/customers/changes")));
+        assertNull(BulkheadFilter.bulkhead(new MockHttpServletRequest("OPTIONS", "/api/customers")));
+        assertNull(BulkheadFilter.bulkhead(new MockHttpServletRequest("GET", "/actuator/health")));
+    }
+
+    @Test
+    void doFilter_ShouldRejectAtOnce_WhenBulkheadIsFull() throws Exception {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        // Act: A second scan arrives while the first one holds the only scan permit
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/customers"), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/api/customers/search"), rejected,
+                        new MockFilterChain()));
+
+        // Assert
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, filter.availablePermits(Bulkhead.SCAN));
+        assertEquals(1, registry.get(BulkheadFilter.METRIC_PREFIX + ".rejected").tag("bulkhead", "scan").functionCounter().count());
+    }
+
+    @Test
+    void doFilter_ShouldKeepBulkheadsApart() throws Exception {
+        // Arrange
+        MockHttpServletResponse lookup = new MockHttpServletResponse();
+        MockFilterChain lookupChain = new MockFilterChain();
+
+        // Act: A lookup by id arrives while a scan holds the only scan permit
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/customers"), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/api/customers/1"), lookup,
+                        lookupChain));
+
+        // Assert
+        assertEquals(200, lookup.getStatus());
+        assertNotNull(lookupChain.getRequest());
+        assertEquals(1, filter.availablePermits(Bulkhead.READ));
+    }
+
+    @Test
+    void doFilter_ShouldHoldPermitUntilAsyncCompletes_WhenResponseIsStreamed() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/export");
+        request.setAsyncSupported(true);
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        // Assert
+        assertEquals(0, filter.availablePermits(Bulkhead.SCAN));
+        request.getAsyncContext().complete();
+        assertEquals(1, filter.availablePermits(Bulkhead.SCAN));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.customer.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO);
+
+    @Test
+    void doFilter_ShouldReleasePermit_WhenRequestCompletes() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/customers"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals(1, filter.availablePermits());
+    }
+
+    @Test
+    void doFilter_ShouldReturnServiceUnavailable_WhenLimitReached() throws Exception {
+        // Arrange
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        filter.bindTo(meterRegistry);
+
+        // Act: A second request arrives while the first one still holds the only permit
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/customers"), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/api/customers/1"), rejected,
+                        new MockFilterChain()));
+
+        // Assert
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON_VALUE, rejected.getContentType());
+        assertTrue(rejected.getContentAsString().contains("\"status\":503"));
+        assertEquals(1, filter.availablePermits());
+        assertEquals(1, meterRegistry.get(ConcurrencyLimitFilter.METRIC_PREFIX + ".rejected").functionCounter().count());
+    }
+
+    @Test
+    void doFilter_ShouldHoldPermitUntilAsyncCompletes_WhenResponseIsStreamed() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/export");
+        request.setAsyncSupported(true);
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        // Assert
+        assertEquals(0, filter.availablePermits());
+        request.getAsyncContext().complete();
+        assertEquals(1, filter.availablePermits());
+    }
+
+    @Test
+    void doFilter_ShouldLeavePermitFree_WhenChangeStreamIsOpen() throws Exception {
+        // Arrange
+        MockHttpServletRequest subscription = new MockHttpServletRequest("GET", "/api/customers/changes");
+        subscription.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act: The stream stays open while another request comes in
+        filter.doFilter(subscription, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/customers/1"), response, new MockFilterChain());
+
+        // Assert
+        assertTrue(subscription.isAsyncStarted());
+        assertEquals(200, response.getStatus());
+        assertEquals(1, filter.availablePermits());
+    }
+
+    @Test
+    void doFilter_ShouldIgnoreNonApiRequests() throws Exception {
+        // Arrange
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        assertEquals(1, filter.availablePermits());
+    }
+}
@@ -1,33 +1,84 @@
 package com.example.customer.api;
 
+import com.example.customer.app.CustomerBulkService;
+import com.example.customer.app.CustomerChangeRelay;
+import com.example.customer.app.CustomerImportService;
+import com.example.customer.app.CustomerIngestService;
 import com.example.customer.app.CustomerService;
+import com.example.customer.app.CustomerSyncService;
+import com.example.customer.app.CustomerValidator;
+import com.example.customer.app.CustomerVersionConflictException;
 import com.example.customer.app.CustomerNotFoundException;
+import com.example.customer.app.IngestQueueFullException;
+import com.example.customer.app.InvalidCursorException;
+import com.example.customer.app.SyncExpiredException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static com.example.customer.CustomerFixture.testCustomer;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CustomerController.class)
+@Import(CustomerValidator.class)
 class CustomerControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @MockBean
     private CustomerService customerService;
 
+    @MockBean
+    private CustomerBulkService customerBulkService;
+
+    @MockBean
+    private CustomerImportService customerImportService;
+
+    @MockBean
+    private CustomerIngestService customerIngestService;
+
+    @MockBean
+    private CustomerChangeRelay customerChangeRelay;
+
+    @MockBean
+    private CustomerSyncService customerSyncService;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -35,20 +86,325 @@ class CustomerControllerTest {
     }
 
     @Test
-    void getAllCustomers_ShouldReturnListOfCustomers() throws Exception {
+    void getCustomers_ShouldReturnPageOfCustomers() throws Exception {
         // Arrange
         Customer customer1 = testCustomer("John");
         Customer customer2 = testCustomer("Jane");
-        when(customerService.getAllCustomers()).thenReturn(Arrays.asList(customer1, customer2));
+        when(customerService.getCustomers(null, 2)).thenReturn(new CustomerPage(Arrays.asList(customer1, customer2), "Mg"));
 
         // Act & Assert
         mockMvc.perform(get("/api/customers")
+                        .param("limit", "2")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers[0].firstName").value("John"))
+                .andExpect(jsonPath("$.customers[1].firstName").value("Jane"))
+                .andExpect(jsonPath("$.nextCursor").value("Mg"));
+
+        verify(customerService, times(1)).getCustomers(null, 2);
+    }
+
+    @Test
+    void getCustomers_ShouldUseDefaultLimit_WhenLimitIsNotGiven() throws Exception {
+        // Arrange
+        when(customerService.getCustomers("Mg", CustomerService.DEFAULT_PAGE_SIZE)).thenReturn(new CustomerPage(List.of(), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers")
+                        .param("after", "Mg")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers").isEmpty());
+
+        verify(customerService, times(1)).getCustomers("Mg", CustomerService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Test
+    void getCustomers_ShouldReturnBadRequest_WhenCursorIsInvalid() throws Exception {
+        // Arrange
+        when(customerService.getCustomers(eq("bad"), anyInt())).thenThrow(new InvalidCursorException());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers")
+                        .param("after", "bad")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCustomers_ShouldReturnCbor_WhenCborIsAccepted() throws Exception {
+        // Arrange
+        when(customerService.getCustomers(null, 2)).thenReturn(new CustomerPage(List.of(testCustomer("John")), "Mg"));
+
+        // Act
+        byte[] body = mockMvc.perform(get("/api/customers")
+                        .param("limit", "2")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        CustomerPage page = objectMapper.copyWith(new CBORFactory()).readValue(body, CustomerPage.class);
+        assertEquals("John", page.customers().get(0).getFirstName());
+        assertEquals(LocalDate.of(1980, 1, 1), page.customers().get(0).getDateOfBirth());
+        assertEquals("Mg", page.nextCursor());
+    }
+
+    @Test
+    void getModifiedCustomers_ShouldReturnDelta_WhenModifiedSinceIsGiven() throws Exception {
+        // Arrange
+        Instant since = Instant.parse("2024-01-01T00:00:00Z");
+        Instant watermark = Instant.parse("2024-01-01T00:05:00Z");
+        when(customerSyncService.getModifiedCustomers(since, null, CustomerService.DEFAULT_PAGE_SIZE)).thenReturn(new CustomerDelta(
+                List.of(testCustomer("John")), List.of(new CustomerTombstone(7L, since)), null, watermark));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers")
+                        .param("modifiedSince", "2024-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers[0].firstName").value("John"))
+                .andExpect(jsonPath("$.deleted[0].id").value(7))
+                .andExpect(jsonPath("$.watermark").value("2024-01-01T00:05:00Z"));
+
+        verify(customerService, never()).getCustomers(any(), anyInt());
+    }
+
+    @Test
+    void getModifiedCustomers_ShouldReturnGone_WhenModifiedSinceIsOlderThanRetention() throws Exception {
+        // Arrange
+        when(customerSyncService.getModifiedCustomers(any(), any(), anyInt())).thenThrow(new SyncExpiredException());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers")
+                        .param("modifiedSince", "2000-01-01T00:00:00Z"))
+                .andExpect(status().isGone())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
+    }
+
+    @Test
+    void searchCustomers_ShouldPassFiltersToService() throws Exception {
+        // Arrange
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria("jo", "080-322-3344",
+                LocalDate.of(1970, 1, 1), LocalDate.of(1990, 12, 31));
+        when(customerService.searchCustomers(criteria, null, 10))
+                .thenReturn(new CustomerPage(List.of(testCustomer("John")), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers/search")
+                        .param("name", "jo")
+                        .param("phoneNumber", "080-322-3344")
+                        .param("bornFrom", "1970-01-01")
+                        .param("bornTo", "1990-12-31")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers[0].firstName").value("John"));
+
+        verify(customerService, times(1)).searchCustomers(criteria, null, 10);
+    }
+
+    @Test
+    void getCustomers_ShouldReturnOnlyRequestedFields_WhenFieldsAreGiven() throws Exception {
+        // Arrange
+        Map<String, Object> customer = new LinkedHashMap<>();
+        customer.put("id", 1L);
+        customer.put("firstName", "John");
+        customer.put("lastName", "Doe");
+        when(customerService.getCustomers(EnumSet.of(CustomerField.ID, CustomerField.FIRST_NAME, CustomerField.LAST_NAME), null, 2))
+                .thenReturn(new PartialCustomerPage(List.of(customer), "MQ"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers")
+                        .param("fields", "firstName, lastName")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers[0].id").value(1))
+                .andExpect(jsonPath("$.customers[0].firstName").value("John"))
+                .andExpect(jsonPath("$.customers[0].address").doesNotExist())
+                .andExpect(jsonPath("$.customers[0].nationalSecurityNumber").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("MQ"));
+
+        verify(customerService, never()).getCustomers(any(), anyInt());
+    }
+
+    @Test
+    void getCustomers_ShouldReturnBadRequest_WhenFieldIsUnknown() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/customers")
+                        .param("fields", "firstName,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
+
+        verifyNoInteractions(customerService);
+    }
+
+    @Test
+    void searchCustomers_ShouldReturnOnlyRequestedFields_WhenFieldsAreGiven() throws Exception {
+        // Arrange
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria("jo", null, null, null);
+        when(customerService.searchCustomers(criteria, EnumSet.of(CustomerField.ID, CustomerField.PHONE_NUMBER), null, 10))
+                .thenReturn(new PartialCustomerPage(List.of(Map.of("id", 1L, "phoneNumber", "080-322-3344")), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers/search")
+                        .param("name", "jo")
+                        .param("fields", "phoneNumber")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers[0].phoneNumber").value("080-322-3344"))
+                .andExpect(jsonPath("$.customers[0].firstName").doesNotExist());
+    }
+
+    @Test
+    void exportCustomers_ShouldStreamAllCustomersAsJsonArray() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(0);
+            consumer.accept(testCustomer("John"));
+            consumer.accept(testCustomer("Jane"));
+            return null;
+        }).when(customerService).exportCustomers(any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/customers/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].firstName").value("John"))
                 .andExpect(jsonPath("$[1].firstName").value("Jane"));
 
-        verify(customerService, times(1)).getAllCustomers();
+        verify(customerService, times(1)).exportCustomers(any());
+    }
+
+    @Test
+    void exportCustomers_ShouldStreamSmileArray_WhenSmileIsPreferred() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(0);
+            consumer.accept(testCustomer("John"));
+            consumer.accept(testCustomer("Jane"));
+            return null;
+        }).when(customerService).exportCustomers(any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/customers/export")
+                        .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/x-jackson-smile"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CustomerController.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        Customer[] customers = objectMapper.copyWith(new SmileFactory()).readValue(body, Customer[].class);
+        assertEquals(List.of("John", "Jane"), Arrays.stream(customers).map(Customer::getFirstName).toList());
+    }
+
+    @Test
+    void exportCustomers_ShouldStreamNdjson_WhenNdjsonIsAccepted() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(0);
+            consumer.accept(testCustomer("John"));
+            consumer.accept(testCustomer("Jane"));
+            return null;
+        }).when(customerService).exportCustomers(any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/customers/export")
+                        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("John", objectMapper.readValue(lines[0], Customer.class).getFirstName());
+        assertEquals("Jane", objectMapper.readValue(lines[1], Customer.class).getFirstName());
+    }
+
+    @Test
+    void exportCustomers_ShouldStreamCsvWithHeader_WhenCsvIsAccepted() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(0);
+            Customer customer = testCustomer("John");
+            customer.setId(7L);
+            consumer.accept(customer);
+            return null;
+        }).when(customerService).exportCustomers(any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/customers/export")
+                        .header(HttpHeaders.ACCEPT, "text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CustomerController.TEXT_CSV))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals("id,firstName,lastName,address,phoneNumber,dateOfBirth,nationalSecurityNumber,version,updatedAt", lines[0]);
+        assertTrue(lines[1].startsWith("7,John,Doe,"));
+        assertTrue(lines[1].contains(",1980-01-01,123-45-6789,"));
+    }
+
+    @Test
+    void exportCustomers_ShouldReturnNotAcceptable_WhenNoFormatIsAccepted() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/customers/export")
+                        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML_VALUE))
+                .andExpect(status().isNotAcceptable());
+
+        verify(customerService, never()).exportCustomers(any());
+    }
+
+    @Test
+    void streamChanges_ShouldSendChangesAsServerSentEvents_AfterLastEventId() throws Exception {
+        // Arrange
+        CustomerChange change = new CustomerChange(6L, CustomerChange.Type.DELETED, 1L, null, Instant.parse("2024-01-01T00:00:00Z"), null);
+        when(customerChangeRelay.subscribe(eq(5L), any(), any())).thenAnswer(invocation -> {
+            invocation.<CustomerChangeRelay.ChangeListener>getArgument(1).onChange(change);
+            invocation.<Runnable>getArgument(2).run();
+            return mock(CustomerChangeRelay.Subscription.class);
+        });
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/customers/changes?since=1").header("Last-Event-ID", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("id:6\n")))
+                .andExpect(content().string(containsString("event:customer-change\n")))
+                .andExpect(content().string(containsString("\"type\":\"DELETED\"")));
+    }
+
+    @Test
+    void streamChanges_ShouldStartAtCurrentPosition_WhenNoPositionIsGiven() throws Exception {
+        // Arrange
+        when(customerChangeRelay.position()).thenReturn(9L);
+        when(customerChangeRelay.subscribe(anyLong(), any(), any())).thenReturn(mock(CustomerChangeRelay.Subscription.class));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers/changes"))
+                .andExpect(request().asyncStarted());
+
+        verify(customerChangeRelay, times(1)).subscribe(eq(9L), any(), any());
     }
 
     @Test
@@ -56,7 +412,7 @@ class CustomerControllerTest {
         // Arrange
         Long id = 1L;
         Customer customer = testCustomer("John");
-        when(customerService.getCustomerById(id)).thenReturn(customer);
+        when(customerService.findCustomerById(id)).thenReturn(Optional.of(customer));
 
         // Act & Assert
         mockMvc.perform(get("/api/customers/{id}", id)
@@ -64,21 +420,130 @@ class CustomerControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.firstName").value("John"));
 
-        verify(customerService, times(1)).getCustomerById(id);
+        verify(customerService, times(1)).findCustomerById(id);
     }
 
     @Test
     void getCustomerById_ShouldReturnNotFound_WhenCustomerDoesNotExist() throws Exception {
         // Arrange
         Long id = 1L;
-        when(customerService.getCustomerById(id)).thenThrow(new CustomerNotFoundException());
+        when(customerService.findCustomerById(id)).thenReturn(Optional.empty());
 
         // Act & Assert
         mockMvc.perform(get("/api/customers/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.title").value("Not Found"));
+
+        verify(customerService, times(1)).findCustomerById(id);
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnBadRequest_WhenIdIsNotANumber() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/customers/{id}", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail").value("Invalid value for 'id'"));
+
+        verify(customerService, never()).findCustomerById(any());
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnInternalServerErrorWithoutCause_WhenServiceFails() throws Exception {
+        // Arrange
+        when(customerService.findCustomerById(1L)).thenThrow(new IllegalStateException("jdbc:postgresql://db-1 refused"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers/{id}", 1L))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.detail").value("Internal server error"))
+                .andExpect(content().string(not(containsString("postgresql"))));
+    }
+
+    @Test
+    void getCustomers_ShouldReturnBadRequest_WhenLimitIsNotANumber() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/customers").param("limit", "ten"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Invalid value for 'limit'"));
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnMethodNotAllowed_WhenMethodIsNotSupported() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/customers/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isMethodNotAllowed())
+                .andExpect(header().exists(HttpHeaders.ALLOW))
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
+    }
+
+    @Test
+    void createCustomer_ShouldReturnUnsupportedMediaType_WhenBodyIsNotJson() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("John"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void getCustomers_ShouldReturnNotFound_WhenPathIsUnknown() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/unknown"))
                 .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnETag_WhenCustomerHasVersion() throws Exception {
+        // Arrange
+        Long id = 1L;
+        Customer customer = testCustomer("John");
+        customer.setVersion(3L);
+        when(customerService.findCustomerById(id)).thenReturn(Optional.of(customer));
 
-        verify(customerService, times(1)).getCustomerById(id);
+        // Act & Assert
+        mockMvc.perform(get("/api/customers/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnNotModified_WhenIfNoneMatchMatchesVersion() throws Exception {
+        // Arrange
+        Long id = 1L;
+        Customer customer = testCustomer("John");
+        customer.setVersion(3L);
+        customer.setUpdatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        when(customerService.findCustomerById(id)).thenReturn(Optional.of(customer));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers/{id}", id)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"2\", \"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnCustomer_WhenIfNoneMatchIsStale() throws Exception {
+        // Arrange
+        Long id = 1L;
+        Customer customer = testCustomer("John");
+        customer.setVersion(3L);
+        customer.setUpdatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        when(customerService.findCustomerById(id)).thenReturn(Optional.of(customer));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers/{id}", id)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Mon, 01 Jan 2024 00:00:00 GMT"))
+                .andExpect(jsonPath("$.firstName").value("John"));
     }
 
     @Test
@@ -97,6 +562,87 @@ class CustomerControllerTest {
         verify(customerService, times(1)).createCustomer(any(Customer.class));
     }
 
+    @Test
+    void createCustomer_ShouldReturnBadRequest_WhenBodyIsMalformed() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail").value("Request body is malformed"));
+
+        verify(customerService, never()).createCustomer(any());
+    }
+
+    @Test
+    void createCustomer_ShouldReturnBadRequestWithAllErrors_WhenCustomerIsInvalid() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"J\",\"lastName\":\"Doe\",\"address\":\"1234 Elm Street\",\"phoneNumber\":\"123-456-7890\",\"dateOfBirth\":\"1980-01-01\",\"nationalSecurityNumber\":\"123456789\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.length()").value(2))
+                .andExpect(jsonPath("$.errors[0]").value("firstName: size must be between 2 and 50"))
+                .andExpect(jsonPath("$.errors[1]").value("nationalSecurityNumber: National Security number must be in the format nnn-nn-nnnn"));
+
+        verify(customerService, never()).createCustomer(any());
+    }
+
+    @Test
+    void createCustomer_ShouldQueueCustomer_WhenAsyncResponseIsPreferred() throws Exception {
+        // Arrange
+        when(customerIngestService.submit(any(Customer.class))).thenReturn(IngestStatus.queued("abc"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/customers")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"address\":\"1234 Elm Street\",\"phoneNumber\":\"123-456-7890\",\"dateOfBirth\":\"1980-01-01\",\"nationalSecurityNumber\":\"123-45-6789\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/customers/ingest/abc"))
+                .andExpect(jsonPath("$.trackingId").value("abc"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        verify(customerService, never()).createCustomer(any());
+    }
+
+    @Test
+    void createCustomer_ShouldReturnTooManyRequests_WhenIngestQueueIsFull() throws Exception {
+        // Arrange
+        when(customerIngestService.submit(any(Customer.class))).thenThrow(new IngestQueueFullException());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/customers")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"address\":\"1234 Elm Street\",\"phoneNumber\":\"123-456-7890\",\"dateOfBirth\":\"1980-01-01\",\"nationalSecurityNumber\":\"123-45-6789\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void getIngestStatus_ShouldReturnStatus_WhenTrackingIdIsKnown() throws Exception {
+        // Arrange
+        when(customerIngestService.getStatus("abc")).thenReturn(Optional.of(IngestStatus.created("abc", 7L)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers/ingest/{trackingId}", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CREATED"))
+                .andExpect(jsonPath("$.customerId").value(7));
+    }
+
+    @Test
+    void getIngestStatus_ShouldReturnNotFound_WhenTrackingIdIsUnknown() throws Exception {
+        // Arrange
+        when(customerIngestService.getStatus("abc")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/customers/ingest/{trackingId}", "abc"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void updateCustomer_ShouldReturnUpdatedCustomer_WhenCustomerExists() throws Exception {
         // Arrange
@@ -114,6 +660,61 @@ class CustomerControllerTest {
         verify(customerService, times(1)).updateCustomer(eq(id), any(Customer.class));
     }
 
+    @Test
+    void updateCustomer_ShouldReturnBadRequest_WhenCustomerIsIncomplete() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/api/customers/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"John\",\"lastName\":\"Doe\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("address: must not be null"));
+
+        verify(customerService, never()).updateCustomer(any(), any());
+    }
+
+    @Test
+    void updateCustomer_ShouldPassIfMatchVersion() throws Exception {
+        // Arrange
+        Long id = 1L;
+        Customer customer = testCustomer("John");
+        customer.setVersion(4L);
+        when(customerService.updateCustomer(eq(id), argThat(details -> Long.valueOf(3L).equals(details.getVersion())))).thenReturn(customer);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/customers/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"address\":\"1234 Elm Street\",\"phoneNumber\":\"123-456-7890\",\"dateOfBirth\":\"1980-01-01\",\"nationalSecurityNumber\":\"123-45-6789\",\"version\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnPreconditionFailed_WhenVersionIsStale() throws Exception {
+        // Arrange
+        Long id = 1L;
+        when(customerService.updateCustomer(eq(id), any(Customer.class))).thenThrow(new CustomerVersionConflictException());
+
+        // Act & Assert
+        mockMvc.perform(put("/api/customers/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"address\":\"1234 Elm Street\",\"phoneNumber\":\"123-456-7890\",\"dateOfBirth\":\"1980-01-01\",\"nationalSecurityNumber\":\"123-45-6789\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnPreconditionFailed_WhenIfMatchIsNotAVersion() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/api/customers/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"address\":\"1234 Elm Street\",\"phoneNumber\":\"123-456-7890\",\"dateOfBirth\":\"1980-01-01\",\"nationalSecurityNumber\":\"123-45-6789\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(customerService, never()).updateCustomer(any(), any());
+    }
+
     @Test
     void updateCustomer_ShouldReturnNotFound_WhenCustomerDoesNotExist() throws Exception {
         // Arrange
@@ -156,5 +757,146 @@ class CustomerControllerTest {
 
         verify(customerService, times(1)).deleteCustomer(id);
     }
-}
 
+    @Test
+    void createCustomers_ShouldReadJsonArray() throws Exception {
+        // Arrange
+        List<String> firstNames = new ArrayList<>();
+        when(customerBulkService.createCustomers(any())).thenAnswer(invocation -> {
+            Iterator<Customer> customers = invocation.getArgument(0);
+            customers.forEachRemaining(customer -> firstNames.add(customer.getFirstName()));
+            return BulkResult.of(new ArrayList<>(List.of(
+                    new BulkItemResult(0, 1L, BulkItemResult.Status.CREATED, List.of()),
+                    new BulkItemResult(1, null, BulkItemResult.Status.INVALID, List.of("lastName: Last Name cannot be blank")))));
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/api/customers/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"firstName\":\"John\",\"lastName\":\"Doe\"},{\"firstName\":\"Jane\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[1].errors[0]").value("lastName: Last Name cannot be blank"));
+
+        assertEquals(List.of("John", "Jane"), firstNames);
+    }
+
+    @Test
+    void createCustomers_ShouldReadNdjson() throws Exception {
+        // Arrange
+        List<String> firstNames = new ArrayList<>();
+        when(customerBulkService.createCustomers(any())).thenAnswer(invocation -> {
+            Iterator<Customer> customers = invocation.getArgument(0);
+            customers.forEachRemaining(customer -> firstNames.add(customer.getFirstName()));
+            return BulkResult.of(new ArrayList<>());
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/api/customers/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"firstName\":\"John\"}\n{\"firstName\":\"Jane\"}\n"))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of("John", "Jane"), firstNames);
+    }
+
+    @Test
+    void createCustomers_ShouldReturnBadRequest_WhenBodyIsMalformed() throws Exception {
+        // Arrange
+        when(customerBulkService.createCustomers(any())).thenAnswer(invocation -> {
+            Iterator<Customer> customers = invocation.getArgument(0);
+            customers.forEachRemaining(customer -> { });
+            return BulkResult.of(new ArrayList<>());
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/api/customers/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"firstName\":"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importCustomers_ShouldReadCsvColumnsByHeader() throws Exception {
+        // Arrange
+        List<Customer> imported = new ArrayList<>();
+        when(customerImportService.importCustomers(any())).thenAnswer(invocation -> {
+            Iterator<Customer> customers = invocation.getArgument(0);
+            customers.forEachRemaining(imported::add);
+            return new ImportResult(1, 1, List.of(
+                    new BulkItemResult(1, null, BulkItemResult.Status.INVALID, List.of("lastName: Last Name cannot be blank"))));
+        });
+
+        // Act & Assert: Columns may come in any order, and empty ones are read as missing
+        mockMvc.perform(post("/api/customers/import")
+                        .contentType("text/csv")
+                        .content("lastName,firstName,dateOfBirth,address\nDoe,John,1980-01-01,\"1 Elm Street, Springfield\"\n,Jane,,\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].index").value(1));
+
+        assertEquals(2, imported.size());
+        assertEquals("John", imported.get(0).getFirstName());
+        assertEquals("Doe", imported.get(0).getLastName());
+        assertEquals(LocalDate.of(1980, 1, 1), imported.get(0).getDateOfBirth());
+        assertEquals("1 Elm Street, Springfield", imported.get(0).getAddress());
+        assertNull(imported.get(1).getLastName());
+        assertNull(imported.get(1).getDateOfBirth());
+    }
+
+    @Test
+    void importCustomers_ShouldReadNdjson() throws Exception {
+        // Arrange
+        List<String> firstNames = new ArrayList<>();
+        when(customerImportService.importCustomers(any())).thenAnswer(invocation -> {
+            Iterator<Customer> customers = invocation.getArgument(0);
+            customers.forEachRemaining(customer -> firstNames.add(customer.getFirstName()));
+            return new ImportResult(2, 0, List.of());
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/api/customers/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"firstName\":\"John\"}\n{\"firstName\":\"Jane\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        assertEquals(List.of("John", "Jane"), firstNames);
+    }
+
+    @Test
+    void importCustomers_ShouldReturnBadRequest_WhenCsvRowHasTooManyColumns() throws Exception {
+        // Arrange
+        when(customerImportService.importCustomers(any())).thenAnswer(invocation -> {
+            Iterator<Customer> customers = invocation.getArgument(0);
+            customers.forEachRemaining(customer -> { });
+            return new ImportResult(0, 0, List.of());
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/api/customers/import")
+                        .contentType("text/csv")
+                        .content("firstName,lastName\nJohn,Doe,extra\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteCustomers_ShouldDeleteGivenIds() throws Exception {
+        // Arrange
+        when(customerBulkService.deleteCustomers(List.of(1L, 2L))).thenReturn(BulkResult.of(new ArrayList<>(List.of(
+                new BulkItemResult(0, 1L, BulkItemResult.Status.DELETED, List.of()),
+                new BulkItemResult(1, 2L, BulkItemResult.Status.NOT_FOUND, List.of())))));
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/customers/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[1].status").value("NOT_FOUND"));
+
+        verify(customerBulkService, times(1)).deleteCustomers(List.of(1L, 2L));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.customer.api;
+
+import com.example.customer.app.CustomerRateLimitProperties;
+import com.example.customer.app.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitFilterTest {
+
+    private final RateLimiter rateLimiter = mock(RateLimiter.class);
+    private final RateLimitFilter filter = new RateLimitFilter(rateLimiter, new CustomerRateLimitProperties());
+
+    @Test
+    void doFilter_ShouldPassRequest_WhenClientHasTokens() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers");
+        request.addHeader("X-API-Key", "abc");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        verify(rateLimiter, times(1)).tryAcquire("key:abc");
+    }
+
+    @Test
+    void doFilter_ShouldLimitByRemoteAddress_WhenThereIsNoApiKey() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/1");
+        request.setRemoteAddr("10.0.0.7");
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        verify(rateLimiter, times(1)).tryAcquire("ip:10.0.0.7");
+    }
+
+    @Test
+    void doFilter_ShouldReturnTooManyRequests_WhenClientIsOverItsLimit() throws Exception {
+        // Arrange
+        when(rateLimiter.tryAcquire(any())).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/customers"), response, chain);
+
+        // Assert: Retry-After is rounded up to whole seconds
+        assertNull(chain.getRequest());
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON_VALUE, response.getContentType());
+        assertEquals(1, registry.get(RateLimitFilter.METRIC_NAME).functionCounter().count());
+    }
+
+    @Test
+    void doFilter_ShouldIgnoreNonApiRequests() throws Exception {
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        // Assert
+        verifyNoInteractions(rateLimiter);
+    }
+}
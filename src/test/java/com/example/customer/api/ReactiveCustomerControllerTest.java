@@ -0,0 +1,349 @@
+package com.example.customer.api;
+
+import com.example.customer.app.CustomerNotFoundException;
+import com.example.customer.app.CustomerService;
+import com.example.customer.app.CustomerValidator;
+import com.example.customer.app.CustomerVersionConflictException;
+import com.example.customer.app.InvalidCursorException;
+import com.example.customer.app.ReactiveCustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the {@link CustomerControllerTest} scenarios against the WebFlux implementation.
+ */
+@WebFluxTest(ReactiveCustomerController.class)
+@Import(CustomerValidator.class)
+class ReactiveCustomerControllerTest {
+
+    private static final String CUSTOMER_JSON = "{\"firstName\":\"John\",\"lastName\":\"Doe\",\"address\":\"1234 Elm Street\",\"phoneNumber\":\"123-456-7890\",\"dateOfBirth\":\"1980-01-01\",\"nationalSecurityNumber\":\"123-45-6789\"}";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveCustomerService customerService;
+
+    @Test
+    void getCustomers_ShouldReturnPageOfCustomers() {
+        // Arrange
+        Customer customer1 = testCustomer("John");
+        Customer customer2 = testCustomer("Jane");
+        when(customerService.getCustomers(null, 2)).thenReturn(Mono.just(new CustomerPage(Arrays.asList(customer1, customer2), "Mg")));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/customers?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.customers[0].firstName").isEqualTo("John")
+                .jsonPath("$.customers[1].firstName").isEqualTo("Jane")
+                .jsonPath("$.nextCursor").isEqualTo("Mg");
+
+        verify(customerService, times(1)).getCustomers(null, 2);
+    }
+
+    @Test
+    void getCustomers_ShouldUseDefaultLimit_WhenLimitIsNotGiven() {
+        // Arrange
+        when(customerService.getCustomers("Mg", CustomerService.DEFAULT_PAGE_SIZE)).thenReturn(Mono.just(new CustomerPage(List.of(), null)));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/customers?after=Mg")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.customers").isEmpty();
+
+        verify(customerService, times(1)).getCustomers("Mg", CustomerService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Test
+    void getCustomers_ShouldReturnBadRequest_WhenCursorIsInvalid() {
+        // Arrange
+        when(customerService.getCustomers(eq("bad"), anyInt())).thenReturn(Mono.error(new InvalidCursorException()));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/customers?after=bad")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void searchCustomers_ShouldPassFiltersToService() {
+        // Arrange
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria("jo", "080-322-3344",
+                LocalDate.of(1970, 1, 1), LocalDate.of(1990, 12, 31));
+        when(customerService.searchCustomers(criteria, null, 10))
+                .thenReturn(Mono.just(new CustomerPage(List.of(testCustomer("John")), null)));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/customers/search?name=jo&phoneNumber=080-322-3344&bornFrom=1970-01-01&bornTo=1990-12-31&limit=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.customers[0].firstName").isEqualTo("John");
+
+        verify(customerService, times(1)).searchCustomers(criteria, null, 10);
+    }
+
+    @Test
+    void exportCustomers_ShouldStreamAllCustomersAsJsonArray() {
+        // Arrange
+        when(customerService.exportCustomers()).thenReturn(Flux.just(testCustomer("John"), testCustomer("Jane")));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/customers/export")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$[0].firstName").isEqualTo("John")
+                .jsonPath("$[1].firstName").isEqualTo("Jane");
+    }
+
+    @Test
+    void exportCustomers_ShouldStreamNdjson_WhenRequested() {
+        // Arrange
+        when(customerService.exportCustomers()).thenReturn(Flux.just(testCustomer("John"), testCustomer("Jane")));
+
+        // Act
+        Flux<Customer> body = webTestClient.get().uri("/api/customers/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .returnResult(Customer.class)
+                .getResponseBody();
+
+        // Assert
+        StepVerifier.create(body.map(Customer::getFirstName))
+                .expectNext("John", "Jane")
+                .verifyComplete();
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnCustomer_WhenCustomerExists() {
+        // Arrange
+        Long id = 1L;
+        when(customerService.findCustomerById(id)).thenReturn(Mono.just(testCustomer("John")));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/customers/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("John");
+
+        verify(customerService, times(1)).findCustomerById(id);
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnNotFound_WhenCustomerDoesNotExist() {
+        // Arrange
+        Long id = 1L;
+        when(customerService.findCustomerById(id)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        webTestClient.get().uri("/api/customers/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404);
+
+        verify(customerService, times(1)).findCustomerById(id);
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnETag_WhenCustomerHasVersion() {
+        // Arrange
+        Long id = 1L;
+        Customer customer = testCustomer("John");
+        customer.setVersion(3L);
+        when(customerService.findCustomerById(id)).thenReturn(Mono.just(customer));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/customers/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnNotModified_WhenIfNoneMatchMatchesVersion() {
+        // Arrange
+        Long id = 1L;
+        Customer customer = testCustomer("John");
+        customer.setVersion(3L);
+        customer.setUpdatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        when(customerService.findCustomerById(id)).thenReturn(Mono.just(customer));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/customers/{id}", id)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void createCustomer_ShouldReturnCreatedCustomer() {
+        // Arrange
+        when(customerService.createCustomer(any(Customer.class))).thenReturn(Mono.just(testCustomer("John")));
+
+        // Act & Assert
+        webTestClient.post().uri("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CUSTOMER_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("John");
+
+        verify(customerService, times(1)).createCustomer(any(Customer.class));
+    }
+
+    @Test
+    void createCustomer_ShouldReturnBadRequest_WhenCustomerIsInvalid() {
+        // Act & Assert
+        webTestClient.post().uri("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CUSTOMER_JSON.replace("123-45-6789", "123456789"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0]").isEqualTo("nationalSecurityNumber: National Security number must be in the format nnn-nn-nnnn");
+
+        verify(customerService, never()).createCustomer(any());
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnUpdatedCustomer_WhenCustomerExists() {
+        // Arrange
+        Long id = 1L;
+        when(customerService.updateCustomer(eq(id), any(Customer.class))).thenReturn(Mono.just(testCustomer("John")));
+
+        // Act & Assert
+        webTestClient.put().uri("/api/customers/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CUSTOMER_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("John");
+
+        verify(customerService, times(1)).updateCustomer(eq(id), any(Customer.class));
+    }
+
+    @Test
+    void updateCustomer_ShouldPassIfMatchVersion() {
+        // Arrange
+        Long id = 1L;
+        Customer customer = testCustomer("John");
+        customer.setVersion(4L);
+        when(customerService.updateCustomer(eq(id), argThat(details -> Long.valueOf(3L).equals(details.getVersion())))).thenReturn(Mono.just(customer));
+
+        // Act & Assert
+        webTestClient.put().uri("/api/customers/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"address\":\"1234 Elm Street\",\"phoneNumber\":\"123-456-7890\",\"dateOfBirth\":\"1980-01-01\",\"nationalSecurityNumber\":\"123-45-6789\",\"version\":1}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"");
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnPreconditionFailed_WhenVersionIsStale() {
+        // Arrange
+        Long id = 1L;
+        when(customerService.updateCustomer(eq(id), any(Customer.class))).thenReturn(Mono.error(new CustomerVersionConflictException()));
+
+        // Act & Assert
+        webTestClient.put().uri("/api/customers/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CUSTOMER_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnPreconditionFailed_WhenIfMatchIsNotAVersion() {
+        // Act & Assert
+        webTestClient.put().uri("/api/customers/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CUSTOMER_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        verify(customerService, never()).updateCustomer(any(), any());
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnNotFound_WhenCustomerDoesNotExist() {
+        // Arrange
+        Long id = 1L;
+        when(customerService.updateCustomer(eq(id), any(Customer.class))).thenReturn(Mono.error(new CustomerNotFoundException()));
+
+        // Act & Assert
+        webTestClient.put().uri("/api/customers/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CUSTOMER_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        verify(customerService, times(1)).updateCustomer(eq(id), any(Customer.class));
+    }
+
+    @Test
+    void deleteCustomer_ShouldReturnOk_WhenCustomerExists() {
+        // Arrange
+        Long id = 1L;
+        when(customerService.deleteCustomer(id)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        webTestClient.delete().uri("/api/customers/{id}", id)
+                .exchange()
+                .expectStatus().isOk();
+
+        verify(customerService, times(1)).deleteCustomer(id);
+    }
+
+    @Test
+    void deleteCustomer_ShouldReturnNotFound_WhenCustomerDoesNotExist() {
+        // Arrange
+        Long id = 1L;
+        when(customerService.deleteCustomer(id)).thenReturn(Mono.error(new CustomerNotFoundException()));
+
+        // Act & Assert
+        webTestClient.delete().uri("/api/customers/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        verify(customerService, times(1)).deleteCustomer(id);
+    }
+}
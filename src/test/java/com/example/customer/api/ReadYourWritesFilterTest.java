@@ -0,0 +1,71 @@
+package com.example.customer.api;
+
+import com.example.customer.app.ReplicaDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReadYourWritesFilterTest {
+
+    private final ReplicaDataSource replicaDataSource = mock(ReplicaDataSource.class);
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(replicaDataSource, Duration.ofSeconds(5));
+
+    @Test
+    void doFilter_ShouldPinWriteToPrimary_AndSetCookie() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/customers/1"), response, chain);
+
+        // Assert
+        InOrder inOrder = inOrder(replicaDataSource, chain);
+        inOrder.verify(replicaDataSource).pinToPrimary();
+        inOrder.verify(chain).doFilter(any(), any());
+        inOrder.verify(replicaDataSource).unpin();
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(cookie);
+        assertEquals(5, cookie.getMaxAge());
+        assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+    }
+
+    @Test
+    void doFilter_ShouldPinRead_WhenClientWroteRecently() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() + 5000)));
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+        // Assert
+        verify(replicaDataSource, times(1)).pinToPrimary();
+        verify(replicaDataSource, times(1)).unpin();
+    }
+
+    @Test
+    void doFilter_ShouldNotPinRead_WhenCookieIsMissingOrExpired() throws Exception {
+        // Arrange
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/customers");
+        expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/customers"), response, mock(FilterChain.class));
+        filter.doFilter(expired, new MockHttpServletResponse(), mock(FilterChain.class));
+
+        // Assert
+        verifyNoInteractions(replicaDataSource);
+        assertNull(response.getCookie(ReadYourWritesFilter.COOKIE));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.customer.api;
+
+import com.example.customer.app.StatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementMetricsInterceptorTest {
+
+    private final StatementCounter statementCounter = new StatementCounter();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StatementMetricsInterceptor interceptor = new StatementMetricsInterceptor(statementCounter, meterRegistry);
+
+    @Test
+    void afterCompletion_ShouldRecordStatementsOfRequestThread() {
+        // Arrange
+        MockHttpServletRequest request = request("/api/customers/{id}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        statementCounter.inspect("select 1");
+        statementCounter.inspect("select 2");
+
+        // Act
+        interceptor.afterCompletion(request, response, null, null);
+
+        // Assert
+        DistributionSummary statements = meterRegistry.get(StatementMetricsInterceptor.METRIC_NAME)
+                .tag("uri", "/api/customers/{id}").summary();
+        assertEquals(1, statements.count());
+        assertEquals(2, statements.totalAmount());
+    }
+
+    @Test
+    void afterCompletion_ShouldNotRecord_WhenRequestWasAsynchronous() {
+        // Arrange: The export streams on another thread and completes on an async dispatch
+        MockHttpServletRequest request = request("/api/customers/export");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, null);
+
+        // Act
+        interceptor.afterCompletion(request, response, null, null);
+
+        // Assert
+        assertNull(meterRegistry.find(StatementMetricsInterceptor.METRIC_NAME).summary());
+        assertEquals(0, statementCounter.stop());
+    }
+
+    private static MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+}
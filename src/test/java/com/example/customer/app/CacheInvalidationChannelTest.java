@@ -0,0 +1,59 @@
+package com.example.customer.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationChannelTest {
+
+    private CacheInvalidationChannel invalidationChannel;
+    private TwoTierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        invalidationChannel = new CacheInvalidationChannel(mock(RedisConnectionFactory.class));
+        cache = mock(TwoTierCache.class);
+        when(cache.getName()).thenReturn(CUSTOMERS_CACHE);
+        invalidationChannel.register(cache);
+    }
+
+    @Test
+    void onMessage_ShouldEvictLocalEntry_WhenAnotherNodeChangedIt() {
+        // Act
+        invalidationChannel.onMessage(message(new CacheInvalidationChannel.Invalidation("other-node", CUSTOMERS_CACHE, 1L)), null);
+
+        // Assert
+        verify(cache, times(1)).evictLocal(1L);
+    }
+
+    @Test
+    void onMessage_ShouldClearLocalTier_WhenAnotherNodeClearedIt() {
+        // Act
+        invalidationChannel.onMessage(message(new CacheInvalidationChannel.Invalidation("other-node", CUSTOMERS_CACHE, null)), null);
+
+        // Assert
+        verify(cache, times(1)).clearLocal();
+    }
+
+    @Test
+    void onMessage_ShouldIgnoreOwnInvalidations() {
+        // Act
+        invalidationChannel.onMessage(message(new CacheInvalidationChannel.Invalidation(invalidationChannel.getNodeId(), CUSTOMERS_CACHE, 1L)), null);
+
+        // Assert
+        verify(cache, never()).evictLocal(any());
+    }
+
+    private static Message message(CacheInvalidationChannel.Invalidation invalidation) {
+        byte[] body = new JdkSerializationRedisSerializer().serialize(invalidation);
+        return new DefaultMessage(CacheInvalidationChannel.CHANNEL.getBytes(StandardCharsets.UTF_8), body);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.customer.app;
+
+import com.example.customer.api.BulkItemResult.Status;
+import com.example.customer.api.BulkResult;
+import com.example.customer.api.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class CustomerBulkServiceTest {
+
+    private CustomerRepository customerRepository;
+    private Cache customerCache;
+    private CustomerIdFilter customerIdFilter;
+    private CustomerChangeLog changeLog;
+    private CustomerBulkService customerBulkService;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository = mock(CustomerRepository.class);
+        customerCache = mock(Cache.class);
+        customerIdFilter = mock(CustomerIdFilter.class);
+        changeLog = mock(CustomerChangeLog.class);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache(CUSTOMERS_CACHE)).thenReturn(customerCache);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        customerBulkService = new CustomerBulkService(customerRepository, transactionTemplate, new CustomerValidator(), cacheManager,
+                customerIdFilter, changeLog, 2);
+    }
+
+    @Test
+    void createCustomers_ShouldSaveValidCustomersInChunks() {
+        // Arrange
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<CustomerEntity> entities = invocation.getArgument(0);
+            entities.forEach(entity -> entity.setId((long) entity.getFirstName().length()));
+            return entities;
+        });
+        List<Customer> customers = List.of(testCustomer("Al"), testCustomer("Bob"), testCustomer("Carl"));
+
+        // Act
+        BulkResult result = customerBulkService.createCustomers(customers.iterator());
+
+        // Assert
+        assertEquals(3, result.succeeded());
+        assertEquals(0, result.failed());
+        assertEquals(List.of(2L, 3L, 4L), result.items().stream().map(item -> item.id()).toList());
+        verify(customerRepository, times(2)).saveAll(anyList());
+        verify(customerIdFilter).addAll(List.of(2L, 3L));
+        verify(customerIdFilter).addAll(List.of(4L));
+        verify(changeLog, times(2)).created(anyList());
+    }
+
+    @Test
+    void createCustomers_ShouldReportInvalidCustomersWithoutSavingThem() {
+        // Arrange
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Customer invalid = testCustomer("John");
+        invalid.setLastName("");
+        List<Customer> customers = new ArrayList<>(List.of(testCustomer("John"), invalid));
+
+        // Act
+        BulkResult result = customerBulkService.createCustomers(customers.iterator());
+
+        // Assert
+        assertEquals(1, result.succeeded());
+        assertEquals(Status.CREATED, result.items().get(0).status());
+        assertEquals(Status.INVALID, result.items().get(1).status());
+        assertTrue(result.items().get(1).errors().contains("lastName: Last Name cannot be blank"));
+    }
+
+    @Test
+    void createCustomers_ShouldReportFailedChunk_WhenSaveFails() {
+        // Arrange
+        when(customerRepository.saveAll(anyList())).thenThrow(new IllegalStateException("boom"));
+
+        // Act
+        BulkResult result = customerBulkService.createCustomers(List.of(testCustomer("John")).iterator());
+
+        // Assert
+        assertEquals(1, result.failed());
+        assertEquals(Status.FAILED, result.items().get(0).status());
+        assertEquals(List.of("boom"), result.items().get(0).errors());
+    }
+
+    @Test
+    void updateCustomers_ShouldUpdateExistingAndReportMissingCustomers() {
+        // Arrange
+        CustomerEntity existing = new CustomerEntity();
+        existing.setId(1L);
+        when(customerRepository.findAllById(anyList())).thenReturn(List.of(existing));
+        Customer found = testCustomer("John");
+        found.setId(1L);
+        Customer missing = testCustomer("Jane");
+        missing.setId(2L);
+
+        // Act
+        BulkResult result = customerBulkService.updateCustomers(List.of(found, missing).iterator());
+
+        // Assert
+        assertEquals(Status.UPDATED, result.items().get(0).status());
+        assertEquals(Status.NOT_FOUND, result.items().get(1).status());
+        assertEquals("John", existing.getFirstName());
+        verify(customerCache, times(1)).evict(1L);
+        verify(customerCache, never()).evict(2L);
+        verify(customerRepository, times(1)).flush();
+        verify(changeLog, times(1)).updated(argThat(customers ->
+                customers.size() == 1 && customers.iterator().next().getId().equals(1L)));
+    }
+
+    @Test
+    void updateCustomers_ShouldRejectCustomersWithoutId() {
+        // Act
+        BulkResult result = customerBulkService.updateCustomers(List.of(testCustomer("John")).iterator());
+
+        // Assert
+        assertEquals(Status.INVALID, result.items().get(0).status());
+        verify(customerRepository, never()).findAllById(anyList());
+    }
+
+    @Test
+    void deleteCustomers_ShouldDeleteExistingAndReportMissingIds() {
+        // Arrange
+        when(customerRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L));
+        when(customerRepository.findExistingIds(List.of(3L))).thenReturn(List.of(3L));
+
+        // Act
+        BulkResult result = customerBulkService.deleteCustomers(List.of(1L, 2L, 3L));
+
+        // Assert
+        assertEquals(List.of(Status.DELETED, Status.NOT_FOUND, Status.DELETED),
+                result.items().stream().map(item -> item.status()).toList());
+        verify(customerRepository, times(2)).deleteAllByIdInBatch(any());
+        verify(customerCache, times(1)).evict(1L);
+        verify(customerCache, times(1)).evict(3L);
+        verify(changeLog, times(1)).deleted(Set.of(1L));
+        verify(changeLog, times(1)).deleted(Set.of(3L));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerCacheConfigTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void valueSerializer_ShouldRoundTripCustomer_ForEverySerialization() {
+        for (CustomerCacheProperties.Serialization serialization : CustomerCacheProperties.Serialization.values()) {
+            // Arrange
+            Customer customer = testCustomer("John");
+            customer.setId(12345L);
+            @SuppressWarnings("unchecked")
+            RedisSerializer<Object> serializer = (RedisSerializer<Object>) CustomerCacheConfig.valueSerializer(serialization, objectMapper);
+
+            // Act
+            Customer copy = (Customer) serializer.deserialize(serializer.serialize(customer));
+
+            // Assert
+            assertNotNull(copy, serialization.name());
+            assertEquals(12345L, copy.getId());
+            assertEquals("John", copy.getFirstName());
+            assertEquals(customer.getDateOfBirth(), copy.getDateOfBirth());
+        }
+    }
+
+    @Test
+    void customerCacheConfiguration_ShouldUseConfiguredTtl() {
+        // Arrange
+        CustomerCacheProperties properties = new CustomerCacheProperties();
+        properties.setTtl(Duration.ofSeconds(30));
+        properties.setNegativeTtl(Duration.ofSeconds(5));
+
+        // Act
+        RedisCacheConfiguration configuration = CustomerCacheConfig.customerCacheConfiguration(properties, objectMapper);
+
+        // Assert: Misses are cached for the shorter negative TTL
+        assertEquals(Duration.ofSeconds(30), configuration.getTtlFunction().getTimeToLive(12345L, testCustomer("John")));
+        assertEquals(Duration.ofSeconds(5), configuration.getTtlFunction().getTimeToLive(12345L, null));
+        assertTrue(configuration.getAllowCacheNullValues());
+    }
+
+    @Test
+    void estimateSize_ShouldGrowWithCustomerContent() {
+        // Arrange
+        Customer shortCustomer = testCustomer("Al");
+        Customer longCustomer = testCustomer("Maximilian-Alexander");
+
+        // Act & Assert
+        assertTrue(CustomerCacheConfig.estimateSize(1L, longCustomer) > CustomerCacheConfig.estimateSize(1L, shortCustomer));
+        assertTrue(CustomerCacheConfig.estimateSize(1L, shortCustomer) > 0);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.customer.app;
+
+import com.example.customer.api.CustomerChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CustomerChangeRelayTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final List<CustomerChange> outbox = new CopyOnWriteArrayList<>();
+    private CustomerChangeLog changeLog;
+    private Clock clock;
+    private CustomerChangeProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        changeLog = mock(CustomerChangeLog.class);
+        when(changeLog.findAfter(anyLong(), anyInt())).thenAnswer(invocation -> {
+            long position = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return outbox.stream().filter(change -> change.position() > position).limit(limit).toList();
+        });
+        clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(NOW);
+        properties = new CustomerChangeProperties();
+        properties.setBatchSize(2);
+        properties.setGapTimeout(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void poll_ShouldPublishChangesInPositionOrder() throws InterruptedException {
+        // Arrange
+        CustomerChangeRelay relay = new CustomerChangeRelay(changeLog, properties, clock);
+        BlockingQueue<CustomerChange> received = new LinkedBlockingQueue<>();
+        relay.subscribe(0, received::add, () -> { });
+        outbox.addAll(List.of(change(1), change(2), change(3)));
+
+        // Act
+        relay.poll();
+
+        // Assert: Three changes take two full batches and one partial one
+        assertEquals(3, relay.position());
+        assertEquals(List.of(1L, 2L, 3L), take(received, 3));
+    }
+
+    @Test
+    void poll_ShouldWaitForMissingPosition_UntilGapTimeout() throws InterruptedException {
+        // Arrange: Position 2 is taken by a transaction that has not committed yet
+        CustomerChangeRelay relay = new CustomerChangeRelay(changeLog, properties, clock);
+        BlockingQueue<CustomerChange> received = new LinkedBlockingQueue<>();
+        relay.subscribe(0, received::add, () -> { });
+        outbox.addAll(List.of(change(1), change(3)));
+
+        // Act
+        relay.poll();
+        relay.poll();
+
+        // Assert
+        assertEquals(1, relay.position());
+        assertEquals(List.of(1L), take(received, 1));
+
+        // Act: The transaction never commits
+        when(clock.instant()).thenReturn(NOW.plusSeconds(10));
+        relay.poll();
+
+        // Assert
+        assertEquals(3, relay.position());
+        assertEquals(List.of(3L), take(received, 1));
+    }
+
+    @Test
+    void poll_ShouldPublishLateChange_WhenItCommitsWithinGapTimeout() throws InterruptedException {
+        // Arrange
+        CustomerChangeRelay relay = new CustomerChangeRelay(changeLog, properties, clock);
+        BlockingQueue<CustomerChange> received = new LinkedBlockingQueue<>();
+        relay.subscribe(0, received::add, () -> { });
+        outbox.addAll(List.of(change(1), change(3)));
+        relay.poll();
+
+        // Act
+        outbox.add(1, change(2));
+        when(clock.instant()).thenReturn(NOW.plusSeconds(5));
+        relay.poll();
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), take(received, 3));
+    }
+
+    @Test
+    void subscribe_ShouldCatchUpFromOutbox_ThenFollowLiveChanges() throws InterruptedException {
+        // Arrange: Changes 1 to 3 were published before the subscriber connected
+        outbox.addAll(List.of(change(1), change(2), change(3)));
+        when(changeLog.lastPosition()).thenReturn(3L);
+        CustomerChangeRelay relay = new CustomerChangeRelay(changeLog, properties, clock);
+        BlockingQueue<CustomerChange> received = new LinkedBlockingQueue<>();
+
+        // Act
+        relay.subscribe(1, received::add, () -> { });
+        outbox.add(change(4));
+        relay.poll();
+
+        // Assert
+        assertEquals(List.of(2L, 3L, 4L), take(received, 3));
+    }
+
+    @Test
+    void subscribe_ShouldDisconnectSubscriber_WhenItsBufferOverflows() throws InterruptedException {
+        // Arrange: The listener blocks on the first change, so the rest pile up in its buffer
+        properties.setSubscriberBuffer(1);
+        CustomerChangeRelay relay = new CustomerChangeRelay(changeLog, properties, clock);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        CustomerChangeRelay.Subscription subscription = relay.subscribe(0, change -> {
+            blocked.countDown();
+            Thread.sleep(Long.MAX_VALUE);
+        }, closed::countDown);
+        outbox.add(change(1));
+        relay.poll();
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        // Act
+        outbox.addAll(List.of(change(2), change(3)));
+        relay.poll();
+
+        // Assert
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertFalse(subscription.isActive());
+    }
+
+    @Test
+    void cancel_ShouldStopDeliveryWithoutRunningOnClose() throws InterruptedException {
+        // Arrange
+        CustomerChangeRelay relay = new CustomerChangeRelay(changeLog, properties, clock);
+        Runnable onClose = mock(Runnable.class);
+        CustomerChangeRelay.Subscription subscription = relay.subscribe(0, change -> { }, onClose);
+
+        // Act
+        subscription.cancel();
+
+        // Assert
+        assertFalse(subscription.isActive());
+        Thread.sleep(100);
+        verify(onClose, never()).run();
+    }
+
+    @Test
+    void purge_ShouldDeleteChangesOlderThanRetention() {
+        // Arrange
+        properties.setRetention(Duration.ofDays(7));
+        CustomerChangeRelay relay = new CustomerChangeRelay(changeLog, properties, clock);
+
+        // Act
+        relay.purge();
+
+        // Assert
+        verify(changeLog, times(1)).purgeBefore(NOW.minus(Duration.ofDays(7)));
+    }
+
+    private static CustomerChange change(long position) {
+        return new CustomerChange(position, CustomerChange.Type.DELETED, position, null, NOW, null);
+    }
+
+    private static List<Long> take(BlockingQueue<CustomerChange> received, int count) throws InterruptedException {
+        Long[] positions = new Long[count];
+        for (int i = 0; i < count; i++) {
+            CustomerChange change = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change, "Expected " + count + " changes, got " + i);
+            positions[i] = change.position();
+        }
+        return List.of(positions);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.customer.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerCursorTest {
+
+    @Test
+    void decode_ShouldReturnEncodedId() {
+        // Arrange
+        String cursor = CustomerCursor.encode(12345L);
+
+        // Act & Assert
+        assertEquals(12345L, CustomerCursor.decode(cursor));
+    }
+
+    @Test
+    void decode_ShouldStartFromBeginning_WhenCursorIsMissing() {
+        assertEquals(0L, CustomerCursor.decode(null));
+        assertEquals(0L, CustomerCursor.decode(""));
+    }
+
+    @Test
+    void decode_ShouldThrowException_WhenCursorIsInvalid() {
+        assertThrows(InvalidCursorException.class, () -> CustomerCursor.decode("not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> CustomerCursor.decode(CustomerCursor.encode(1L) + "x"));
+    }
+
+    @Test
+    void encode_ShouldReturnNull_WhenIdIsNull() {
+        assertNull(CustomerCursor.encode(null));
+    }
+
+    @Test
+    void decodePosition_ShouldReturnEncodedTimeAndId() {
+        // Arrange
+        Instant changedAt = Instant.parse("2024-01-01T10:15:30.123456Z");
+        String cursor = CustomerCursor.encode(changedAt, 42L);
+
+        // Act
+        CustomerCursor.Position position = CustomerCursor.decodePosition(cursor);
+
+        // Assert
+        assertEquals(new CustomerCursor.Position(changedAt, 42L), position);
+    }
+
+    @Test
+    void decodePosition_ShouldThrowException_WhenCursorIsInvalid() {
+        assertThrows(InvalidCursorException.class, () -> CustomerCursor.decodePosition("not a cursor"));
+        // A plain id cursor is not a position
+        assertThrows(InvalidCursorException.class, () -> CustomerCursor.decodePosition(CustomerCursor.encode(1L)));
+        String overflowing = Base64.getUrlEncoder().encodeToString("99999999999999999999:1".getBytes(StandardCharsets.UTF_8));
+        assertThrows(InvalidCursorException.class, () -> CustomerCursor.decodePosition(overflowing));
+    }
+}
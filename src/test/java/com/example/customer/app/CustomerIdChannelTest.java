@@ -0,0 +1,59 @@
+package com.example.customer.app;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CustomerIdChannelTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RedisConnectionFactory connectionFactory;
+    private CustomerIdChannel idChannel;
+    private CustomerIdFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = mock(RedisConnectionFactory.class);
+        idChannel = new CustomerIdChannel(connectionFactory);
+        idChannel.bindTo(meterRegistry);
+        filter = mock(CustomerIdFilter.class);
+        idChannel.register(filter);
+    }
+
+    @Test
+    void publish_ShouldCountFailure_WhenRedisIsUnreachable() {
+        // Arrange
+        when(connectionFactory.getConnection()).thenThrow(new RedisConnectionFailureException("down"));
+
+        // Act
+        assertDoesNotThrow(() -> idChannel.publish(1L));
+        assertDoesNotThrow(() -> idChannel.publish(List.of(2L, 3L)));
+
+        // Assert
+        assertEquals(2, meterRegistry.get(CustomerIdFilter.METRIC_PREFIX + ".publish.failures").functionCounter().count());
+    }
+
+    @Test
+    void onMessage_ShouldAddIdsCreatedOnAnotherNode() {
+        // Act
+        idChannel.onMessage(message("other-node:4,5"), null);
+
+        // Assert
+        verify(filter).addLocal(4L);
+        verify(filter).addLocal(5L);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CustomerIdChannel.CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
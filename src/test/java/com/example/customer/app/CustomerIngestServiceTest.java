@@ -0,0 +1,340 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.IngestStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.Cache;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class CustomerIngestServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @TempDir
+    Path directory;
+
+    private CustomerRepository customerRepository;
+    private TransactionTemplate transactionTemplate;
+    private Cache customerCache;
+    private CustomerIdFilter customerIdFilter;
+    private CustomerChangeLog changeLog;
+    private CustomerIngestProperties properties;
+    private CustomerIngestService customerIngestService;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository = mock(CustomerRepository.class);
+        customerCache = mock(Cache.class);
+        customerIdFilter = mock(CustomerIdFilter.class);
+        changeLog = mock(CustomerChangeLog.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<CustomerEntity> entities = invocation.getArgument(0);
+            entities.forEach(entity -> entity.setId((long) entity.getFirstName().length()));
+            return entities;
+        });
+        properties = new CustomerIngestProperties();
+        properties.setCapacity(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (customerIngestService != null) {
+            customerIngestService.stop();
+        }
+    }
+
+    @Test
+    void submit_ShouldCreateCustomerInBackground() throws Exception {
+        // Arrange
+        customerIngestService = newService(null);
+        customerIngestService.start();
+
+        // Act
+        IngestStatus queued = customerIngestService.submit(testCustomer("Bob"));
+
+        // Assert
+        assertEquals(IngestStatus.Status.QUEUED, queued.status());
+        IngestStatus status = awaitDone(queued.trackingId());
+        assertEquals(IngestStatus.Status.CREATED, status.status());
+        assertEquals(3L, status.customerId());
+        verify(customerIdFilter).addAll(List.of(3L));
+        verify(customerCache).evict(3L);
+    }
+
+    @Test
+    void submit_ShouldKeepDraining_WhenIdFilterFails() throws Exception {
+        // Arrange
+        doThrow(new IllegalStateException("redis down")).doNothing().when(customerIdFilter).addAll(anyList());
+        Path path = directory.resolve("ingest.journal");
+        customerIngestService = newService(new IngestJournal(path, false, objectMapper));
+        customerIngestService.start();
+
+        // Act
+        IngestStatus first = awaitDone(customerIngestService.submit(testCustomer("Al")).trackingId());
+        IngestStatus second = awaitDone(customerIngestService.submit(testCustomer("Bob")).trackingId());
+
+        // Assert: Both are created and neither is left in the journal
+        assertEquals(IngestStatus.Status.CREATED, first.status());
+        assertEquals(IngestStatus.Status.CREATED, second.status());
+        verify(customerIdFilter, times(2)).addAll(anyList());
+        customerIngestService.stop();
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            assertTrue(journal.pending().isEmpty());
+        }
+    }
+
+    @Test
+    void submit_ShouldRejectCustomer_WhenQueueIsFull() throws Exception {
+        // Arrange: Hold the writer inside its first batch
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+        customerIngestService = newService(null);
+        customerIngestService.start();
+        customerIngestService.submit(testCustomer("Al"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // Act: Capacity 2 holds two more
+        customerIngestService.submit(testCustomer("Bob"));
+        customerIngestService.submit(testCustomer("Carl"));
+
+        // Assert
+        try {
+            assertThrows(IngestQueueFullException.class, () -> customerIngestService.submit(testCustomer("Dave")));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void submit_ShouldRejectCustomer_WhenItBreaksColumnRules() {
+        // Arrange
+        customerIngestService = newService(null);
+        customerIngestService.start();
+        Customer customer = testCustomer("John");
+        customer.setPhoneNumber("0123456789012345678");
+
+        // Act & Assert
+        InvalidCustomerException ex = assertThrows(InvalidCustomerException.class, () -> customerIngestService.submit(customer));
+        assertTrue(ex.getErrors().get(0).startsWith("phoneNumber"));
+    }
+
+    @Test
+    void submit_ShouldFailOnlyTheBadCustomer_WhenBatchInsertFails() throws Exception {
+        // Arrange
+        when(customerRepository.saveAll(anyList())).thenThrow(new IllegalStateException("batch failed"));
+        when(customerRepository.save(any(CustomerEntity.class))).thenAnswer(invocation -> {
+            CustomerEntity entity = invocation.getArgument(0);
+            if (entity.getFirstName().equals("Bad")) {
+                throw new IllegalStateException("row failed");
+            }
+            entity.setId(9L);
+            return entity;
+        });
+        customerIngestService = newService(null);
+        customerIngestService.start();
+
+        // Act
+        String bad = customerIngestService.submit(testCustomer("Bad")).trackingId();
+        String good = customerIngestService.submit(testCustomer("Good")).trackingId();
+
+        // Assert
+        assertEquals(IngestStatus.Status.FAILED, awaitDone(bad).status());
+        assertEquals("row failed", awaitDone(bad).error());
+        assertEquals(IngestStatus.Status.CREATED, awaitDone(good).status());
+    }
+
+    @Test
+    void submit_ShouldKeepCustomerQueued_WhenDatabaseIsUnreachable() throws Exception {
+        // Arrange: The first attempt cannot get a connection
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        when(customerRepository.saveAll(anyList()))
+                .thenThrow(new CannotCreateTransactionException("pool timeout"))
+                .thenAnswer(invocation -> {
+                    List<CustomerEntity> entities = invocation.getArgument(0);
+                    entities.forEach(entity -> entity.setId(3L));
+                    return entities;
+                });
+        customerIngestService = newService(null);
+        customerIngestService.start();
+
+        // Act
+        IngestStatus queued = customerIngestService.submit(testCustomer("Bob"));
+
+        // Assert: Tried again as a batch, not failed row by row
+        assertEquals(IngestStatus.created(queued.trackingId(), 3L), awaitDone(queued.trackingId()));
+        verify(customerRepository, times(2)).saveAll(anyList());
+        verify(customerRepository, never()).save(any(CustomerEntity.class));
+    }
+
+    @Test
+    void start_ShouldTryRemainingRowsAgain_WhenDatabaseGoesAwayDuringRowByRowRetry() throws Exception {
+        // Arrange: The batch fails for a bad row, and the connection drops once the good row before it is created
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        Path path = directory.resolve("ingest.journal");
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            journal.accepted("a", testCustomer("Al"));
+            journal.accepted("b", testCustomer("Bad"));
+        }
+        when(customerRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("batch failed"));
+        when(customerRepository.save(any(CustomerEntity.class)))
+                .thenAnswer(invocation -> {
+                    CustomerEntity entity = invocation.getArgument(0);
+                    entity.setId(1L);
+                    return entity;
+                })
+                .thenThrow(new DataAccessResourceFailureException("connection reset"))
+                .thenThrow(new DataIntegrityViolationException("row failed"));
+        customerIngestService = newService(new IngestJournal(path, false, objectMapper));
+
+        // Act
+        customerIngestService.start();
+
+        // Assert: The bad row is only failed once the database answers for it
+        assertEquals(IngestStatus.created("a", 1L), customerIngestService.getStatus("a").orElseThrow());
+        IngestStatus bad = awaitDone("b");
+        assertEquals(IngestStatus.Status.FAILED, bad.status());
+        assertEquals("row failed", bad.error());
+        verify(customerRepository, times(3)).save(any(CustomerEntity.class));
+    }
+
+    @Test
+    void start_ShouldLeaveCustomersInJournal_UntilDatabaseIsBack() throws Exception {
+        // Arrange: A previous run accepted a customer, and the database is away on the first attempt to create it
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        Path path = directory.resolve("ingest.journal");
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            journal.accepted("a", testCustomer("Al"));
+        }
+        when(customerRepository.saveAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database restarting"))
+                .thenAnswer(invocation -> {
+                    List<CustomerEntity> entities = invocation.getArgument(0);
+                    entities.forEach(entity -> entity.setId(2L));
+                    return entities;
+                });
+        customerIngestService = newService(new IngestJournal(path, false, objectMapper));
+
+        // Act
+        customerIngestService.start();
+
+        // Assert
+        assertEquals(IngestStatus.created("a", 2L), awaitDone("a"));
+        customerIngestService.stop();
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            assertTrue(journal.pending().isEmpty());
+        }
+    }
+
+    @Test
+    void start_ShouldCreateCustomersLeftInJournal() throws Exception {
+        // Arrange: A previous run accepted two customers and created one of them
+        Path path = directory.resolve("ingest.journal");
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            journal.accepted("a", testCustomer("Al"));
+            journal.accepted("b", testCustomer("Bob"));
+            journal.done(List.of("a"));
+        }
+        customerIngestService = newService(new IngestJournal(path, false, objectMapper));
+
+        // Act
+        customerIngestService.start();
+
+        // Assert
+        assertEquals(IngestStatus.created("b", 3L), customerIngestService.getStatus("b").orElseThrow());
+        assertTrue(customerIngestService.getStatus("a").isEmpty());
+        verify(customerRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void start_ShouldSkipCustomersAlreadyCreated_WhenJournalMissedTheirCommit() throws Exception {
+        // Arrange: A previous run created both customers but crashed before the journal marked them done
+        Path path = directory.resolve("ingest.journal");
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            journal.accepted("a", testCustomer("Al"));
+            journal.accepted("b", testCustomer("Bob"));
+        }
+        IngestLedger ledger = mock(IngestLedger.class);
+        when(ledger.all()).thenReturn(Map.of("a", 2L, "b", 3L));
+        customerIngestService = newService(new IngestJournal(path, false, objectMapper), ledger);
+
+        // Act
+        customerIngestService.start();
+
+        // Assert
+        assertEquals(IngestStatus.created("a", 2L), customerIngestService.getStatus("a").orElseThrow());
+        assertEquals(IngestStatus.created("b", 3L), customerIngestService.getStatus("b").orElseThrow());
+        verify(customerRepository, never()).saveAll(anyList());
+        verify(customerIdFilter).addAll(List.of(2L, 3L));
+        verify(ledger).forget(List.of("a", "b"));
+        customerIngestService.stop();
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            assertTrue(journal.pending().isEmpty());
+        }
+    }
+
+    @Test
+    void submit_ShouldRecordCustomerInLedger_WhenJournalIsEnabled() throws Exception {
+        // Arrange
+        IngestLedger ledger = mock(IngestLedger.class);
+        when(ledger.all()).thenReturn(Map.of());
+        customerIngestService = newService(new IngestJournal(directory.resolve("ingest.journal"), false, objectMapper), ledger);
+        customerIngestService.start();
+
+        // Act
+        IngestStatus queued = customerIngestService.submit(testCustomer("Bob"));
+
+        // Assert
+        IngestStatus status = awaitDone(queued.trackingId());
+        verify(ledger).created(List.of(status));
+        verify(ledger, timeout(5000)).forget(List.of(queued.trackingId()));
+    }
+
+    private CustomerIngestService newService(IngestJournal journal) {
+        return newService(journal, null);
+    }
+
+    private CustomerIngestService newService(IngestJournal journal, IngestLedger ledger) {
+        return new CustomerIngestService(customerRepository, transactionTemplate,
+                new CustomerValidator(), customerCache, customerIdFilter, changeLog, journal, ledger, properties);
+    }
+
+    private IngestStatus awaitDone(String trackingId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        IngestStatus status = customerIngestService.getStatus(trackingId).orElseThrow();
+        while (status.status() == IngestStatus.Status.QUEUED && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = customerIngestService.getStatus(trackingId).orElseThrow();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.MultiIdentifierLoadAccess;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class CustomerLookupBatcherTest {
+
+    private static final Set<Long> EXISTING_IDS = Set.of(1L, 2L, 3L);
+
+    private CustomerRepository customerRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private MultiIdentifierLoadAccess<CustomerEntity> loadAccess;
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        customerRepository = mock(CustomerRepository.class);
+        entityManager = mock(EntityManager.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        Session session = mock(Session.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        loadAccess = mock(MultiIdentifierLoadAccess.class);
+        when(session.byMultipleIds(CustomerEntity.class)).thenReturn(loadAccess);
+        when(loadAccess.withBatchSize(anyInt())).thenReturn(loadAccess);
+        when(loadAccess.multiLoad(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            List<CustomerEntity> entities = new ArrayList<>();
+            ids.forEach(id -> entities.add(EXISTING_IDS.contains(id) ? entity(id) : null));
+            return entities;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void findById_ShouldQueryRepository_WhenDisabled() {
+        // Arrange
+        CustomerLookupBatcher batcher = batcher(false, Duration.ofSeconds(10), 100);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(entity(1L)));
+
+        // Act
+        Optional<Customer> customer = batcher.findById(1L);
+
+        // Assert
+        assertEquals(1L, customer.orElseThrow().getId());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void findById_ShouldLoadBatchAtOnce_WhenLookupsFillIt() throws Exception {
+        // Arrange
+        CustomerLookupBatcher batcher = batcher(true, Duration.ofSeconds(10), 3);
+
+        // Act
+        List<Future<Optional<Customer>>> lookups = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            long lookedUp = id;
+            lookups.add(executor.submit(() -> batcher.findById(lookedUp)));
+        }
+
+        // Assert
+        for (int i = 0; i < lookups.size(); i++) {
+            assertEquals(i + 1L, lookups.get(i).get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        }
+        verify(loadAccess, times(1)).multiLoad(anyList());
+        DistributionSummary batchSizes = meterRegistry.get(CustomerLookupBatcher.METRIC_PREFIX + ".batch.size").summary();
+        assertEquals(1, batchSizes.count());
+        assertEquals(3, batchSizes.max());
+    }
+
+    @Test
+    void findById_ShouldLoadIdOnce_WhenItIsLookedUpConcurrently() throws Exception {
+        // Arrange
+        CustomerLookupBatcher batcher = batcher(true, Duration.ofSeconds(10), 2);
+        Future<Optional<Customer>> first = executor.submit(() -> batcher.findById(1L));
+        Future<Optional<Customer>> second = executor.submit(() -> batcher.findById(1L));
+        while (meterRegistry.get(CustomerLookupBatcher.METRIC_PREFIX + ".joined").functionCounter().count() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        Optional<Customer> other = batcher.findById(4L);
+
+        // Assert
+        assertTrue(other.isEmpty());
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        assertEquals(1L, second.get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        verify(loadAccess, times(1)).multiLoad(List.of(1L, 4L));
+    }
+
+    @Test
+    void findById_ShouldLoadBatch_WhenWindowEnds() {
+        // Arrange
+        CustomerLookupBatcher batcher = batcher(true, Duration.ofMillis(1), 100);
+
+        // Act
+        Optional<Customer> customer = batcher.findById(2L);
+
+        // Assert
+        assertEquals(2L, customer.orElseThrow().getId());
+        verify(loadAccess, times(1)).multiLoad(List.of(2L));
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void findById_ShouldThrow_WhenQueryFails() {
+        // Arrange
+        CustomerLookupBatcher batcher = batcher(true, Duration.ofMillis(1), 100);
+        when(loadAccess.multiLoad(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class, () -> batcher.findById(1L));
+    }
+
+    @Test
+    void findById_ShouldFailEveryLookupInBatch_WhenLoadThrowsError() throws Exception {
+        // Arrange
+        CustomerLookupBatcher batcher = batcher(true, Duration.ofSeconds(10), 2);
+        when(loadAccess.multiLoad(anyList())).thenThrow(new NoClassDefFoundError("org/hibernate/Missing"));
+
+        // Act
+        Future<Optional<Customer>> first = executor.submit(() -> batcher.findById(1L));
+        Future<Optional<Customer>> second = executor.submit(() -> batcher.findById(2L));
+
+        // Assert: Neither caller is left waiting
+        assertInstanceOf(NoClassDefFoundError.class,
+                assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS)).getCause());
+        assertInstanceOf(NoClassDefFoundError.class,
+                assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS)).getCause());
+    }
+
+    @Test
+    void findById_ShouldFailEveryLookupInBatch_WhenResultsCannotBeHandedOut() throws Exception {
+        // Arrange: The query answers with fewer entities than ids
+        CustomerLookupBatcher batcher = batcher(true, Duration.ofSeconds(10), 2);
+        when(loadAccess.multiLoad(anyList())).thenReturn(new ArrayList<>(List.of(entity(1L))));
+
+        // Act
+        Future<Optional<Customer>> first = executor.submit(() -> batcher.findById(1L));
+        Future<Optional<Customer>> second = executor.submit(() -> batcher.findById(2L));
+
+        // Assert: Whichever lookup came first gets its customer, and the other fails instead of hanging
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<Optional<Customer>> lookup : List.of(first, second)) {
+            try {
+                lookup.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException ex) {
+                failures.add(ex.getCause());
+            }
+        }
+        assertEquals(1, failures.size());
+        assertInstanceOf(IndexOutOfBoundsException.class, failures.get(0));
+    }
+
+    private CustomerLookupBatcher batcher(boolean enabled, Duration window, int maxBatchSize) {
+        CustomerLookupBatcher batcher = new CustomerLookupBatcher(customerRepository, entityManager, transactionTemplate,
+                enabled, window, maxBatchSize);
+        batcher.bindTo(meterRegistry);
+        return batcher;
+    }
+
+    private static CustomerEntity entity(Long id) {
+        CustomerEntity entity = new CustomerEntity();
+        entity.setId(id);
+        return entity;
+    }
+}
@@ -78,4 +78,62 @@ class CustomerMapperTest {
         // Assert
         assertNull(customer);
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateEntity_ShouldCopyFieldsAndKeepId() {
+        // Arrange
+        Customer customer = new Customer();
+        customer.setId(999L);
+        customer.setFirstName("Jane");
+        customer.setLastName("Smith");
+        customer.setAddress("5678 Oak Avenue");
+        customer.setPhoneNumber("987-654-3210");
+        customer.setDateOfBirth(LocalDate.of(1990, 2, 2));
+        customer.setNationalSecurityNumber("987-65-4321");
+        CustomerEntity customerEntity = new CustomerEntity();
+        customerEntity.setId(12345L);
+
+        // Act
+        CustomerMapper.updateEntity(customer, customerEntity);
+
+        // Assert
+        assertEquals(12345L, customerEntity.getId());
+        assertEquals("Jane", customerEntity.getFirstName());
+        assertEquals("Smith", customerEntity.getLastName());
+        assertEquals("5678 Oak Avenue", customerEntity.getAddress());
+        assertEquals("987-654-3210", customerEntity.getPhoneNumber());
+        assertEquals(LocalDate.of(1990, 2, 2), customerEntity.getDateOfBirth());
+        assertEquals("987-65-4321", customerEntity.getNationalSecurityNumber());
+    }
+
+    @Test
+    void toRowAndFromRow_ShouldRoundTripAllFields() {
+        // Arrange
+        Customer customer = new Customer();
+        customer.setId(12345L);
+        customer.setFirstName("John");
+        customer.setLastName("Doe");
+        customer.setAddress("1234 Elm Street");
+        customer.setPhoneNumber("123-456-7890");
+        customer.setDateOfBirth(LocalDate.of(1980, 1, 1));
+        customer.setNationalSecurityNumber("123-45-6789");
+        customer.setVersion(3L);
+
+        // Act
+        CustomerRow customerRow = CustomerMapper.toRow(customer);
+        Customer mapped = CustomerMapper.fromRow(customerRow);
+
+        // Assert
+        assertEquals(12345L, customerRow.id());
+        assertEquals("1234 Elm Street", customerRow.address());
+        assertEquals(3L, customerRow.version());
+        assertEquals("John", mapped.getFirstName());
+        assertEquals("Doe", mapped.getLastName());
+        assertEquals("123-456-7890", mapped.getPhoneNumber());
+        assertEquals(LocalDate.of(1980, 1, 1), mapped.getDateOfBirth());
+        assertEquals("123-45-6789", mapped.getNationalSecurityNumber());
+        assertEquals(3L, mapped.getVersion());
+        assertNull(CustomerMapper.toRow(null));
+        assertNull(CustomerMapper.fromRow(null));
+    }
+}
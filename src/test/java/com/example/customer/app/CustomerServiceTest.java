@@ -1,15 +1,27 @@
 package com.example.customer.app;
 
 import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerPage;
+import com.example.customer.api.CustomerSearchCriteria;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -20,54 +32,142 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache entityCache;
+
+    @Mock
+    private CustomerIdFilter customerIdFilter;
+
+    @Mock
+    private CustomerChangeLog changeLog;
+
+    @Mock
+    private CustomerLookupBatcher lookupBatcher;
+
     @InjectMocks
     private CustomerService customerService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(customerIdFilter.mightExist(any())).thenReturn(true);
+        when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+        when(entityManagerFactory.getCache()).thenReturn(entityCache);
+    }
+
+    @Test
+    void getCustomers_ShouldReturnPageWithNextCursor_WhenMoreCustomersExist() {
+        // Arrange
+        when(customerRepository.findCustomersAfter(0L, Limit.of(3)))
+                .thenReturn(Arrays.asList(customer(1L), customer(2L), customer(3L)));
+
+        // Act
+        CustomerPage page = customerService.getCustomers(null, 2);
+
+        // Assert
+        assertEquals(2, page.customers().size());
+        assertEquals(2L, page.customers().get(1).getId());
+        assertEquals(CustomerCursor.encode(2L), page.nextCursor());
     }
 
     @Test
-    void getAllCustomers_ShouldReturnListOfCustomers() {
+    void getCustomers_ShouldReturnLastPageWithoutCursor() {
         // Arrange
-        CustomerEntity entity1 = new CustomerEntity();
-        CustomerEntity entity2 = new CustomerEntity();
-        when(customerRepository.findAll()).thenReturn(Arrays.asList(entity1, entity2));
+        when(customerRepository.findCustomersAfter(2L, Limit.of(3)))
+                .thenReturn(List.of(customer(3L)));
 
         // Act
-        List<Customer> customers = customerService.getAllCustomers();
+        CustomerPage page = customerService.getCustomers(CustomerCursor.encode(2L), 2);
 
         // Assert
-        assertNotNull(customers);
-        assertEquals(2, customers.size());
-        verify(customerRepository, times(1)).findAll();
+        assertEquals(1, page.customers().size());
+        assertNull(page.nextCursor());
     }
 
     @Test
-    void getCustomerById_ShouldReturnCustomer_WhenCustomerExists() {
+    void getCustomers_ShouldCapPageSize() {
+        // Arrange
+        when(customerRepository.findCustomersAfter(0L, Limit.of(CustomerService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        // Act
+        CustomerPage page = customerService.getCustomers(null, Integer.MAX_VALUE);
+
+        // Assert
+        assertTrue(page.customers().isEmpty());
+        verify(customerRepository, times(1)).findCustomersAfter(0L, Limit.of(CustomerService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchCustomers_ShouldReturnPageOfMatches() {
+        // Arrange
+        when(customerRepository.findCustomers(any(Specification.class), eq(2))).thenReturn(Arrays.asList(customer(4L), customer(7L)));
+
+        // Act
+        CustomerPage page = customerService.searchCustomers(new CustomerSearchCriteria("jo", null, null, null), null, 1);
+
+        // Assert
+        assertEquals(1, page.customers().size());
+        assertEquals(CustomerCursor.encode(4L), page.nextCursor());
+    }
+
+    @Test
+    void exportCustomers_ShouldStreamEveryCustomer() {
+        // Arrange
+        Customer customer1 = customer(1L);
+        Customer customer2 = customer(2L);
+        when(customerRepository.streamAll()).thenReturn(Stream.of(customer1, customer2));
+        List<Customer> exported = new ArrayList<>();
+
+        // Act
+        customerService.exportCustomers(exported::add);
+
+        // Assert: Passed on as read, without entities to detach
+        assertEquals(List.of(customer1, customer2), exported);
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void findCustomerById_ShouldReturnCustomer_WhenCustomerExists() {
         // Arrange
         Long id = 1L;
-        CustomerEntity entity = new CustomerEntity();
-        when(customerRepository.findById(id)).thenReturn(Optional.of(entity));
+        when(lookupBatcher.findById(id)).thenReturn(Optional.of(customer(id)));
 
         // Act
-        Customer customer = customerService.getCustomerById(id);
+        Optional<Customer> customer = customerService.findCustomerById(id);
 
         // Assert
-        assertNotNull(customer);
-        verify(customerRepository, times(1)).findById(id);
+        assertTrue(customer.isPresent());
+        verify(lookupBatcher, times(1)).findById(id);
+    }
+
+    @Test
+    void findCustomerById_ShouldNotQuery_WhenIdFilterRulesItOut() {
+        // Arrange
+        Long id = 1L;
+        when(customerIdFilter.mightExist(id)).thenReturn(false);
+
+        // Act & Assert
+        assertTrue(customerService.findCustomerById(id).isEmpty());
+        verify(lookupBatcher, never()).findById(any());
     }
 
     @Test
-    void getCustomerById_ShouldThrowException_WhenCustomerDoesNotExist() {
+    void findCustomerById_ShouldReturnEmpty_WhenCustomerDoesNotExist() {
         // Arrange
         Long id = 1L;
-        when(customerRepository.findById(id)).thenReturn(Optional.empty());
+        when(lookupBatcher.findById(id)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(CustomerNotFoundException.class, () -> customerService.getCustomerById(id));
-        verify(customerRepository, times(1)).findById(id);
+        assertTrue(customerService.findCustomerById(id).isEmpty());
+        verify(lookupBatcher, times(1)).findById(id);
     }
 
     @Test
@@ -75,32 +175,95 @@ class CustomerServiceTest {
         // Arrange
         Customer customer = new Customer();
         CustomerEntity entity = new CustomerEntity();
+        entity.setId(7L);
         when(customerRepository.save(any(CustomerEntity.class))).thenReturn(entity);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            Customer savedCustomer = customerService.createCustomer(customer);
+
+            // Assert: The id reaches the filter only once the transaction commits
+            assertNotNull(savedCustomer);
+            verify(customerRepository, times(1)).save(any(CustomerEntity.class));
+            verify(changeLog, times(1)).created(List.of(savedCustomer));
+            verify(customerIdFilter, never()).add(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(customerIdFilter, times(1)).add(7L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void updateCustomer_ShouldUpdateWithoutLoading_WhenCustomerIsNotInEntityCache() {
+        // Arrange
+        Long id = 1L;
+        Customer customerDetails = new Customer();
+        customerDetails.setFirstName("John");
+        when(customerRepository.updateCustomer(eq(id), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        Customer updatedCustomer = customerService.updateCustomer(id, customerDetails);
+
+        // Assert
+        assertEquals(id, updatedCustomer.getId());
+        assertEquals("John", updatedCustomer.getFirstName());
+        assertNull(updatedCustomer.getVersion());
+        assertNotNull(updatedCustomer.getUpdatedAt());
+        verify(customerRepository, times(1)).updateCustomer(eq(id), any(), eq("John"), any(), any(), any(), any(), any());
+        verify(entityManager, never()).find(any(), any());
+        verify(changeLog, times(1)).updated(List.of(updatedCustomer));
+    }
+
+    @Test
+    void updateCustomer_ShouldIncrementVersion_WhenVersionMatches() {
+        // Arrange
+        Long id = 1L;
+        Customer customerDetails = new Customer();
+        customerDetails.setVersion(3L);
+        when(customerRepository.updateCustomer(eq(id), eq(3L), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
 
         // Act
-        Customer savedCustomer = customerService.createCustomer(customer);
+        Customer updatedCustomer = customerService.updateCustomer(id, customerDetails);
 
         // Assert
-        assertNotNull(savedCustomer);
-        verify(customerRepository, times(1)).save(any(CustomerEntity.class));
+        assertEquals(4L, updatedCustomer.getVersion());
+        verify(customerRepository, never()).existsById(id);
     }
 
     @Test
-    void updateCustomer_ShouldReturnUpdatedCustomer_WhenCustomerExists() {
+    void updateCustomer_ShouldLeaveRequestUnchanged_WhenCustomerIsNotInEntityCache() {
         // Arrange
         Long id = 1L;
         Customer customerDetails = new Customer();
-        CustomerEntity existingEntity = new CustomerEntity();
-        when(customerRepository.findById(id)).thenReturn(Optional.of(existingEntity));
-        when(customerRepository.save(any(CustomerEntity.class))).thenReturn(existingEntity);
+        customerDetails.setFirstName("John");
+        customerDetails.setVersion(3L);
+        when(customerRepository.updateCustomer(eq(id), eq(3L), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
 
         // Act
         Customer updatedCustomer = customerService.updateCustomer(id, customerDetails);
 
         // Assert
-        assertNotNull(updatedCustomer);
-        verify(customerRepository, times(1)).findById(id);
-        verify(customerRepository, times(1)).save(any(CustomerEntity.class));
+        assertNotSame(customerDetails, updatedCustomer);
+        assertNull(customerDetails.getId());
+        assertEquals(3L, customerDetails.getVersion());
+        assertNull(customerDetails.getUpdatedAt());
+        assertEquals("John", updatedCustomer.getFirstName());
+        assertEquals(4L, updatedCustomer.getVersion());
+    }
+
+    @Test
+    void updateCustomer_ShouldThrowConflict_WhenVersionIsStale() {
+        // Arrange
+        Long id = 1L;
+        Customer customerDetails = new Customer();
+        customerDetails.setVersion(3L);
+        when(customerRepository.updateCustomer(eq(id), eq(3L), any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(customerRepository.existsById(id)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(CustomerVersionConflictException.class, () -> customerService.updateCustomer(id, customerDetails));
+        verifyNoInteractions(changeLog);
     }
 
     @Test
@@ -108,39 +271,151 @@ class CustomerServiceTest {
         // Arrange
         Long id = 1L;
         Customer customerDetails = new Customer();
-        when(customerRepository.findById(id)).thenReturn(Optional.empty());
+        when(customerRepository.updateCustomer(eq(id), any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
 
         // Act & Assert
         assertThrows(CustomerNotFoundException.class, () -> customerService.updateCustomer(id, customerDetails));
-        verify(customerRepository, times(1)).findById(id);
+        verify(customerRepository, never()).existsById(id);
+        verifyNoInteractions(changeLog);
+    }
+
+    @Test
+    void updateCustomer_ShouldUpdateEntityInPlace_WhenCustomerIsInEntityCache() {
+        // Arrange
+        Long id = 1L;
+        CustomerEntity entity = entity(id);
+        entity.setVersion(3L);
+        when(entityCache.contains(CustomerEntity.class, id)).thenReturn(true);
+        when(entityManager.find(CustomerEntity.class, id)).thenReturn(entity);
+        Customer customerDetails = new Customer();
+        customerDetails.setFirstName("John");
+
+        // Act
+        Customer updatedCustomer = customerService.updateCustomer(id, customerDetails);
+
+        // Assert
+        assertEquals("John", entity.getFirstName());
+        assertNotNull(entity.getUpdatedAt());
+        assertEquals(id, updatedCustomer.getId());
+        assertEquals("John", updatedCustomer.getFirstName());
+        assertEquals(entity.getUpdatedAt(), updatedCustomer.getUpdatedAt());
+        verify(customerRepository, times(1)).flush();
         verify(customerRepository, never()).save(any(CustomerEntity.class));
+        verify(entityManager, never()).merge(any());
+        verify(changeLog, times(1)).updated(List.of(updatedCustomer));
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnIncrementedVersion_WhenCachedEntityVersionMatches() {
+        // Arrange
+        Long id = 1L;
+        CustomerEntity entity = entity(id);
+        entity.setVersion(3L);
+        when(entityCache.contains(CustomerEntity.class, id)).thenReturn(true);
+        when(entityManager.find(CustomerEntity.class, id)).thenReturn(entity);
+        // Hibernate increments the version when it flushes the update
+        doAnswer(invocation -> {
+            entity.setVersion(entity.getVersion() + 1);
+            return null;
+        }).when(customerRepository).flush();
+        Customer customerDetails = new Customer();
+        customerDetails.setVersion(3L);
+
+        // Act
+        Customer updatedCustomer = customerService.updateCustomer(id, customerDetails);
+
+        // Assert
+        assertEquals(4L, updatedCustomer.getVersion());
+    }
+
+    @Test
+    void updateCustomer_ShouldThrowConflict_WhenCachedEntityVersionIsStale() {
+        // Arrange
+        Long id = 1L;
+        CustomerEntity entity = entity(id);
+        entity.setVersion(4L);
+        entity.setFirstName("Jane");
+        when(entityCache.contains(CustomerEntity.class, id)).thenReturn(true);
+        when(entityManager.find(CustomerEntity.class, id)).thenReturn(entity);
+        Customer customerDetails = new Customer();
+        customerDetails.setFirstName("John");
+        customerDetails.setVersion(3L);
+
+        // Act & Assert
+        assertThrows(CustomerVersionConflictException.class, () -> customerService.updateCustomer(id, customerDetails));
+        assertEquals("Jane", entity.getFirstName());
+        verify(customerRepository, never()).flush();
+        verifyNoInteractions(changeLog);
+    }
+
+    @Test
+    void updateCustomer_ShouldThrowConflict_WhenConcurrentUpdateWinsTheFlush() {
+        // Arrange
+        Long id = 1L;
+        CustomerEntity entity = entity(id);
+        entity.setVersion(3L);
+        when(entityCache.contains(CustomerEntity.class, id)).thenReturn(true);
+        when(entityManager.find(CustomerEntity.class, id)).thenReturn(entity);
+        doThrow(new ObjectOptimisticLockingFailureException(CustomerEntity.class, id)).when(customerRepository).flush();
+        Customer customerDetails = new Customer();
+        customerDetails.setVersion(3L);
+
+        // Act & Assert
+        assertThrows(CustomerVersionConflictException.class, () -> customerService.updateCustomer(id, customerDetails));
+        verifyNoInteractions(changeLog);
+    }
+
+    @Test
+    void updateCustomer_ShouldThrowException_WhenCachedEntityIsGone() {
+        // Arrange
+        Long id = 1L;
+        Customer customerDetails = new Customer();
+        when(entityCache.contains(CustomerEntity.class, id)).thenReturn(true);
+        when(entityManager.find(CustomerEntity.class, id)).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(CustomerNotFoundException.class, () -> customerService.updateCustomer(id, customerDetails));
+        verify(customerRepository, never()).flush();
+        verify(customerRepository, never()).save(any(CustomerEntity.class));
+        verifyNoInteractions(changeLog);
     }
 
     @Test
     void deleteCustomer_ShouldDeleteCustomer_WhenCustomerExists() {
         // Arrange
         Long id = 1L;
-        CustomerEntity entity = new CustomerEntity();
-        when(customerRepository.findById(id)).thenReturn(Optional.of(entity));
+        when(customerRepository.deleteCustomerById(id)).thenReturn(1);
 
         // Act
         customerService.deleteCustomer(id);
 
         // Assert
-        verify(customerRepository, times(1)).findById(id);
-        verify(customerRepository, times(1)).deleteById(id);
+        verify(customerRepository, times(1)).deleteCustomerById(id);
+        verify(customerRepository, never()).findById(id);
+        verify(changeLog, times(1)).deleted(List.of(id));
     }
 
     @Test
     void deleteCustomer_ShouldThrowException_WhenCustomerDoesNotExist() {
         // Arrange
         Long id = 1L;
-        when(customerRepository.findById(id)).thenReturn(Optional.empty());
+        when(customerRepository.deleteCustomerById(id)).thenReturn(0);
 
         // Act & Assert
         assertThrows(CustomerNotFoundException.class, () -> customerService.deleteCustomer(id));
-        verify(customerRepository, times(1)).findById(id);
-        verify(customerRepository, never()).deleteById(id);
+        verify(customerRepository, times(1)).deleteCustomerById(id);
+        verifyNoInteractions(changeLog);
+    }
+
+    private static Customer customer(Long id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        return customer;
     }
-}
 
+    private static CustomerEntity entity(Long id) {
+        CustomerEntity entity = new CustomerEntity();
+        entity.setId(id);
+        return entity;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerDelta;
+import com.example.customer.api.CustomerTombstone;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CustomerSyncServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-08T00:00:00Z");
+    private static final Instant SINCE = Instant.parse("2024-01-07T00:00:00Z");
+
+    private CustomerRepository customerRepository;
+    private CustomerChangeLog changeLog;
+    private CustomerSyncService customerSyncService;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository = mock(CustomerRepository.class);
+        changeLog = mock(CustomerChangeLog.class);
+        Clock clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(NOW);
+        CustomerChangeProperties properties = new CustomerChangeProperties();
+        properties.setRetention(Duration.ofDays(7));
+        properties.setSettleTime(Duration.ofSeconds(2));
+        customerSyncService = new CustomerSyncService(customerRepository, changeLog, properties, clock);
+    }
+
+    @Test
+    void getModifiedCustomers_ShouldMergeModifiedAndDeletedInChangeOrder() {
+        // Arrange
+        Instant before = NOW.minusSeconds(2);
+        when(customerRepository.findModified(SINCE, 0L, before, Limit.of(11)))
+                .thenReturn(List.of(customer(3L, SINCE.plusSeconds(1)), customer(1L, SINCE.plusSeconds(3))));
+        when(changeLog.findDeleted(SINCE, 0L, before, 11))
+                .thenReturn(List.of(new CustomerTombstone(2L, SINCE.plusSeconds(2))));
+
+        // Act
+        CustomerDelta delta = customerSyncService.getModifiedCustomers(SINCE, null, 10);
+
+        // Assert
+        assertEquals(List.of(3L, 1L), delta.customers().stream().map(customer -> customer.getId()).toList());
+        assertEquals(List.of(new CustomerTombstone(2L, SINCE.plusSeconds(2))), delta.deleted());
+        assertNull(delta.nextCursor());
+        assertEquals(before, delta.watermark());
+    }
+
+    @Test
+    void getModifiedCustomers_ShouldReturnCursorOfLastChange_WhenMoreChangesExist() {
+        // Arrange: The page ends on a deletion, with one customer change still to come
+        when(customerRepository.findModified(any(), anyLong(), any(), any()))
+                .thenReturn(List.of(customer(1L, SINCE.plusSeconds(1)), customer(2L, SINCE.plusSeconds(5))));
+        when(changeLog.findDeleted(any(), anyLong(), any(), anyInt()))
+                .thenReturn(List.of(new CustomerTombstone(9L, SINCE.plusSeconds(2))));
+
+        // Act
+        CustomerDelta delta = customerSyncService.getModifiedCustomers(SINCE, null, 2);
+
+        // Assert
+        assertEquals(1, delta.customers().size());
+        assertEquals(1, delta.deleted().size());
+        assertEquals(CustomerCursor.encode(SINCE.plusSeconds(2), 9L), delta.nextCursor());
+        assertNull(delta.watermark());
+    }
+
+    @Test
+    void getModifiedCustomers_ShouldContinueAfterCursor() {
+        // Arrange
+        Instant changedAt = SINCE.plusSeconds(2);
+        String cursor = CustomerCursor.encode(changedAt, 9L);
+
+        // Act
+        customerSyncService.getModifiedCustomers(SINCE, cursor, 2);
+
+        // Assert
+        verify(customerRepository, times(1)).findModified(changedAt, 9L, NOW.minusSeconds(2), Limit.of(3));
+        verify(changeLog, times(1)).findDeleted(changedAt, 9L, NOW.minusSeconds(2), 3);
+    }
+
+    @Test
+    void getModifiedCustomers_ShouldKeepWatermark_WhenModifiedSinceIsNotSettledYet() {
+        // Arrange
+        Instant since = NOW.minusSeconds(1);
+
+        // Act
+        CustomerDelta delta = customerSyncService.getModifiedCustomers(since, null, 10);
+
+        // Assert
+        assertTrue(delta.customers().isEmpty());
+        assertEquals(since, delta.watermark());
+    }
+
+    @Test
+    void getModifiedCustomers_ShouldThrowException_WhenModifiedSinceIsOlderThanRetention() {
+        assertThrows(SyncExpiredException.class,
+                () -> customerSyncService.getModifiedCustomers(NOW.minus(Duration.ofDays(8)), null, 10));
+        verifyNoInteractions(customerRepository, changeLog);
+    }
+
+    private static Customer customer(Long id, Instant updatedAt) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setUpdatedAt(updatedAt);
+        return customer;
+    }
+}
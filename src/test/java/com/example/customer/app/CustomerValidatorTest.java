@@ -0,0 +1,174 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.hibernate.validator.HibernateValidator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerValidatorTest {
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator beanValidator;
+
+    private final CustomerValidator validator = new CustomerValidator();
+
+    @BeforeAll
+    static void setUpBeanValidation() {
+        validatorFactory = Validation.byProvider(HibernateValidator.class)
+                .configure()
+                .defaultLocale(Locale.ENGLISH)
+                .buildValidatorFactory();
+        beanValidator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDownBeanValidation() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void validate_ShouldReturnNoErrors_WhenCustomerIsValid() {
+        // Act
+        List<String> errors = validator.validate(testCustomer("John"), false);
+
+        // Assert: The shared empty list, so nothing was allocated
+        assertSame(List.of(), errors);
+    }
+
+    @Test
+    void validate_ShouldAgreeWithBeanValidation() {
+        // Arrange: Each case breaks the customer in one way, at or just past the edge of a rule
+        List<Consumer<Customer>> cases = List.of(
+                customer -> customer.setFirstName(null),
+                customer -> customer.setFirstName(""),
+                customer -> customer.setFirstName("   "),
+                customer -> customer.setFirstName("J"),
+                customer -> customer.setFirstName("Jo"),
+                customer -> customer.setFirstName("J".repeat(50)),
+                customer -> customer.setFirstName("J".repeat(51)),
+                customer -> customer.setLastName(null),
+                customer -> customer.setLastName(" \t"),
+                customer -> customer.setLastName("D".repeat(51)),
+                customer -> customer.setAddress(null),
+                customer -> customer.setAddress("A".repeat(100)),
+                customer -> customer.setAddress("A".repeat(101)),
+                customer -> customer.setPhoneNumber(null),
+                customer -> customer.setPhoneNumber("0".repeat(16)),
+                customer -> customer.setDateOfBirth(null),
+                customer -> customer.setDateOfBirth(LocalDate.now().minusDays(1)),
+                customer -> customer.setDateOfBirth(LocalDate.now().plusDays(1)),
+                customer -> customer.setNationalSecurityNumber(null),
+                customer -> customer.setNationalSecurityNumber(""),
+                customer -> customer.setNationalSecurityNumber("123456789"),
+                customer -> customer.setNationalSecurityNumber("123-45-678"),
+                customer -> customer.setNationalSecurityNumber("123-45-67890"),
+                customer -> customer.setNationalSecurityNumber("123-4a-6789"),
+                customer -> customer.setNationalSecurityNumber("123_45-6789"),
+                customer -> customer.setNationalSecurityNumber("123-45-6789\n"),
+                customer -> customer.setNationalSecurityNumber("１２３-45-6789"),
+                customer -> customer.setNationalSecurityNumber("123-45-6789-123-45-6789"),
+                customer -> {
+                    customer.setFirstName(null);
+                    customer.setLastName("");
+                    customer.setAddress(null);
+                    customer.setNationalSecurityNumber("nnn-nn-nnnn");
+                });
+
+        for (int i = 0; i < cases.size(); i++) {
+            Customer customer = testCustomer("John");
+            cases.get(i).accept(customer);
+
+            // Act
+            List<String> errors = validator.validate(customer, false);
+
+            // Assert
+            assertEquals(sorted(beanValidation(customer)), sorted(errors), "Case " + i);
+        }
+    }
+
+    @Test
+    void validate_ShouldRequireId_WhenAsked() {
+        // Act
+        List<String> errors = validator.validate(testCustomer("John"), true);
+
+        // Assert
+        assertEquals(List.of("id: Id cannot be null"), errors);
+    }
+
+    @Test
+    void validate_ShouldRejectNullCustomer() {
+        // Act
+        List<String> errors = validator.validate(null, false);
+
+        // Assert
+        assertEquals(List.of("Customer cannot be null"), errors);
+    }
+
+    @Test
+    void validate_ShouldMoveTodayForward_WhenTheDayIsOver() {
+        // Arrange
+        Clock clock = mock(Clock.class);
+        ZoneId zone = ZoneId.of("Europe/Amsterdam");
+        Instant beforeMidnight = Instant.parse("2024-03-01T22:59:59Z");
+        when(clock.getZone()).thenReturn(zone);
+        when(clock.instant()).thenReturn(beforeMidnight);
+        when(clock.millis()).thenReturn(beforeMidnight.toEpochMilli());
+        CustomerValidator validator = new CustomerValidator(clock);
+        Customer customer = testCustomer("John");
+        customer.setDateOfBirth(LocalDate.of(2024, 3, 1));
+        assertEquals(List.of("dateOfBirth: must be a date in the past"), validator.validate(customer, false));
+
+        // Act
+        Instant afterMidnight = Instant.parse("2024-03-01T23:00:00Z");
+        when(clock.instant()).thenReturn(afterMidnight);
+        when(clock.millis()).thenReturn(afterMidnight.toEpochMilli());
+
+        // Assert
+        assertTrue(validator.validate(customer, false).isEmpty());
+    }
+
+    @Test
+    void requireValid_ShouldThrowWithAllErrors_WhenCustomerIsInvalid() {
+        // Arrange
+        Customer customer = testCustomer("John");
+        customer.setLastName(null);
+
+        // Act & Assert
+        InvalidCustomerException ex = assertThrows(InvalidCustomerException.class, () -> validator.requireValid(customer));
+        assertEquals(List.of(CustomerValidator.LAST_NAME_BLANK, "lastName: must not be null"), ex.getErrors());
+    }
+
+    private static List<String> beanValidation(Customer customer) {
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<Customer> violation : beanValidator.validate(customer)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        for (ConstraintViolation<CustomerEntity> violation : beanValidator.validate(CustomerMapper.toEntity(customer))) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return errors;
+    }
+
+    private static List<String> sorted(List<String> errors) {
+        return errors.stream().sorted().toList();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestJournalTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void pending_ShouldReturnAcceptedCustomersWithoutDoneRecord() throws Exception {
+        // Arrange
+        Path path = directory.resolve("ingest.journal");
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            journal.accepted("a", testCustomer("Al"));
+            journal.accepted("b", testCustomer("Bob"));
+            journal.accepted("c", testCustomer("Carl"));
+            journal.done(List.of("b"));
+        }
+
+        // Act
+        Map<String, Customer> pending;
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            pending = journal.pending();
+        }
+
+        // Assert
+        assertEquals(List.of("a", "c"), List.copyOf(pending.keySet()));
+        assertEquals("Carl", pending.get("c").getFirstName());
+        assertEquals(testCustomer("Al").getDateOfBirth(), pending.get("a").getDateOfBirth());
+    }
+
+    @Test
+    void done_ShouldTruncateJournal_WhenNothingIsOutstanding() throws Exception {
+        // Arrange
+        Path path = directory.resolve("ingest.journal");
+        try (IngestJournal journal = new IngestJournal(path, true, objectMapper)) {
+            journal.accepted("a", testCustomer("Al"));
+            assertTrue(Files.size(path) > 0);
+
+            // Act
+            journal.done(List.of("a"));
+        }
+
+        // Assert
+        assertEquals(0, Files.size(path));
+    }
+
+    @Test
+    void pending_ShouldSkipHalfWrittenLastLine() throws Exception {
+        // Arrange
+        Path path = directory.resolve("ingest.journal");
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            journal.accepted("a", testCustomer("Al"));
+        }
+        Files.writeString(path, "{\"type\":\"accepted\",\"trackingId\":\"b\",\"cust", StandardOpenOption.APPEND);
+
+        // Act
+        Map<String, Customer> pending;
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            pending = journal.pending();
+            journal.accepted("c", testCustomer("Carl"));
+        }
+
+        // Assert: The record after the broken line is still readable
+        assertEquals(List.of("a"), List.copyOf(pending.keySet()));
+        try (IngestJournal journal = new IngestJournal(path, false, objectMapper)) {
+            assertEquals(List.of("a", "c"), List.copyOf(journal.pending().keySet()));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.customer.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+    private final LocalRateLimiter rateLimiter = new LocalRateLimiter(properties(10, 3), now::get);
+
+    @Test
+    void tryAcquire_ShouldAllowBurst_ThenRejectWithWaitForNextToken() {
+        // Act
+        long[] waits = {rateLimiter.tryAcquire("a"), rateLimiter.tryAcquire("a"), rateLimiter.tryAcquire("a"),
+                rateLimiter.tryAcquire("a")};
+
+        // Assert: 10 per second is a token every 100ms
+        assertArrayEquals(new long[]{0, 0, 0, TimeUnit.MILLISECONDS.toNanos(100)}, waits);
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillAtTheConfiguredRate() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("a");
+        }
+
+        // Act
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Assert: One token came back, not more
+        assertEquals(0, rateLimiter.tryAcquire("a"));
+        assertTrue(rateLimiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void tryAcquire_ShouldNotSaveUpMoreThanTheBurst_WhenIdle() {
+        // Arrange
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        // Act
+        int allowed = 0;
+        while (rateLimiter.tryAcquire("a") == 0) {
+            allowed++;
+        }
+
+        // Assert
+        assertEquals(3, allowed);
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepABucketPerClient() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("a");
+        }
+
+        // Act & Assert
+        assertTrue(rateLimiter.tryAcquire("a") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("b"));
+    }
+
+    static CustomerRateLimitProperties properties(double requestsPerSecond, int burst) {
+        CustomerRateLimitProperties properties = new CustomerRateLimitProperties();
+        properties.setRequestsPerSecond(requestsPerSecond);
+        properties.setBurst(burst);
+        return properties;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.customer.app;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongBloomFilterTest {
+
+    @Test
+    void mightContain_ShouldReturnTrue_ForEveryValueAdded() {
+        // Arrange
+        LongBloomFilter filter = LongBloomFilter.create(10_000, 0.01);
+
+        // Act
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+
+        // Assert
+        for (long id = 1; id <= 10_000; id++) {
+            assertTrue(filter.mightContain(id));
+        }
+    }
+
+    @Test
+    void mightContain_ShouldStayNearTargetFalsePositiveRate_WhenFilledToCapacity() {
+        // Arrange
+        LongBloomFilter filter = LongBloomFilter.create(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (long id = 1_000_001; id <= 1_100_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert: Well within twice the target, so the check is not flaky
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void create_ShouldSizeFilterForCapacityAndRate() {
+        // Act
+        LongBloomFilter filter = LongBloomFilter.create(1_000_000, 0.01);
+
+        // Assert: About 9.6 bits per value at 1%
+        assertEquals(1_198_136, filter.sizeInBytes());
+        assertEquals(0, filter.insertions());
+    }
+
+    @Test
+    void create_ShouldRejectFalsePositiveRateOutsideZeroAndOne() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> LongBloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> LongBloomFilter.create(100, 1));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.customer.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingBufferTest {
+
+    @Test
+    void offer_ShouldRejectElement_WhenBufferIsFull() {
+        // Arrange
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+
+        // Act
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        // Assert: Capacity is rounded up to a power of two
+        assertEquals(4, buffer.capacity());
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void drain_ShouldReturnElementsInOfferOrder_AndFreeSlots() {
+        // Arrange
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        // Act
+        int count = buffer.drain(drained::add, 3);
+
+        // Assert
+        assertEquals(3, count);
+        assertEquals(List.of(0, 1, 2), drained);
+        assertTrue(buffer.offer(4));
+        buffer.drain(drained::add, 10);
+        assertEquals(List.of(0, 1, 2, 3, 4), drained);
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void offer_ShouldNotLoseElements_WhenProducersRace() throws Exception {
+        // Arrange
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            int first = p * perProducer;
+            executor.submit(() -> {
+                start.await();
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!buffer.offer(i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+        }
+        Set<Integer> drained = new HashSet<>();
+
+        // Act
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (drained.size() < producers * perProducer && System.nanoTime() < deadline) {
+            buffer.drain(drained::add, 256);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(producers * perProducer, drained.size());
+        assertTrue(buffer.isEmpty());
+    }
+}
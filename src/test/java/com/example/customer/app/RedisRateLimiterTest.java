@@ -0,0 +1,60 @@
+package com.example.customer.app;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.customer.app.LocalRateLimiterTest.properties;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RedisRateLimiterTest {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final RateLimiter fallback = mock(RateLimiter.class);
+    private final RedisRateLimiter rateLimiter = new RedisRateLimiter(redisTemplate, properties(10, 3), fallback);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryAcquire_ShouldPassIntervalAndCapacityInMicroseconds() {
+        // Arrange
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        // Act
+        long wait = rateLimiter.tryAcquire("key:abc");
+
+        // Assert
+        assertEquals(0, wait);
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class),
+                eq(List.of(RedisRateLimiter.KEY_PREFIX + "key:abc")), eq("100000"), eq("300000"));
+        verifyNoInteractions(fallback);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryAcquire_ShouldReturnWaitInNanoseconds_WhenBucketIsEmpty() {
+        // Arrange
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(25_000L);
+
+        // Act & Assert
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(25), rateLimiter.tryAcquire("key:abc"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryAcquire_ShouldFallBackToLocalBuckets_WhenRedisIsUnreachable() {
+        // Arrange
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(fallback.tryAcquire("key:abc")).thenReturn(7L);
+
+        // Act & Assert
+        assertEquals(7L, rateLimiter.tryAcquire("key:abc"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.customer.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class ReplicaDataSourceTest {
+
+    private DataSource primary;
+    private DataSource first;
+    private DataSource second;
+    private Connection primaryConnection;
+    private Connection firstConnection;
+    private Connection secondConnection;
+    private ReplicaDataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        first = mock(DataSource.class);
+        second = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        firstConnection = mock(Connection.class);
+        secondConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+        when(firstConnection.isValid(anyInt())).thenReturn(true);
+        when(secondConnection.isValid(anyInt())).thenReturn(true);
+        replicaDataSource = new ReplicaDataSource(primary, List.of(first, second), Duration.ofSeconds(1));
+    }
+
+    @Test
+    void getConnection_ShouldTakeReplicasInTurn() throws SQLException {
+        // Act & Assert
+        assertSame(firstConnection, replicaDataSource.getConnection());
+        assertSame(secondConnection, replicaDataSource.getConnection());
+        assertSame(firstConnection, replicaDataSource.getConnection());
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_ShouldEjectReplicaAndTryNext_WhenReplicaFails() throws SQLException {
+        // Arrange
+        when(first.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // Act & Assert
+        assertSame(secondConnection, replicaDataSource.getConnection());
+        assertSame(secondConnection, replicaDataSource.getConnection());
+        assertEquals(1, replicaDataSource.healthyReplicas());
+        verify(first, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimary_WhenNoReplicaIsHealthy() throws SQLException {
+        // Arrange
+        when(first.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(second.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // Act & Assert
+        assertSame(primaryConnection, replicaDataSource.getConnection());
+        assertEquals(0, replicaDataSource.healthyReplicas());
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimary_WhenThreadIsPinned() throws SQLException {
+        // Act
+        replicaDataSource.pinToPrimary();
+        Connection pinned = replicaDataSource.getConnection();
+        replicaDataSource.unpin();
+
+        // Assert
+        assertSame(primaryConnection, pinned);
+        assertSame(firstConnection, replicaDataSource.getConnection());
+    }
+
+    @Test
+    void checkHealth_ShouldEjectInvalidReplica_AndTakeItBackOnceValid() throws SQLException {
+        // Arrange
+        when(firstConnection.isValid(anyInt())).thenReturn(false);
+
+        // Act
+        replicaDataSource.checkHealth();
+
+        // Assert
+        assertEquals(1, replicaDataSource.healthyReplicas());
+        assertSame(secondConnection, replicaDataSource.getConnection());
+        assertSame(secondConnection, replicaDataSource.getConnection());
+
+        // Act: The replica recovers
+        when(firstConnection.isValid(anyInt())).thenReturn(true);
+        replicaDataSource.checkHealth();
+
+        // Assert
+        assertEquals(2, replicaDataSource.healthyReplicas());
+        verify(firstConnection, times(2)).close();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.customer.app;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCounterTest {
+
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    @Test
+    void stop_ShouldReturnStatementsSinceStart() {
+        // Arrange
+        statementCounter.start();
+
+        // Act
+        String sql = statementCounter.inspect("select 1");
+        statementCounter.inspect("select 2");
+
+        // Assert
+        assertEquals("select 1", sql);
+        assertEquals(2, statementCounter.stop());
+    }
+
+    @Test
+    void inspect_ShouldNotCount_WhenNotStarted() {
+        // Act
+        statementCounter.inspect("select 1");
+
+        // Assert
+        assertEquals(0, statementCounter.stop());
+    }
+
+    @Test
+    void stop_ShouldResetCounter() {
+        // Arrange
+        statementCounter.start();
+        statementCounter.inspect("select 1");
+        statementCounter.stop();
+
+        // Act
+        statementCounter.inspect("select 2");
+
+        // Assert
+        assertEquals(0, statementCounter.stop());
+    }
+}
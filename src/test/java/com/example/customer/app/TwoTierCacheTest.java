@@ -0,0 +1,190 @@
+package com.example.customer.app;
+
+import com.example.customer.api.Customer;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.NullValue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TwoTierCacheTest {
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+    private Cache remoteCache;
+    private CacheInvalidationChannel invalidationChannel;
+    private TwoTierCache twoTierCache;
+
+    @BeforeEach
+    void setUp() {
+        localCache = Caffeine.newBuilder().maximumSize(100).recordStats().build();
+        remoteCache = spy(new ConcurrentMapCache(CUSTOMERS_CACHE));
+        invalidationChannel = mock(CacheInvalidationChannel.class);
+        twoTierCache = new TwoTierCache(CUSTOMERS_CACHE, localCache, remoteCache, invalidationChannel);
+    }
+
+    @Test
+    void get_ShouldNotReadRemoteTier_WhenLocalTierHits() {
+        // Arrange
+        Customer customer = testCustomer("John");
+        localCache.put(1L, customer);
+
+        // Act
+        Cache.ValueWrapper value = twoTierCache.get(1L);
+
+        // Assert
+        assertSame(customer, value.get());
+        verify(remoteCache, never()).get(1L);
+    }
+
+    @Test
+    void get_ShouldPopulateLocalTier_WhenRemoteTierHits() {
+        // Arrange
+        Customer customer = testCustomer("John");
+        remoteCache.put(1L, customer);
+
+        // Act
+        Customer cached = twoTierCache.get(1L, Customer.class);
+
+        // Assert
+        assertSame(customer, cached);
+        assertSame(customer, localCache.getIfPresent(1L));
+    }
+
+    @Test
+    void get_ShouldLoadOnce_WhenConcurrentCallersMissTheSameKey() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act: the first caller blocks inside the loader while the second one misses
+            Future<Customer> first = executor.submit(() -> twoTierCache.get(1L, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                release.await();
+                return testCustomer("John");
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<Customer> second = executor.submit(() -> twoTierCache.get(1L, () -> {
+                loads.incrementAndGet();
+                return testCustomer("Jane");
+            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert
+            assertEquals("John", first.get(5, TimeUnit.SECONDS).getFirstName());
+            assertEquals("John", second.get(5, TimeUnit.SECONDS).getFirstName());
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_ShouldCacheMissInBothTiers_WhenLoaderFindsNothing() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        Customer first = twoTierCache.get(1L, () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        Customer second = twoTierCache.get(1L, () -> {
+            loads.incrementAndGet();
+            return testCustomer("John");
+        });
+
+        // Assert
+        assertNull(first);
+        assertNull(second);
+        assertEquals(1, loads.get());
+        assertNull(twoTierCache.get(1L).get());
+        assertNull(remoteCache.get(1L).get());
+        assertSame(NullValue.INSTANCE, localCache.getIfPresent(1L));
+    }
+
+    @Test
+    void get_ShouldNotCacheMiss_WhenRemoteTierRejectsNulls() {
+        // Arrange
+        twoTierCache = new TwoTierCache(CUSTOMERS_CACHE, localCache, new ConcurrentMapCache(CUSTOMERS_CACHE, false),
+                invalidationChannel);
+
+        // Act
+        Customer missing = twoTierCache.get(1L, () -> null);
+
+        // Assert
+        assertNull(missing);
+        assertNull(twoTierCache.get(1L));
+        assertNull(localCache.getIfPresent(1L));
+    }
+
+    @Test
+    void get_ShouldPropagateLoaderFailure() {
+        // Arrange & Act & Assert
+        Cache.ValueRetrievalException ex = assertThrows(Cache.ValueRetrievalException.class,
+                () -> twoTierCache.get(1L, () -> {
+                    throw new CustomerNotFoundException();
+                }));
+        assertInstanceOf(CustomerNotFoundException.class, ex.getCause());
+        assertNull(remoteCache.get(1L));
+    }
+
+    @Test
+    void put_ShouldWriteBothTiersAndInvalidateOtherNodes() {
+        // Arrange
+        Customer customer = testCustomer("John");
+
+        // Act
+        twoTierCache.put(1L, customer);
+
+        // Assert
+        assertSame(customer, localCache.getIfPresent(1L));
+        assertSame(customer, remoteCache.get(1L).get());
+        verify(invalidationChannel, times(1)).publish(CUSTOMERS_CACHE, 1L);
+    }
+
+    @Test
+    void evict_ShouldClearBothTiersAndInvalidateOtherNodes() {
+        // Arrange
+        twoTierCache.put(1L, testCustomer("John"));
+
+        // Act
+        twoTierCache.evict(1L);
+
+        // Assert
+        assertNull(localCache.getIfPresent(1L));
+        assertNull(remoteCache.get(1L));
+        verify(invalidationChannel, times(2)).publish(CUSTOMERS_CACHE, 1L);
+    }
+
+    @Test
+    void evictLocal_ShouldOnlyClearLocalTier() {
+        // Arrange
+        twoTierCache.put(1L, testCustomer("John"));
+
+        // Act
+        twoTierCache.evictLocal(1L);
+
+        // Assert
+        assertNull(localCache.getIfPresent(1L));
+        assertNotNull(remoteCache.get(1L));
+        verify(invalidationChannel, times(1)).publish(CUSTOMERS_CACHE, 1L);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.customer.component;
+
+import com.example.customer.api.BulkItemResult.Status;
+import com.example.customer.api.BulkResult;
+import com.example.customer.api.Customer;
+import com.example.customer.app.CustomerBulkService;
+import com.example.customer.app.CustomerChangeConfig;
+import com.example.customer.app.CustomerChangeProperties;
+import com.example.customer.app.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "customer.bulk.chunk-size=10")
+@ActiveProfiles("test")
+public class CustomerBulkComponentTest {
+
+    @Autowired
+    private CustomerBulkService customerBulkService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    @Qualifier(CustomerChangeConfig.CHUNK_TRANSACTIONS)
+    private TransactionTemplate chunkTransactionTemplate;
+    @Autowired
+    private CustomerChangeProperties changeProperties;
+
+    @Test
+    void testChunksTimeOutBeforeTheDeltaStopsWaitingForThem() {
+        // Assert
+        assertTrue(chunkTransactionTemplate.getTimeout() > 0);
+        assertTrue(chunkTransactionTemplate.getTimeout() < changeProperties.getSettleTime().toSeconds());
+    }
+
+    @Test
+    void testBulkCreateUpdateAndDelete() {
+        // Arrange: 25 valid customers and one invalid one
+        List<Customer> customers = new ArrayList<>(IntStream.range(0, 25).mapToObj(i -> testCustomer("John" + i)).toList());
+        Customer invalid = testCustomer("John");
+        invalid.setFirstName(" ");
+        customers.add(invalid);
+
+        // Act: Create
+        BulkResult created = customerBulkService.createCustomers(customers.iterator());
+
+        // Assert
+        assertEquals(25, created.succeeded());
+        assertEquals(1, created.failed());
+        assertEquals(Status.INVALID, created.items().get(25).status());
+        List<Long> ids = created.items().stream().filter(item -> item.status() == Status.CREATED).map(item -> item.id()).toList();
+        assertEquals(25, customerRepository.findAllById(ids).size());
+
+        // Act: Update the first customer
+        Customer update = testCustomer("John0");
+        update.setId(ids.get(0));
+        update.setLastName("Smith");
+        BulkResult updated = customerBulkService.updateCustomers(List.of(update).iterator());
+
+        // Assert
+        assertEquals(Status.UPDATED, updated.items().get(0).status());
+        assertEquals("Smith", customerRepository.findById(ids.get(0)).orElseThrow().getLastName());
+
+        // Act: Delete them all
+        BulkResult deleted = customerBulkService.deleteCustomers(ids);
+
+        // Assert
+        assertEquals(25, deleted.succeeded());
+        assertTrue(customerRepository.findAllById(ids).isEmpty());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.customer.component;
+
+import com.example.customer.api.Customer;
+import com.example.customer.app.CustomerRepository;
+import com.example.customer.app.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CustomerCacheComponentTest {
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private CacheManager cacheManager;
+    @SpyBean
+    private CustomerRepository customerRepository;
+
+    @Test
+    void testCreateCustomerPopulatesCache() {
+        // Arrange
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John"));
+
+        // Act
+        Customer cachedCustomer = customerService.findCustomerById(createdCustomer.getId()).orElseThrow();
+
+        // Assert: The read was served from the entry the create put in the cache
+        assertEquals("John", cachedCustomer.getFirstName());
+        verify(customerRepository, never()).findById(createdCustomer.getId());
+    }
+
+    @Test
+    void testGetCustomerByIdReadsThroughCache() {
+        // Arrange
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John"));
+        cacheManager.getCache(CUSTOMERS_CACHE).evict(createdCustomer.getId());
+
+        // Act: Read the customer twice
+        customerService.findCustomerById(createdCustomer.getId());
+        Customer cachedCustomer = customerService.findCustomerById(createdCustomer.getId()).orElseThrow();
+
+        // Assert: Only the first read went to the database
+        assertEquals("John", cachedCustomer.getFirstName());
+        verify(customerRepository, times(1)).findById(createdCustomer.getId());
+    }
+
+    @Test
+    void testMissingCustomerIsCached() {
+        // Act: Look up a customer that does not exist twice
+        assertTrue(customerService.findCustomerById(Long.MAX_VALUE).isEmpty());
+        assertTrue(customerService.findCustomerById(Long.MAX_VALUE).isEmpty());
+
+        // Assert: The miss was remembered; the id filter already kept the first lookup away from the database
+        assertNotNull(cacheManager.getCache(CUSTOMERS_CACHE).get(Long.MAX_VALUE));
+        verify(customerRepository, never()).findById(Long.MAX_VALUE);
+    }
+
+    @Test
+    void testUpdateCustomerRefreshesCache() {
+        // Arrange: Create and cache a customer
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John"));
+        customerService.findCustomerById(createdCustomer.getId());
+
+        // Act
+        createdCustomer.setLastName("Smith");
+        customerService.updateCustomer(createdCustomer.getId(), createdCustomer);
+
+        // Assert: The cached copy reflects the update
+        assertEquals("Smith", customerService.findCustomerById(createdCustomer.getId()).orElseThrow().getLastName());
+    }
+
+    @Test
+    void testDeleteCustomerEvictsCache() {
+        // Arrange: Create and cache a customer
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John"));
+        customerService.findCustomerById(createdCustomer.getId());
+
+        // Act
+        customerService.deleteCustomer(createdCustomer.getId());
+
+        // Assert
+        assertNull(cacheManager.getCache(CUSTOMERS_CACHE).get(createdCustomer.getId()));
+    }
+}
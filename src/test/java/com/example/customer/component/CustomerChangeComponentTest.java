@@ -0,0 +1,124 @@
+package com.example.customer.component;
+
+import com.example.customer.api.BulkResult;
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerChange;
+import com.example.customer.app.CustomerBulkService;
+import com.example.customer.app.CustomerChangeLog;
+import com.example.customer.app.CustomerChangeRelay;
+import com.example.customer.app.CustomerNotFoundException;
+import com.example.customer.app.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Changes are only relayed once committed, so these tests do not run in a test-managed transaction. Rolled back
+ * transactions of other tests leave gaps in the positions, hence the short gap timeout.
+ */
+@SpringBootTest(properties = {"customer.changes.gap-timeout=200ms", "customer.changes.poll-interval=50ms"})
+@ActiveProfiles("test")
+public class CustomerChangeComponentTest {
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private CustomerBulkService customerBulkService;
+    @Autowired
+    private CustomerChangeRelay customerChangeRelay;
+    @Autowired
+    private CustomerChangeLog customerChangeLog;
+
+    @Test
+    void testChangesAreStreamedInOrder() throws InterruptedException {
+        // Arrange
+        BlockingQueue<CustomerChange> received = new LinkedBlockingQueue<>();
+        CustomerChangeRelay.Subscription subscription =
+                customerChangeRelay.subscribe(customerChangeRelay.position(), received::add, () -> { });
+
+        // Act
+        Customer created = customerService.createCustomer(testCustomer("Changed"));
+        Customer update = testCustomer("Renamed");
+        update.setVersion(created.getVersion());
+        customerService.updateCustomer(created.getId(), update);
+        customerService.deleteCustomer(created.getId());
+        BulkResult bulk = customerBulkService.createCustomers(List.of(testCustomer("Bulkone"), testCustomer("Bulktwo")).iterator());
+
+        // Assert
+        List<CustomerChange> changes = take(received, 5);
+        subscription.cancel();
+        assertEquals(List.of(CustomerChange.Type.CREATED, CustomerChange.Type.UPDATED, CustomerChange.Type.DELETED,
+                        CustomerChange.Type.CREATED, CustomerChange.Type.CREATED),
+                changes.stream().map(CustomerChange::type).toList());
+        assertEquals(List.of(created.getId(), created.getId(), created.getId(), bulk.items().get(0).id(), bulk.items().get(1).id()),
+                changes.stream().map(CustomerChange::customerId).toList());
+        assertEquals("Changed", changes.get(0).customer().getFirstName());
+        assertEquals(0L, changes.get(0).version());
+        assertEquals("Renamed", changes.get(1).customer().getFirstName());
+        assertEquals(1L, changes.get(1).version());
+        assertNull(changes.get(2).customer());
+        assertEquals("Bulktwo", changes.get(4).customer().getFirstName());
+        for (int i = 1; i < changes.size(); i++) {
+            assertTrue(changes.get(i).position() > changes.get(i - 1).position());
+        }
+    }
+
+    @Test
+    void testSubscriberCatchesUpFromPosition() throws InterruptedException {
+        // Arrange: Two changes are published before anyone subscribes
+        long since = customerChangeRelay.position();
+        Customer first = customerService.createCustomer(testCustomer("Earlyone"));
+        Customer second = customerService.createCustomer(testCustomer("Earlytwo"));
+        awaitPosition(customerChangeLog.lastPosition());
+
+        // Act
+        BlockingQueue<CustomerChange> received = new LinkedBlockingQueue<>();
+        CustomerChangeRelay.Subscription subscription = customerChangeRelay.subscribe(since, received::add, () -> { });
+
+        // Assert
+        List<Long> ids = new ArrayList<>();
+        take(received, 2).forEach(change -> ids.add(change.customerId()));
+        subscription.cancel();
+        assertEquals(List.of(first.getId(), second.getId()), ids);
+    }
+
+    @Test
+    void testFailedUpdateRecordsNoChange() {
+        // Arrange
+        long before = customerChangeLog.lastPosition();
+
+        // Act
+        assertThrows(CustomerNotFoundException.class, () -> customerService.updateCustomer(Long.MAX_VALUE, testCustomer("Nobody")));
+
+        // Assert
+        assertEquals(before, customerChangeLog.lastPosition());
+    }
+
+    private void awaitPosition(long position) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (customerChangeRelay.position() < position && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(customerChangeRelay.position() >= position);
+    }
+
+    private static List<CustomerChange> take(BlockingQueue<CustomerChange> received, int count) throws InterruptedException {
+        List<CustomerChange> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CustomerChange change = received.poll(10, TimeUnit.SECONDS);
+            assertNotNull(change, "Expected " + count + " changes, got " + i);
+            changes.add(change);
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.customer.component;
+
+import com.example.customer.api.Customer;
+import com.example.customer.app.CustomerEntity;
+import com.example.customer.app.CustomerRepository;
+import com.example.customer.app.CustomerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The second-level cache is filled when a transaction commits, so these tests do not run in a test-managed
+ * transaction.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class CustomerEntityCacheComponentTest {
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testFindByIdIsServedFromSecondLevelCache() {
+        // Arrange: The insert puts the entity in the second-level cache
+        Customer created = customerService.createCustomer(testCustomer("Cached"));
+        statistics.clear();
+
+        // Act
+        CustomerEntity entity = customerRepository.findById(created.getId()).orElseThrow();
+
+        // Assert
+        assertEquals("Cached", entity.getFirstName());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(CustomerEntity.CACHE_REGION).getHitCount());
+        assertEquals(0, statistics.getDomainDataRegionStatistics(CustomerEntity.CACHE_REGION).getMissCount());
+    }
+
+    @Test
+    void testUpdatedCustomerIsNotServedStale() {
+        // Arrange
+        Customer created = customerService.createCustomer(testCustomer("Before"));
+        customerRepository.findById(created.getId());
+        Customer update = testCustomer("After");
+        update.setVersion(created.getVersion());
+
+        // Act
+        customerService.updateCustomer(created.getId(), update);
+
+        // Assert
+        assertEquals("After", customerRepository.findById(created.getId()).orElseThrow().getFirstName());
+    }
+
+    @Test
+    void testUpdateKeepsOtherCustomersCached() {
+        // Arrange
+        Customer updated = customerService.createCustomer(testCustomer("Updated"));
+        Customer other = customerService.createCustomer(testCustomer("Other"));
+        Customer update = testCustomer("Renamed");
+        update.setVersion(updated.getVersion());
+
+        // Act: The update changes the cached entity in place instead of dropping the region
+        customerService.updateCustomer(updated.getId(), update);
+        statistics.clear();
+        customerRepository.findById(other.getId());
+
+        // Assert
+        assertEquals(1, statistics.getDomainDataRegionStatistics(CustomerEntity.CACHE_REGION).getHitCount());
+        assertEquals(0, statistics.getDomainDataRegionStatistics(CustomerEntity.CACHE_REGION).getMissCount());
+    }
+
+    @Test
+    void testUpdateOfUncachedCustomerDoesNotLoadIt() {
+        // Arrange
+        Customer created = customerService.createCustomer(testCustomer("Uncached"));
+        entityManagerFactory.getCache().evict(CustomerEntity.class, created.getId());
+        Customer update = testCustomer("Written");
+        update.setVersion(created.getVersion());
+        statistics.clear();
+
+        // Act
+        Customer updated = customerService.updateCustomer(created.getId(), update);
+
+        // Assert: One version checked UPDATE, with no select before it
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(created.getVersion() + 1, updated.getVersion());
+        assertEquals("Written", customerRepository.findById(created.getId()).orElseThrow().getFirstName());
+    }
+
+    @Test
+    void testRepeatedPageIsServedFromQueryCache() {
+        // Arrange
+        customerService.createCustomer(testCustomer("Paged"));
+        customerService.getCustomers(null, 10);
+        statistics.clear();
+
+        // Act
+        customerService.getCustomers(null, 10);
+
+        // Assert
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+}
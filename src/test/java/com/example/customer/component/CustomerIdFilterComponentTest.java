@@ -0,0 +1,65 @@
+package com.example.customer.component;
+
+import com.example.customer.api.Customer;
+import com.example.customer.app.CustomerIdFilter;
+import com.example.customer.app.CustomerRepository;
+import com.example.customer.app.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CustomerIdFilterComponentTest {
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private CustomerIdFilter customerIdFilter;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @SpyBean
+    private CustomerRepository customerRepository;
+
+    @Test
+    void testCreatedCustomerIsInFilter() {
+        // Act
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John"));
+
+        // Assert
+        assertTrue(customerIdFilter.mightExist(createdCustomer.getId()));
+    }
+
+    @Test
+    void testUnknownIdIsAnsweredWithoutQuery() {
+        // Act
+        boolean found = customerService.findCustomerById(Long.MAX_VALUE - 2).isPresent();
+
+        // Assert
+        assertFalse(found);
+        verify(customerRepository, never()).findById(any());
+        assertTrue(meterRegistry.get(CustomerIdFilter.METRIC_PREFIX + ".skipped.lookups").functionCounter().count() >= 1);
+    }
+
+    @Test
+    void testRebuildDropsDeletedIds() {
+        // Arrange
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John"));
+        customerService.deleteCustomer(createdCustomer.getId());
+
+        // Act
+        customerIdFilter.rebuild();
+
+        // Assert: The filter is sized for far more ids than the tests create, so a false positive is vanishingly unlikely
+        assertFalse(customerIdFilter.mightExist(createdCustomer.getId()));
+        assertTrue(meterRegistry.get(CustomerIdFilter.METRIC_PREFIX + ".size").gauge().value() > 0);
+    }
+}
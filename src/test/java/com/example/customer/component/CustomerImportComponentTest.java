@@ -0,0 +1,81 @@
+package com.example.customer.component;
+
+import com.example.customer.api.BulkItemResult;
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerSearchCriteria;
+import com.example.customer.api.ImportResult;
+import com.example.customer.app.CustomerChangeLog;
+import com.example.customer.app.CustomerIdFilter;
+import com.example.customer.app.CustomerImportService;
+import com.example.customer.app.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against H2, so chunks are written with the JDBC batch fallback; the {@code COPY} path needs PostgreSQL.
+ */
+@SpringBootTest(properties = {"customer.import.chunk-size=2", "customer.import.max-errors=2"})
+@ActiveProfiles("test")
+public class CustomerImportComponentTest {
+
+    @Autowired
+    private CustomerImportService customerImportService;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private CustomerChangeLog customerChangeLog;
+    @Autowired
+    private CustomerIdFilter customerIdFilter;
+
+    @Test
+    void testImportsValidRowsAcrossChunks() {
+        // Arrange: Three valid rows take two chunks; the invalid one is skipped
+        Customer invalid = testCustomer("Importbad");
+        invalid.setNationalSecurityNumber("123456789");
+        Customer withId = testCustomer("Importthree");
+        withId.setId(Long.MAX_VALUE);
+        long before = customerChangeLog.lastPosition();
+
+        // Act
+        ImportResult result = customerImportService.importCustomers(
+                List.of(testCustomer("Importone"), invalid, testCustomer("Importtwo"), withId).iterator());
+
+        // Assert
+        assertEquals(3, result.imported());
+        assertEquals(1, result.rejected());
+        assertEquals(1, result.errors().get(0).index());
+        assertEquals(BulkItemResult.Status.INVALID, result.errors().get(0).status());
+
+        List<Customer> imported = customerService.searchCustomers(new CustomerSearchCriteria("import", null, null, null), null, 10)
+                .customers();
+        assertEquals(List.of("Importone", "Importtwo", "Importthree"), imported.stream().map(Customer::getFirstName).toList());
+        for (Customer customer : imported) {
+            assertNotEquals(Long.MAX_VALUE, customer.getId());
+            assertEquals(0L, customer.getVersion());
+            assertTrue(customerIdFilter.mightExist(customer.getId()));
+            assertEquals(customer.getFirstName(), customerService.findCustomerById(customer.getId()).orElseThrow().getFirstName());
+        }
+        assertTrue(customerChangeLog.lastPosition() >= before + 3);
+    }
+
+    @Test
+    void testReportsOnlyTheFirstErrors() {
+        // Arrange
+        List<Customer> invalid = List.of(testCustomer("A"), testCustomer("B"), testCustomer("C"));
+
+        // Act
+        ImportResult result = customerImportService.importCustomers(invalid.iterator());
+
+        // Assert: First names must be at least two characters long
+        assertEquals(0, result.imported());
+        assertEquals(3, result.rejected());
+        assertEquals(List.of(0, 1), result.errors().stream().map(BulkItemResult::index).toList());
+    }
+}
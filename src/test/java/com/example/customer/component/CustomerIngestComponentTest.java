@@ -0,0 +1,75 @@
+package com.example.customer.component;
+
+import com.example.customer.api.IngestStatus;
+import com.example.customer.app.CustomerIngestService;
+import com.example.customer.app.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "customer.ingest.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CustomerIngestComponentTest {
+
+    private static final String CUSTOMER_JSON = "{\"firstName\":\"Queued\",\"lastName\":\"Doe\",\"address\":\"1234 Elm Street\",\"phoneNumber\":\"123-456-7890\",\"dateOfBirth\":\"1980-01-01\",\"nationalSecurityNumber\":\"123-45-6789\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CustomerIngestService customerIngestService;
+    @Autowired
+    private CustomerService customerService;
+
+    @Test
+    void testQueuedCustomerIsCreated() throws Exception {
+        // Act: Submit a customer asynchronously
+        String body = mockMvc.perform(post("/api/customers")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CUSTOMER_JSON))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String trackingId = objectMapper.readValue(body, IngestStatus.class).trackingId();
+
+        // Assert: The writer creates it and the status endpoint reports its id
+        IngestStatus status = awaitDone(trackingId);
+        assertEquals(IngestStatus.Status.CREATED, status.status());
+        assertEquals("Queued", customerService.findCustomerById(status.customerId()).orElseThrow().getFirstName());
+        mockMvc.perform(get("/api/customers/ingest/{trackingId}", trackingId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/customers/{id}", status.customerId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void testCustomerIsCreatedSynchronously_WhenAsyncIsNotPreferred() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CUSTOMER_JSON))
+                .andExpect(status().isOk());
+    }
+
+    private IngestStatus awaitDone(String trackingId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        IngestStatus status = customerIngestService.getStatus(trackingId).orElseThrow();
+        while (status.status() == IngestStatus.Status.QUEUED && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = customerIngestService.getStatus(trackingId).orElseThrow();
+        }
+        return status;
+    }
+}
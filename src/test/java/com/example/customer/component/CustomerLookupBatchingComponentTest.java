@@ -0,0 +1,74 @@
+package com.example.customer.component;
+
+import com.example.customer.api.Customer;
+import com.example.customer.app.CustomerLookupBatcher;
+import com.example.customer.app.CustomerRepository;
+import com.example.customer.app.CustomerService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = {"customer.lookup-batching.enabled=true", "customer.lookup-batching.window=10s",
+        "customer.lookup-batching.max-batch-size=4"})
+@ActiveProfiles("test")
+public class CustomerLookupBatchingComponentTest {
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @SpyBean
+    private CustomerRepository customerRepository;
+
+    @Test
+    void testConcurrentLookupsShareOneBatch() throws Exception {
+        // Arrange: Three customers and the id of a deleted one, none of them in the customer cache
+        List<Long> ids = new ArrayList<>();
+        for (String firstName : List.of("John", "Jane", "Joe")) {
+            ids.add(customerService.createCustomer(testCustomer(firstName)).getId());
+        }
+        Long deletedId = customerService.createCustomer(testCustomer("Jim")).getId();
+        customerService.deleteCustomer(deletedId);
+        ids.add(deletedId);
+        ids.forEach(cacheManager.getCache(CUSTOMERS_CACHE)::evict);
+
+        // Act: The window is long, so the batch is loaded only once all four lookups have joined it
+        ExecutorService executor = Executors.newFixedThreadPool(ids.size());
+        List<Future<Optional<Customer>>> lookups = new ArrayList<>();
+        try {
+            ids.forEach(id -> lookups.add(executor.submit(() -> customerService.findCustomerById(id))));
+
+            // Assert
+            assertEquals("John", lookups.get(0).get(5, TimeUnit.SECONDS).orElseThrow().getFirstName());
+            assertEquals("Jane", lookups.get(1).get(5, TimeUnit.SECONDS).orElseThrow().getFirstName());
+            assertEquals("Joe", lookups.get(2).get(5, TimeUnit.SECONDS).orElseThrow().getFirstName());
+            assertTrue(lookups.get(3).get(5, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(customerRepository, never()).findById(any());
+        DistributionSummary batchSizes = meterRegistry.get(CustomerLookupBatcher.METRIC_PREFIX + ".batch.size").summary();
+        assertEquals(4, batchSizes.max());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.customer.component;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.StatementMetricsInterceptor;
+import com.example.customer.app.CustomerEntity;
+import com.example.customer.app.CustomerService;
+import com.example.customer.app.GlobalExceptionHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CustomerMetricsComponentTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testReadRecordsStatementsTimersAndCacheHits() throws Exception {
+        // Arrange
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John"));
+        cacheManager.getCache(CUSTOMERS_CACHE).evict(createdCustomer.getId());
+        entityManagerFactory.getCache().evict(CustomerEntity.class, createdCustomer.getId());
+        double statementsBefore = statementsTotal();
+        long requestsBefore = statementsCount();
+        double hitsBefore = cacheGets("hit");
+
+        // Act: The first read loads the customer, the second is served from the cache
+        mockMvc.perform(get("/api/customers/{id}", createdCustomer.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/customers/{id}", createdCustomer.getId())).andExpect(status().isOk());
+
+        // Assert: One SELECT across both requests
+        assertEquals(requestsBefore + 2, statementsCount());
+        assertEquals(statementsBefore + 1, statementsTotal());
+        assertEquals(hitsBefore + 1, cacheGets("hit"));
+        assertTrue(meterRegistry.get("customer.service").tag("method", "createCustomer").timer().count() > 0);
+        assertTrue(meterRegistry.get("http.server.requests").tag("uri", "/api/customers/{id}").timer().count() >= 2);
+    }
+
+    @Test
+    void testErrorsAreCountedByOutcome() throws Exception {
+        // Arrange
+        double before = errors("not_found");
+
+        // Act
+        mockMvc.perform(delete("/api/customers/{id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/customers").param("after", "not a cursor")).andExpect(status().isBadRequest());
+
+        // Assert
+        assertEquals(before + 1, errors("not_found"));
+        assertTrue(errors("invalid_cursor") >= 1);
+    }
+
+    @Test
+    void testReadMissIsNotCountedAsError() throws Exception {
+        // Arrange
+        double before = errors("not_found");
+
+        // Act
+        mockMvc.perform(get("/api/customers/{id}", Long.MAX_VALUE - 1)).andExpect(status().isNotFound());
+
+        // Assert: Misses on reads are answered without going through the exception handler
+        assertEquals(before, errors("not_found"));
+    }
+
+    private DistributionSummary statements() {
+        return meterRegistry.find(StatementMetricsInterceptor.METRIC_NAME)
+                .tags("method", "GET", "uri", "/api/customers/{id}")
+                .summary();
+    }
+
+    private long statementsCount() {
+        DistributionSummary summary = statements();
+        return summary == null ? 0 : summary.count();
+    }
+
+    private double statementsTotal() {
+        DistributionSummary summary = statements();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private double cacheGets(String result) {
+        FunctionCounter counter = meterRegistry.find("cache.gets").tags("cache", "customers", "result", result).functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private double errors(String outcome) {
+        Counter counter = meterRegistry.find(GlobalExceptionHandler.ERRORS_METRIC).tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
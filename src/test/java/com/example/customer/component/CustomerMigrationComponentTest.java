@@ -0,0 +1,65 @@
+package com.example.customer.component;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Postgres migrations over the schema that {@code hibernate.ddl-auto=update} created before Flyway took over,
+ * with the settings of the cloud profile.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class CustomerMigrationComponentTest {
+
+    // What Hibernate generated for CustomerEntity with GenerationType.IDENTITY
+    private static final String DDL_AUTO_SCHEMA = """
+            create table customers (
+                id bigint generated by default as identity,
+                address varchar(100) not null,
+                date_of_birth date not null,
+                first_name varchar(50) not null,
+                last_name varchar(50) not null,
+                national_security_number varchar(20) not null,
+                phone_number varchar(15) not null,
+                primary key (id)
+            )""";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    void testMigratesSchemaCreatedByDdlAuto() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        jdbcTemplate.execute(DDL_AUTO_SCHEMA);
+        jdbcTemplate.update("insert into customers (address, date_of_birth, first_name, last_name, national_security_number,"
+                + " phone_number) values ('Main Street 1', date '1990-01-01', 'John', 'Smith', '123-45-6789', '555-1234')");
+        Long existingId = jdbcTemplate.queryForObject("select max(id) from customers", Long.class);
+
+        // Act
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration/postgresql")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        // Assert: The id is no longer an identity, and inserts without one take it from the sequence
+        assertEquals("NO", jdbcTemplate.queryForObject(
+                "select is_identity from information_schema.columns where table_name = 'customers' and column_name = 'id'",
+                String.class));
+        Long insertedId = jdbcTemplate.queryForObject("insert into customers (first_name, last_name, address, phone_number,"
+                + " date_of_birth, national_security_number) values ('Jane', 'Smith', 'Main Street 2', '555-4321',"
+                + " date '1991-01-01', '987-65-4321') returning id", Long.class);
+        assertTrue(insertedId > existingId);
+        assertEquals(0L, jdbcTemplate.queryForObject("select version from customers where id = ?", Long.class, existingId));
+    }
+}
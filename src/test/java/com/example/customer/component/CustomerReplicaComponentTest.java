@@ -0,0 +1,83 @@
+package com.example.customer.component;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerSearchCriteria;
+import com.example.customer.app.CustomerService;
+import com.example.customer.app.ReplicaDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A second in-memory H2 database stands in for the replica. It has the schema but is not kept in sync, so what a
+ * query returns shows which database it ran on.
+ */
+@SpringBootTest(properties = {"customer.replicas.enabled=true", "customer.replicas.urls=" + CustomerReplicaComponentTest.REPLICA_URL})
+@ActiveProfiles("test")
+public class CustomerReplicaComponentTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+    private static final long REPLICA_ONLY_ID = 1_000_000_000L;
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ReplicaDataSource replicaDataSource;
+
+    @BeforeAll
+    static void createReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").locations("classpath:db/migration/h2").load().migrate();
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.update("""
+                MERGE INTO customers (id, first_name, last_name, address, phone_number, date_of_birth, national_security_number)
+                KEY (id) VALUES (?, 'Replicaonly', 'Doe', '1 Elm Street', '080-322-3344', DATE '1980-01-01', '123-45-6789')""",
+                REPLICA_ONLY_ID);
+    }
+
+    @Test
+    void testReadOnlyQueriesRunOnReplica() {
+        // Act
+        Customer created = customerService.createCustomer(testCustomer("Primaryonly"));
+
+        // Assert: The write went to the primary, the searches to the replica, the lookup by id to the primary
+        assertEquals(List.of("Replicaonly"), firstNames("Replicaonly"));
+        assertEquals(List.of(), firstNames("Primaryonly"));
+        assertTrue(customerService.findCustomerById(created.getId()).isPresent());
+    }
+
+    @Test
+    void testPinnedReadsRunOnPrimary() {
+        // Arrange
+        customerService.createCustomer(testCustomer("Justwritten"));
+
+        // Act
+        replicaDataSource.pinToPrimary();
+        List<String> written;
+        List<String> replicaOnly;
+        try {
+            written = firstNames("Justwritten");
+            replicaOnly = firstNames("Replicaonly");
+        } finally {
+            replicaDataSource.unpin();
+        }
+
+        // Assert
+        assertFalse(written.isEmpty());
+        assertEquals(List.of(), replicaOnly);
+    }
+
+    private List<String> firstNames(String name) {
+        return customerService.searchCustomers(new CustomerSearchCriteria(name, null, null, null), null, 100)
+                .customers().stream().map(Customer::getFirstName).toList();
+    }
+}
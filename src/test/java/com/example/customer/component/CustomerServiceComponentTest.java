@@ -1,16 +1,30 @@
 package com.example.customer.component;
 
 import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerField;
+import com.example.customer.api.CustomerPage;
+import com.example.customer.api.CustomerSearchCriteria;
+import com.example.customer.api.PartialCustomerPage;
+import com.example.customer.app.CustomerCursor;
 import com.example.customer.app.CustomerEntity;
+import com.example.customer.app.CustomerNotFoundException;
 import com.example.customer.app.CustomerRepository;
 import com.example.customer.app.CustomerService;
+import com.example.customer.app.CustomerVersionConflictException;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.example.customer.CustomerFixture.testCustomer;
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +38,8 @@ public class CustomerServiceComponentTest {
     private CustomerService customerService;
     @Autowired
     private CustomerRepository customerRepository;
+    @Autowired
+    private EntityManager entityManager;
 
     @Test
     void testCreateAndReadCustomer() {
@@ -41,7 +57,7 @@ public class CustomerServiceComponentTest {
         Optional<CustomerEntity> retrievedCustomerEntity = customerRepository.findById(createdCustomer.getId());
         assertTrue(retrievedCustomerEntity.isPresent());
 
-        Customer retrievedCustomer = customerService.getCustomerById(createdCustomer.getId());
+        Customer retrievedCustomer = customerService.findCustomerById(createdCustomer.getId()).orElseThrow();
 
         // Assert: Verify that the retrieved customer matches the saved customer
         assertEquals(customer.getFirstName(), retrievedCustomer.getFirstName());
@@ -67,10 +83,28 @@ public class CustomerServiceComponentTest {
         assertEquals("Smith", updatedCustomer.getLastName());
 
         // Retrieve the customer and verify
-        Customer retrievedCustomer = customerService.getCustomerById(updatedCustomer.getId());
+        Customer retrievedCustomer = customerService.findCustomerById(updatedCustomer.getId()).orElseThrow();
         assertEquals("Smith", retrievedCustomer.getLastName());
     }
 
+    @Test
+    void testUpdateCustomerRejectsStaleVersion() {
+        // Arrange: Create a customer and update it once
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John"));
+        Long originalVersion = createdCustomer.getVersion();
+        Customer firstUpdate = testCustomer("John");
+        firstUpdate.setVersion(originalVersion);
+        customerService.updateCustomer(createdCustomer.getId(), firstUpdate);
+
+        // Act & Assert: A second update based on the original version is rejected
+        Customer staleUpdate = testCustomer("Jane");
+        staleUpdate.setVersion(originalVersion);
+        assertThrows(CustomerVersionConflictException.class,
+                () -> customerService.updateCustomer(createdCustomer.getId(), staleUpdate));
+        assertThrows(CustomerNotFoundException.class,
+                () -> customerService.updateCustomer(Long.MAX_VALUE, testCustomer("Jane")));
+    }
+
     @Test
     void testDeleteCustomer() {
         // Arrange: Create and save a customer
@@ -85,4 +119,102 @@ public class CustomerServiceComponentTest {
         Optional<CustomerEntity> deletedCustomer = customerRepository.findById(createdCustomer.getId());
         assertFalse(deletedCustomer.isPresent());
     }
+
+    @Test
+    void testGetCustomersPagesThroughAllCustomers() {
+        // Arrange: Create and save three customers
+        Customer first = customerService.createCustomer(testCustomer("John"));
+        Customer second = customerService.createCustomer(testCustomer("Jane"));
+        Customer third = customerService.createCustomer(testCustomer("Jack"));
+        String start = CustomerCursor.encode(first.getId() - 1);
+
+        // Act: Read them two at a time
+        CustomerPage firstPage = customerService.getCustomers(start, 2);
+        CustomerPage secondPage = customerService.getCustomers(firstPage.nextCursor(), 2);
+
+        // Assert: Pages are in id order and the last page has no cursor
+        assertEquals(List.of(first.getId(), second.getId()), firstPage.customers().stream().map(Customer::getId).toList());
+        assertEquals(List.of(third.getId()), secondPage.customers().stream().map(Customer::getId).toList());
+        assertNull(secondPage.nextCursor());
+    }
+
+    @Test
+    void testExportCustomers() {
+        // Arrange: Create and save a customer
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John"));
+        List<Customer> exported = new ArrayList<>();
+
+        // Act: Stream the table
+        customerService.exportCustomers(exported::add);
+
+        // Assert: The customer is part of the export
+        assertTrue(exported.stream().anyMatch(customer -> customer.getId().equals(createdCustomer.getId())));
+    }
+
+    @Test
+    void testSearchCustomers() {
+        // Arrange
+        Customer john = testCustomer("Johnathan");
+        john.setLastName("Searchable");
+        john.setPhoneNumber("555-000-1111");
+        john.setDateOfBirth(LocalDate.of(1975, 5, 5));
+        Customer jane = testCustomer("Jane");
+        jane.setLastName("Searchable");
+        jane.setPhoneNumber("555-000-2222");
+        jane.setDateOfBirth(LocalDate.of(1995, 5, 5));
+        Customer createdJohn = customerService.createCustomer(john);
+        Customer createdJane = customerService.createCustomer(jane);
+
+        // Act & Assert: Case-insensitive prefix on either name
+        assertEquals(List.of(createdJohn.getId(), createdJane.getId()),
+                ids(customerService.searchCustomers(new CustomerSearchCriteria("SEARCHAB", null, null, null), null, 10)));
+        assertEquals(List.of(createdJohn.getId()),
+                ids(customerService.searchCustomers(new CustomerSearchCriteria("johnath", null, null, null), null, 10)));
+
+        // Act & Assert: Exact phone number and date of birth range
+        assertEquals(List.of(createdJane.getId()),
+                ids(customerService.searchCustomers(new CustomerSearchCriteria(null, "555-000-2222", null, null), null, 10)));
+        assertEquals(List.of(createdJohn.getId()),
+                ids(customerService.searchCustomers(new CustomerSearchCriteria("searchable", null,
+                        LocalDate.of(1970, 1, 1), LocalDate.of(1980, 1, 1)), null, 10)));
+
+        // Act & Assert: LIKE wildcards in the input are matched literally
+        assertTrue(customerService.searchCustomers(new CustomerSearchCriteria("%", null, null, null), null, 10).customers().isEmpty());
+
+        // Act & Assert: Paging through matches
+        CustomerPage firstPage = customerService.searchCustomers(new CustomerSearchCriteria("searchable", null, null, null), null, 1);
+        assertEquals(List.of(createdJohn.getId()), ids(firstPage));
+        assertEquals(List.of(createdJane.getId()),
+                ids(customerService.searchCustomers(new CustomerSearchCriteria("searchable", null, null, null), firstPage.nextCursor(), 1)));
+    }
+
+    @Test
+    void testGetAndSearchCustomersWithFields() {
+        // Arrange
+        Customer john = testCustomer("Johnathan");
+        john.setLastName("Projected");
+        Customer createdJohn = customerService.createCustomer(john);
+        Customer createdJane = customerService.createCustomer(testCustomer("Jane"));
+        entityManager.flush();
+        entityManager.clear();
+        Set<CustomerField> fields = CustomerField.parse("firstName,lastName");
+
+        // Act
+        PartialCustomerPage page = customerService.getCustomers(fields, CustomerCursor.encode(createdJohn.getId() - 1), 2);
+        PartialCustomerPage matches = customerService.searchCustomers(new CustomerSearchCriteria("projected", null, null, null),
+                fields, null, 10);
+
+        // Assert: Only the requested columns are read, and no entity is loaded into the persistence context
+        assertEquals(Map.of("id", createdJohn.getId(), "firstName", "Johnathan", "lastName", "Projected"), page.customers().get(0));
+        assertEquals(createdJane.getId(), page.customers().get(1).get("id"));
+        assertEquals(List.of("id", "firstName", "lastName"), List.copyOf(page.customers().get(1).keySet()));
+        assertNotNull(page.nextCursor());
+        assertEquals(List.of(createdJohn.getId()), matches.customers().stream().map(customer -> customer.get("id")).toList());
+        assertNull(matches.nextCursor());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    private static List<Long> ids(CustomerPage page) {
+        return page.customers().stream().map(Customer::getId).toList();
+    }
 }
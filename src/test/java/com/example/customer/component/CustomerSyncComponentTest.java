@@ -0,0 +1,85 @@
+package com.example.customer.component;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerDelta;
+import com.example.customer.api.CustomerTombstone;
+import com.example.customer.app.CustomerEntity;
+import com.example.customer.app.CustomerService;
+import com.example.customer.app.CustomerSyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "customer.changes.settle-time=0s")
+@ActiveProfiles("test")
+@Transactional
+public class CustomerSyncComponentTest {
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private CustomerSyncService customerSyncService;
+
+    @Test
+    void testDeltaPagesThroughModifiedAndDeletedCustomers() {
+        // Arrange
+        Instant since = CustomerEntity.now();
+        Customer kept = customerService.createCustomer(testCustomer("Kept"));
+        Customer removed = customerService.createCustomer(testCustomer("Removed"));
+        Customer renamed = customerService.createCustomer(testCustomer("Renamed"));
+        Customer update = testCustomer("Updated");
+        update.setVersion(renamed.getVersion());
+        customerService.updateCustomer(renamed.getId(), update);
+        customerService.deleteCustomer(removed.getId());
+        List<Long> ours = List.of(kept.getId(), removed.getId(), renamed.getId());
+
+        // Act: One change per page
+        List<Long> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        CustomerDelta delta = customerSyncService.getModifiedCustomers(since, null, 1);
+        while (true) {
+            delta.customers().stream().filter(customer -> ours.contains(customer.getId())).forEach(customer -> {
+                changed.add(customer.getId());
+                names.add(customer.getFirstName());
+            });
+            delta.deleted().stream().map(CustomerTombstone::id).filter(ours::contains).forEach(deleted::add);
+            if (delta.nextCursor() == null) {
+                break;
+            }
+            assertNull(delta.watermark());
+            delta = customerSyncService.getModifiedCustomers(since, delta.nextCursor(), 1);
+        }
+
+        // Assert: The renamed customer shows up once, at its latest change, and the removed one only as a tombstone
+        assertEquals(List.of(kept.getId(), renamed.getId()), changed);
+        assertEquals(List.of("Kept", "Updated"), names);
+        assertEquals(List.of(removed.getId()), deleted);
+        assertNotNull(delta.watermark());
+        assertFalse(delta.watermark().isBefore(since));
+    }
+
+    @Test
+    void testDeltaIsEmpty_WhenNothingChangedSinceWatermark() {
+        // Arrange
+        customerService.createCustomer(testCustomer("Earlier"));
+        Instant watermark = customerSyncService.getModifiedCustomers(CustomerEntity.now(), null, 10).watermark();
+
+        // Act
+        CustomerDelta delta = customerSyncService.getModifiedCustomers(watermark, null, 10);
+
+        // Assert
+        assertTrue(delta.customers().isEmpty());
+        assertTrue(delta.deleted().isEmpty());
+        assertNull(delta.nextCursor());
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.customer.component;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerSearchCriteria;
+import com.example.customer.api.StatementMetricsInterceptor;
+import com.example.customer.app.CustomerCursor;
+import com.example.customer.app.CustomerEntity;
+import com.example.customer.app.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static com.example.customer.app.CustomerCacheConfig.CUSTOMERS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statements and connections per request. Every endpoint runs in a single service transaction, so it checks out one
+ * connection and returns it before the response is written; cache hits check out none.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CustomerTransactionComponentTest {
+
+    // Generous for an in-memory database; a connection held through the response would not come back at all
+    private static final Duration HOLD_BUDGET = Duration.ofSeconds(1);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testReadsUseOneConnectionAndOneStatement() throws Exception {
+        // Arrange
+        Customer created = customerService.createCustomer(testCustomer("Boundary"));
+        String after = CustomerCursor.encode(created.getId() - 1);
+
+        // Act
+        Usage list = measure("GET", "/api/customers", get("/api/customers").param("after", after).param("limit", "1"));
+        Usage fields = measure("GET", "/api/customers",
+                get("/api/customers").param("fields", "firstName").param("after", after));
+        Usage search = measure("GET", "/api/customers/search", get("/api/customers/search").param("name", "boundary"));
+
+        // Assert
+        for (Usage usage : List.of(list, fields, search)) {
+            assertEquals(1, usage.statements());
+            assertWithinBudget(1, usage);
+        }
+    }
+
+    @Test
+    void testLookupByIdUsesNoConnection_WhenCached() throws Exception {
+        // Arrange
+        Customer created = customerService.createCustomer(testCustomer("Lookup"));
+        cacheManager.getCache(CUSTOMERS_CACHE).evict(created.getId());
+        entityManagerFactory.getCache().evict(CustomerEntity.class, created.getId());
+
+        // Act: The first lookup reads the customer, the second is served from the cache
+        Usage miss = measure("GET", "/api/customers/{id}", get("/api/customers/{id}", created.getId()));
+        Usage hit = measure("GET", "/api/customers/{id}", get("/api/customers/{id}", created.getId()));
+
+        // Assert
+        assertEquals(1, miss.statements());
+        assertWithinBudget(1, miss);
+        assertEquals(0, hit.statements());
+        assertEquals(0, hit.connections());
+    }
+
+    @Test
+    void testWritesUseOneConnection() throws Exception {
+        // Arrange
+        String body = objectMapper.writeValueAsString(testCustomer("Written"));
+
+        // Act
+        Usage create = measure("POST", "/api/customers",
+                post("/api/customers").contentType(MediaType.APPLICATION_JSON).content(body));
+        Long id = customerService.searchCustomers(new CustomerSearchCriteria("written", null, null, null), null, 1)
+                .customers().get(0).getId();
+        Usage update = measure("PUT", "/api/customers/{id}",
+                put("/api/customers/{id}", id).contentType(MediaType.APPLICATION_JSON).content(body));
+        Usage delete = measure("DELETE", "/api/customers/{id}", delete("/api/customers/{id}", id));
+
+        // Assert: The outbox rows are written with JDBC on the same connection and are not counted as statements
+        assertTrue(create.statements() <= 2, "insert, and at most one sequence call");
+        assertWithinBudget(1, create);
+        assertEquals(1, update.statements());
+        assertWithinBudget(1, update);
+        assertEquals(1, delete.statements());
+        assertWithinBudget(1, delete);
+    }
+
+    private Usage measure(String method, String uri, MockHttpServletRequestBuilder request) throws Exception {
+        ConnectionRecorder connectionRecorder = (ConnectionRecorder) dataSource;
+        double before = statements(method, uri);
+        List<Duration> holds;
+        connectionRecorder.start();
+        try {
+            mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+        } finally {
+            holds = connectionRecorder.stop();
+        }
+        return new Usage((int) (statements(method, uri) - before), holds);
+    }
+
+    private double statements(String method, String uri) {
+        DistributionSummary summary = meterRegistry.find(StatementMetricsInterceptor.METRIC_NAME)
+                .tags("method", method, "uri", uri)
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private static void assertWithinBudget(int connections, Usage usage) {
+        assertEquals(connections, usage.connections());
+        for (Duration hold : usage.holds()) {
+            assertNotNull(hold, "Connection still checked out after the response");
+            assertTrue(hold.compareTo(HOLD_BUDGET) < 0, "Connection held for " + hold);
+        }
+    }
+
+    private record Usage(int statements, List<Duration> holds) {
+
+        int connections() {
+            return holds.size();
+        }
+    }
+
+    @TestConfiguration
+    static class ConnectionRecorderConfig {
+
+        @Bean
+        static BeanPostProcessor connectionRecordingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new ConnectionRecorder(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Records how long each connection checked out on the recording thread is held. A connection that has not been
+     * returned yet is recorded as {@code null}.
+     */
+    static class ConnectionRecorder extends DelegatingDataSource {
+
+        private final ThreadLocal<List<Duration>> holds = new ThreadLocal<>();
+
+        ConnectionRecorder(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        void start() {
+            holds.set(new ArrayList<>());
+        }
+
+        List<Duration> stop() {
+            List<Duration> recorded = holds.get();
+            holds.remove();
+            return recorded;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            List<Duration> recorded = holds.get();
+            if (recorded == null) {
+                return connection;
+            }
+            int index = recorded.size();
+            recorded.add(null);
+            long acquiredAt = System.nanoTime();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close") && recorded.get(index) == null) {
+                            recorded.set(index, Duration.ofNanos(System.nanoTime() - acquiredAt));
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        }
+                    });
+        }
+    }
+}
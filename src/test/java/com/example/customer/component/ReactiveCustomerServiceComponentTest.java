@@ -0,0 +1,137 @@
+package com.example.customer.component;
+
+import com.example.customer.api.Customer;
+import com.example.customer.api.CustomerChange;
+import com.example.customer.api.CustomerPage;
+import com.example.customer.api.CustomerSearchCriteria;
+import com.example.customer.app.CustomerChangeLog;
+import com.example.customer.app.CustomerNotFoundException;
+import com.example.customer.app.CustomerService;
+import com.example.customer.app.CustomerVersionConflictException;
+import com.example.customer.app.ReactiveCustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static com.example.customer.CustomerFixture.testCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the reactive stack against the same H2 database as the servlet stack, over R2DBC. R2DBC does not join the
+ * test-managed JPA transaction, so every test removes the customers it creates.
+ */
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("test")
+public class ReactiveCustomerServiceComponentTest {
+
+    @Autowired
+    private ReactiveCustomerService customerService;
+    @Autowired
+    private CustomerService blockingCustomerService;
+    @Autowired
+    private CustomerChangeLog changeLog;
+
+    @Test
+    void testCreateAndReadCustomer() {
+        // Act: Save the customer
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John")).block();
+
+        // Assert: Ids come from the shared sequence and versions start at 0, as with JPA
+        assertNotNull(createdCustomer.getId());
+        assertEquals(0L, createdCustomer.getVersion());
+
+        // Assert: Both stacks read the same row
+        Customer retrievedCustomer = customerService.findCustomerById(createdCustomer.getId()).block();
+        assertEquals("John", retrievedCustomer.getFirstName());
+        assertEquals("John", blockingCustomerService.findCustomerById(createdCustomer.getId()).orElseThrow().getFirstName());
+
+        customerService.deleteCustomer(createdCustomer.getId()).block();
+    }
+
+    @Test
+    void testUpdateCustomerWithVersion() {
+        // Arrange
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John")).block();
+        Customer update = testCustomer("Jane");
+        update.setVersion(createdCustomer.getVersion());
+
+        // Act
+        Customer updatedCustomer = customerService.updateCustomer(createdCustomer.getId(), update).block();
+
+        // Assert
+        assertEquals(1L, updatedCustomer.getVersion());
+        assertEquals("Jane", customerService.findCustomerById(createdCustomer.getId()).block().getFirstName());
+
+        Customer staleUpdate = testCustomer("Jack");
+        staleUpdate.setVersion(createdCustomer.getVersion());
+        StepVerifier.create(customerService.updateCustomer(createdCustomer.getId(), staleUpdate))
+                .expectError(CustomerVersionConflictException.class)
+                .verify();
+        StepVerifier.create(customerService.updateCustomer(Long.MAX_VALUE, testCustomer("Jack")))
+                .expectError(CustomerNotFoundException.class)
+                .verify();
+
+        customerService.deleteCustomer(createdCustomer.getId()).block();
+    }
+
+    @Test
+    void testDeleteCustomer() {
+        // Arrange
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John")).block();
+
+        // Act
+        customerService.deleteCustomer(createdCustomer.getId()).block();
+
+        // Assert
+        StepVerifier.create(customerService.findCustomerById(createdCustomer.getId()))
+                .verifyComplete();
+        StepVerifier.create(customerService.deleteCustomer(createdCustomer.getId()))
+                .expectError(CustomerNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void testWritesAreRecordedAsChanges() {
+        // Arrange
+        long before = changeLog.lastPosition();
+
+        // Act
+        Customer createdCustomer = customerService.createCustomer(testCustomer("John")).block();
+        customerService.updateCustomer(createdCustomer.getId(), testCustomer("Jane")).block();
+        customerService.deleteCustomer(createdCustomer.getId()).block();
+
+        // Assert: The outbox rows were written in the same transactions, through R2DBC
+        List<CustomerChange> changes = changeLog.findAfter(before, 10);
+        assertEquals(List.of(CustomerChange.Type.CREATED, CustomerChange.Type.UPDATED, CustomerChange.Type.DELETED),
+                changes.stream().map(CustomerChange::type).toList());
+        assertEquals("Jane", changes.get(1).customer().getFirstName());
+        assertTrue(changes.stream().allMatch(change -> change.customerId().equals(createdCustomer.getId())));
+    }
+
+    @Test
+    void testSearchAndPageCustomers() {
+        // Arrange
+        Customer john = testCustomer("Reactivejohn");
+        Customer jane = testCustomer("Reactivejane");
+        Customer createdJohn = customerService.createCustomer(john).block();
+        Customer createdJane = customerService.createCustomer(jane).block();
+
+        // Act
+        CustomerPage firstPage = customerService.searchCustomers(new CustomerSearchCriteria("REACTIVEJ", null, null, null), null, 1).block();
+        CustomerPage secondPage = customerService.searchCustomers(new CustomerSearchCriteria("reactivej", null, null, null), firstPage.nextCursor(), 1).block();
+
+        // Assert
+        assertEquals(List.of(createdJohn.getId()), firstPage.customers().stream().map(Customer::getId).toList());
+        assertEquals(List.of(createdJane.getId()), secondPage.customers().stream().map(Customer::getId).toList());
+        assertNull(secondPage.nextCursor());
+        assertTrue(customerService.getCustomers(null, 1000).block().customers().stream()
+                .anyMatch(customer -> customer.getId().equals(createdJane.getId())));
+
+        customerService.deleteCustomer(createdJohn.getId()).block();
+        customerService.deleteCustomer(createdJane.getId()).block();
+    }
+}